@@ -0,0 +1,117 @@
+/**
+ * @file AdjacentCountTask.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Counts the bombs adjacent to every cell of a board in parallel
+ */
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @class AdjacentCountTask
+ * @brief Counts the bombs adjacent to every cell of a board in parallel
+ *
+ * The count is a 3x3 box sum over the bomb bits, done as a sum down each
+ * column of three rows followed by a sum across three columns. Bands of
+ * rows are split across a fork-join pool. A band only writes its own rows
+ * and only reads the bomb bits of the rows around it, which never change,
+ * so bands need no locking as long as the store shares nothing with its
+ * snapshots, which CellStore.claimAll sees to.
+ */
+class AdjacentCountTask extends RecursiveAction {
+
+    // version of the serialized form
+    private static final long serialVersionUID = 1L;
+
+    // bands with fewer cells than this are counted without splitting
+    private static final int MIN_BAND_CELLS = 1 << 16;
+
+    // cells of the board, laid out as in Board
+    private final CellStore m_cells;
+    private final int m_boardSize;
+
+    // rows counted by this task, from inclusive to exclusive
+    private final int m_from;
+    private final int m_to;
+
+    /**
+     * Constructs a task counting a band of rows
+     *
+     * @param cells Cells of the board
+     * @param boardSize Width and height of the board
+     * @param from First row to count
+     * @param to Row after the last row to count
+     */
+    AdjacentCountTask(CellStore cells, int boardSize, int from, int to) {
+        m_cells = cells;
+        m_boardSize = boardSize;
+        m_from = from;
+        m_to = to;
+    }
+
+    /**
+     * Counts the band, splitting it in half while it is large
+     */
+    @Override
+    protected void compute() {
+        if (((long) (m_to - m_from) * m_boardSize <= MIN_BAND_CELLS)
+                || (m_to - m_from < 2)) {
+            countBand();
+        } else {
+            int middle = (m_from + m_to) >>> 1;
+
+            invokeAll(new AdjacentCountTask(m_cells, m_boardSize, m_from,
+                                            middle),
+                      new AdjacentCountTask(m_cells, m_boardSize, middle,
+                                            m_to));
+        }
+    }
+
+    /**
+     * Counts every row of the band on the current thread
+     */
+    private void countBand() {
+        int[] columns = new int[m_boardSize + 2];
+
+        for (int x = m_from; x < m_to; x++) {
+            int row = x * m_boardSize;
+
+            // sum the bombs in the rows above, on and below this one, with
+            // an empty column either side so the edges need no checks
+            for (int y = 0; y < m_boardSize; y++) {
+                int sum = bomb(row + y);
+
+                if (x > 0) {
+                    sum += bomb(row - m_boardSize + y);
+                }
+
+                if (x < m_boardSize - 1) {
+                    sum += bomb(row + m_boardSize + y);
+                }
+
+                columns[y + 1] = sum;
+            }
+
+            // a bomb doesn't count itself
+            for (int y = 0; y < m_boardSize; y++) {
+                int cell = row + y;
+                int count = columns[y] + columns[y + 1] + columns[y + 2]
+                            - bomb(cell);
+
+                m_cells.set(cell, (byte) ((m_cells.get(cell)
+                                           & ~Board.ADJACENT_MASK) | count));
+            }
+        }
+    }
+
+    /**
+     * Gets whether a cell is a bomb
+     *
+     * @param cell Index of cell
+     * @return 1 if cell is a bomb, 0 otherwise
+     */
+    private int bomb(int cell) {
+        return (m_cells.get(cell) & Board.BOMB) >>> 4;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * @file BatchResult.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief What a batch of moves changed on a board
+ */
+
+/**
+ * @class BatchResult
+ * @brief What a batch of moves changed on a board
+ *
+ * Holds the tiles a call to Board.applyBatch changed, along with the
+ * counters and state of the board once the batch was made, so the caller
+ * can update itself once rather than after every move.
+ */
+public class BatchResult {
+
+    // holds the number of actions that changed the board
+    private final int m_applied;
+
+    // holds the cells revealed, and the cells diffused or undiffused
+    private final CellList m_revealedCells;
+    private final CellList m_toggledCells;
+
+    // holds number of tiles in given state after the batch
+    private final int m_diffused;
+    private final int m_hidden;
+    private final int m_revealed;
+
+    // holds whether the batch won or lost the game
+    private final boolean m_won;
+    private final boolean m_lost;
+
+    /**
+     * Constructs a result
+     *
+     * @param applied Number of actions that changed the board
+     * @param revealedCells Cells the batch revealed
+     * @param toggledCells Cells the batch diffused or undiffused
+     * @param board Board after the batch
+     */
+    BatchResult(int applied, CellList revealedCells, CellList toggledCells,
+                Board board) {
+        m_applied = applied;
+        m_revealedCells = revealedCells;
+        m_toggledCells = toggledCells;
+        m_diffused = board.getDiffused();
+        m_hidden = board.getHidden();
+        m_revealed = board.getRevealed();
+        m_won = board.isWon();
+        m_lost = board.isLost();
+    }
+
+    /**
+     * Gets the number of actions that changed the board, actions on tiles
+     * they couldn't change and actions after a bomb was revealed don't count
+     *
+     * @return Number of actions applied
+     */
+    public int getApplied() {
+        return m_applied;
+    }
+
+    /**
+     * Gets the cells the batch revealed, leaving out any opening too large
+     * to list
+     *
+     * @return The revealed cells
+     */
+    public CellList getRevealedCells() {
+        return m_revealedCells;
+    }
+
+    /**
+     * Gets the cells the batch diffused or undiffused, a cell toggled twice
+     * is listed twice
+     *
+     * @return The toggled cells
+     */
+    public CellList getToggledCells() {
+        return m_toggledCells;
+    }
+
+    /**
+     * Gets number of diffused tiles after the batch
+     *
+     * @return Number of diffused tiles
+     */
+    public int getDiffused() {
+        return m_diffused;
+    }
+
+    /**
+     * Gets number of hidden tiles after the batch
+     *
+     * @return Number of hidden tiles
+     */
+    public int getHidden() {
+        return m_hidden;
+    }
+
+    /**
+     * Gets number of revealed tiles after the batch
+     *
+     * @return Number of revealed tiles
+     */
+    public int getRevealed() {
+        return m_revealed;
+    }
+
+    /**
+     * Gets a boolean indicating the game is won
+     *
+     * @return True if game is won, false otherwise
+     */
+    public boolean isWon() {
+        return m_won;
+    }
+
+    /**
+     * Gets a boolean indicating the game is lost
+     *
+     * @return True if game is lost, false otherwise
+     */
+    public boolean isLost() {
+        return m_lost;
+    }
+}
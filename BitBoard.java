@@ -0,0 +1,750 @@
+/**
+ * @file BitBoard.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Stores the state of a Kablewie board as bitboards
+ */
+
+import java.util.SplittableRandom;
+
+/**
+ * @class BitBoard
+ * @brief Stores the state of a Kablewie board as bitboards
+ *
+ * Each row of the board is a run of longs holding one bit per tile, in
+ * separate planes for bombs, revealed tiles and diffused tiles. Adjacent
+ * counts aren't stored; they are worked out 64 tiles at a time with
+ * shifts and bit-sliced adders, and opening an area floods whole words at
+ * once. The same size, bomb count and seed place the bombs in the same
+ * tiles as Board, and revealing follows the same rules.
+ */
+public class BitBoard {
+
+    /**
+     * Gets number of bombs on board
+     *
+     * @return Number of bombs
+     */
+    public int getBombCount() {
+        return m_bombCount;
+    }
+
+    /**
+     * Gets the width and height of the board
+     *
+     * @return Width and height of board
+     */
+    public int getBoardSize() {
+        return m_boardSize;
+    }
+
+    /**
+     * Gets number of diffused tiles on board
+     *
+     * @return Number of diffused tiles
+     */
+    public int getDiffused() {
+        return m_diffused;
+    }
+
+    /**
+     * Gets number of hidden tiles on board
+     *
+     * @return Number of hidden tiles
+     */
+    public int getHidden() {
+        return m_hidden;
+    }
+
+    /**
+     * Gets number of revealed tiles on board
+     *
+     * @return Number of revealed tiles
+     */
+    public int getRevealed() {
+        return m_revealed;
+    }
+
+    /**
+     * Gets the seed the bombs were placed with
+     *
+     * @return Seed of the board
+     */
+    public long getSeed() {
+        return m_seed;
+    }
+
+    // number of tiles in a word
+    private static final int WORD_SIZE = 64;
+
+    // holds the width and height of the board, and the words in each row
+    private final int m_boardSize;
+    private final int m_rowWords;
+
+    // bits of the last word in each row that are on the board
+    private final long m_lastWordMask;
+
+    // holds number of bombs on board and the seed they were placed with
+    private final int m_bombCount;
+    private final long m_seed;
+
+    // planes holding one bit per tile
+    private final long[] m_bombs;
+    private final long[] m_revealedTiles;
+    private final long[] m_diffusedTiles;
+
+    // tiles opened by the fill in progress, empty between reveals
+    private final long[] m_open;
+
+    // scratch rows used while flooding a row
+    private final long[] m_allowedRow;
+    private final long[] m_floodedRow;
+
+    // holds number of tiles in given state
+    private int m_diffused;
+    private int m_hidden;
+    private int m_revealed;
+
+    // holds the state needed to tell whether the game is won or lost
+    private int m_safeHidden;
+    private int m_bombsDiffused;
+    private boolean m_lost;
+
+    // holds whether the bombs have been placed
+    private boolean m_placed;
+
+    /**
+     * Constructs board object, the same seed always places the bombs in the
+     * same tiles for a given size and bomb count
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param seed Seed to place bombs with
+     */
+    public BitBoard(int bombCount, int boardSize, long seed) {
+        this(bombCount, boardSize, seed, false);
+    }
+
+    /**
+     * Constructs board object, which may wait for the first click to place
+     * its bombs the same way as Board
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param seed Seed to place bombs with
+     * @param safeFirstClick Whether to place the bombs clear of the first
+     *                       tile revealed
+     */
+    public BitBoard(int bombCount, int boardSize, long seed,
+                    boolean safeFirstClick) {
+
+        // check the parameters are valid
+        if ((boardSize <= 0) || (boardSize > Board.MAX_BOARD_SIZE)) {
+            throw new IllegalArgumentException("Invalid boardSize: "
+                                               + boardSize);
+        }
+
+        if ((bombCount < 0) || (bombCount >= (boardSize * boardSize))) {
+            throw new IllegalArgumentException("Invalid bombCount: "
+                                               + bombCount);
+        }
+
+        // initialise variables
+        m_bombCount = bombCount;
+        m_boardSize = boardSize;
+        m_seed = seed;
+        m_rowWords = (boardSize + WORD_SIZE - 1) / WORD_SIZE;
+
+        if ((boardSize % WORD_SIZE) == 0) {
+            m_lastWordMask = -1L;
+        } else {
+            m_lastWordMask = (1L << (boardSize % WORD_SIZE)) - 1;
+        }
+
+        m_bombs = new long[boardSize * m_rowWords];
+        m_revealedTiles = new long[boardSize * m_rowWords];
+        m_diffusedTiles = new long[boardSize * m_rowWords];
+        m_open = new long[boardSize * m_rowWords];
+        m_allowedRow = new long[m_rowWords];
+        m_floodedRow = new long[m_rowWords];
+
+        m_diffused = 0;
+        m_hidden = boardSize * boardSize;
+        m_revealed = 0;
+
+        m_safeHidden = (boardSize * boardSize) - bombCount;
+        m_bombsDiffused = 0;
+        m_lost = false;
+        m_placed = !safeFirstClick;
+
+        if (m_placed) {
+            placeBombs(new SplittableRandom(seed), new int[0]);
+        }
+    }
+
+    /**
+     * Gets whether the bombs have been placed
+     *
+     * @return True if the bombs are placed, false otherwise
+     */
+    public boolean isPlaced() {
+        return m_placed;
+    }
+
+    /**
+     * Gets a boolean indicating the game is lost
+     *
+     * @return True if game is lost, false otherwise
+     */
+    public boolean isLost() {
+        return m_lost;
+    }
+
+    /**
+     * Gets a boolean indicating the game is won
+     *
+     * @return True if game is won, false otherwise
+     */
+    public boolean isWon() {
+
+        // bombs must be diffused, everything else must be revealed
+        return (m_safeHidden == 0) && (m_bombsDiffused == m_bombCount);
+    }
+
+    /**
+     * Gets whether a tile is a bomb
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is a bomb, false otherwise
+     */
+    public boolean isBomb(int x, int y) {
+        return (m_bombs[word(x, y)] & bit(y)) != 0;
+    }
+
+    /**
+     * Gets whether a tile is diffused
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is diffused, false otherwise
+     */
+    public boolean isDiffused(int x, int y) {
+        return (m_diffusedTiles[word(x, y)] & bit(y)) != 0;
+    }
+
+    /**
+     * Gets whether a tile is revealed
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is revealed, false otherwise
+     */
+    public boolean isRevealed(int x, int y) {
+        return (m_revealedTiles[word(x, y)] & bit(y)) != 0;
+    }
+
+    /**
+     * Gets the number of bombs adjacent to a tile, testing the bits of its
+     * neighbours one at a time, since countAdjacent only pays off for a
+     * whole word of tiles
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return The number of adjacent bombs
+     */
+    public int getAdjacentBombs(int x, int y) {
+        int bombs = 0;
+
+        for (int i = Math.max(0, x - 1);
+                i <= Math.min(m_boardSize - 1, x + 1); i++) {
+            for (int j = Math.max(0, y - 1);
+                    j <= Math.min(m_boardSize - 1, y + 1); j++) {
+                if (((i != x) || (j != y)) && isBomb(i, j)) {
+                    bombs++;
+                }
+            }
+        }
+
+        return bombs;
+    }
+
+    /**
+     * Counts the bombs adjacent to 64 tiles of a row at once
+     *
+     * The eight neighbours of every tile are added as eight bit planes with
+     * bit-sliced adders, giving the count of each tile as four bit planes.
+     *
+     * @param x Row of the tiles
+     * @param w Word of the row holding the tiles
+     * @param counts Array of four words to store the count bit planes in,
+     *               least significant first
+     */
+    public void countAdjacent(int x, int w, long[] counts) {
+        int row = x * m_rowWords;
+
+        counts[0] = 0;
+        counts[1] = 0;
+        counts[2] = 0;
+        counts[3] = 0;
+
+        add(counts, shiftedLeft(m_bombs, row, w));
+        add(counts, shiftedRight(m_bombs, row, w));
+
+        if (x > 0) {
+            int above = row - m_rowWords;
+            add(counts, shiftedLeft(m_bombs, above, w));
+            add(counts, m_bombs[above + w]);
+            add(counts, shiftedRight(m_bombs, above, w));
+        }
+
+        if (x < m_boardSize - 1) {
+            int below = row + m_rowWords;
+            add(counts, shiftedLeft(m_bombs, below, w));
+            add(counts, m_bombs[below + w]);
+            add(counts, shiftedRight(m_bombs, below, w));
+        }
+    }
+
+    /**
+     * Reveals a tile, and every tile around it if it has no adjacent bombs
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return The number of tiles revealed
+     */
+    public int reveal(int x, int y) {
+        int word = word(x, y);
+        long bit = bit(y);
+        int revealed;
+
+        if (((m_revealedTiles[word] | m_diffusedTiles[word]) & bit) != 0) {
+            return 0;
+        }
+
+        if (!m_placed) {
+            placeBombs(new SplittableRandom(m_seed),
+                       Board.clearCells((x * m_boardSize) + y, m_boardSize,
+                                        m_bombCount));
+            m_placed = true;
+
+            // tiles may have been diffused before the bombs were placed
+            for (int w = 0; w < m_bombs.length; w++) {
+                m_bombsDiffused += Long.bitCount(m_bombs[w]
+                                                 & m_diffusedTiles[w]);
+            }
+        }
+
+        if ((m_bombs[word] & bit) != 0) {
+            m_revealedTiles[word] |= bit;
+            m_lost = true;
+            revealed = 1;
+        } else {
+            if ((zeroTiles(x, y / WORD_SIZE) & bit) == 0) {
+                m_revealedTiles[word] |= bit;
+                revealed = 1;
+            } else {
+                revealed = fill(x, word, bit);
+            }
+
+            m_safeHidden -= revealed;
+        }
+
+        m_revealed += revealed;
+        m_hidden -= revealed;
+
+        return revealed;
+    }
+
+    /**
+     * Diffuses a tile
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     */
+    public void toggleDiffused(int x, int y) {
+        int word = word(x, y);
+        long bit = bit(y);
+
+        // check is tile is already revealed
+        if ((m_revealedTiles[word] & bit) != 0) {
+            return;
+        }
+
+        m_diffusedTiles[word] ^= bit;
+
+        int change = ((m_diffusedTiles[word] & bit) != 0) ? 1 : -1;
+
+        m_diffused += change;
+
+        if ((m_bombs[word] & bit) != 0) {
+            m_bombsDiffused += change;
+        }
+    }
+
+    /**
+     * Places the bombs using Floyd's sampling algorithm, drawing the same
+     * random numbers as Board so both place the same bombs
+     *
+     * @param rnd Random number generator to place bombs with
+     * @param clear Cells to keep clear of bombs, in ascending order
+     */
+    private void placeBombs(SplittableRandom rnd, int[] clear) {
+        int cells = (m_boardSize * m_boardSize) - clear.length;
+        int picks = m_bombCount;
+        boolean picked = true;
+
+        if (m_bombCount > (cells / 2)) {
+            for (int x = 0; x < m_boardSize; x++) {
+                int row = x * m_rowWords;
+
+                for (int w = 0; w < m_rowWords; w++) {
+                    m_bombs[row + w] = -1L;
+                }
+
+                m_bombs[row + m_rowWords - 1] = m_lastWordMask;
+            }
+
+            for (int cell : clear) {
+                m_bombs[word(cell / m_boardSize, cell % m_boardSize)] &=
+                        ~bit(cell % m_boardSize);
+            }
+
+            picks = cells - m_bombCount;
+            picked = false;
+        }
+
+        for (int j = cells - picks; j < cells; j++) {
+            int cell = Board.skipClear(rnd.nextInt(j + 1), clear);
+
+            // if that cell was already picked, j can't have been yet
+            if (isBomb(cell / m_boardSize, cell % m_boardSize) == picked) {
+                cell = Board.skipClear(j, clear);
+            }
+
+            m_bombs[word(cell / m_boardSize, cell % m_boardSize)] ^=
+                    bit(cell % m_boardSize);
+        }
+    }
+
+    /**
+     * Opens up the area around a hidden tile with no adjacent bombs
+     *
+     * Tiles with no adjacent bombs are flooded a word at a time, first
+     * along a row and then into the rows above and below, until no row
+     * changes. Every tile bordering the flooded area is then revealed.
+     *
+     * @param x Row of the tile
+     * @param word Index of the word holding the tile
+     * @param bit Bit of the tile in its word
+     * @return The number of tiles revealed
+     */
+    private int fill(int x, int word, long bit) {
+        int[] rows = new int[m_boardSize];
+        boolean[] queued = new boolean[m_boardSize];
+        int queueSize = 0;
+        int firstRow = x;
+        int lastRow = x;
+        int revealed = 0;
+
+        // flood the tile's row and the rows either side of it
+        m_open[word] = bit;
+
+        for (int row = Math.max(x - 1, 0);
+             row <= Math.min(x + 1, m_boardSize - 1); row++) {
+            rows[queueSize++] = row;
+            queued[row] = true;
+        }
+
+        while (queueSize > 0) {
+            int row = rows[--queueSize];
+            queued[row] = false;
+
+            if (!floodRow(row)) {
+                continue;
+            }
+
+            firstRow = Math.min(firstRow, row);
+            lastRow = Math.max(lastRow, row);
+
+            // the rows either side may now be able to flood further
+            if ((row > 0) && !queued[row - 1]) {
+                rows[queueSize++] = row - 1;
+                queued[row - 1] = true;
+            }
+
+            if ((row < m_boardSize - 1) && !queued[row + 1]) {
+                rows[queueSize++] = row + 1;
+                queued[row + 1] = true;
+            }
+        }
+
+        // reveal the flooded tiles and every tile next to them
+        for (int row = Math.max(firstRow - 1, 0);
+             row <= Math.min(lastRow + 1, m_boardSize - 1); row++) {
+
+            int start = row * m_rowWords;
+
+            for (int w = 0; w < m_rowWords; w++) {
+                long near = dilated(m_open, start, w);
+
+                if (row > 0) {
+                    near |= dilated(m_open, start - m_rowWords, w);
+                }
+
+                if (row < m_boardSize - 1) {
+                    near |= dilated(m_open, start + m_rowWords, w);
+                }
+
+                near &= ~(m_revealedTiles[start + w]
+                          | m_diffusedTiles[start + w]) & rowMask(w);
+
+                m_revealedTiles[start + w] |= near;
+                revealed += Long.bitCount(near);
+            }
+        }
+
+        // leave the flood plane empty for the next reveal
+        for (int row = firstRow; row <= lastRow; row++) {
+            int start = row * m_rowWords;
+
+            for (int w = 0; w < m_rowWords; w++) {
+                m_open[start + w] = 0;
+            }
+        }
+
+        return revealed;
+    }
+
+    /**
+     * Floods a row from the flooded tiles in it and in the rows either side
+     *
+     * @param x Row to flood
+     * @return True if the row's flooded tiles changed, false otherwise
+     */
+    private boolean floodRow(int x) {
+        int row = x * m_rowWords;
+        long[] allowed = m_allowedRow;
+        long[] flooded = m_floodedRow;
+        boolean changed = false;
+
+        // seed the row from the tiles it touches in the rows either side
+        for (int w = 0; w < m_rowWords; w++) {
+            long seeds = m_open[row + w];
+
+            if (x > 0) {
+                seeds |= dilated(m_open, row - m_rowWords, w);
+            }
+
+            if (x < m_boardSize - 1) {
+                seeds |= dilated(m_open, row + m_rowWords, w);
+            }
+
+            allowed[w] = zeroTiles(x, w) & ~(m_revealedTiles[row + w]
+                                             | m_diffusedTiles[row + w]);
+            flooded[w] = seeds & allowed[w];
+        }
+
+        // spread along the row towards higher tiles, then lower ones
+        for (int w = 0; w < m_rowWords; w++) {
+            if ((w > 0) && (flooded[w - 1] < 0) && ((allowed[w] & 1) != 0)) {
+                flooded[w] |= 1;
+            }
+
+            flooded[w] = fillUp(flooded[w], allowed[w]);
+        }
+
+        for (int w = m_rowWords - 1; w >= 0; w--) {
+            if ((w < m_rowWords - 1) && ((flooded[w + 1] & 1) != 0)
+                    && (allowed[w] < 0)) {
+                flooded[w] |= Long.MIN_VALUE;
+            }
+
+            flooded[w] = fillDown(flooded[w], allowed[w]);
+        }
+
+        for (int w = 0; w < m_rowWords; w++) {
+            if (flooded[w] != m_open[row + w]) {
+                m_open[row + w] = flooded[w];
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Gets the tiles of a word that are not bombs and have no adjacent bombs
+     *
+     * @param x Row of the tiles
+     * @param w Word of the row holding the tiles
+     * @return Bit mask of the tiles
+     */
+    private long zeroTiles(int x, int w) {
+        int row = x * m_rowWords;
+        long near = dilated(m_bombs, row, w);
+
+        if (x > 0) {
+            near |= dilated(m_bombs, row - m_rowWords, w);
+        }
+
+        if (x < m_boardSize - 1) {
+            near |= dilated(m_bombs, row + m_rowWords, w);
+        }
+
+        return ~near & rowMask(w);
+    }
+
+    /**
+     * Gets the bits of a word that are on the board
+     *
+     * @param w Word of a row
+     * @return Bit mask of the tiles on the board
+     */
+    private long rowMask(int w) {
+        return (w == m_rowWords - 1) ? m_lastWordMask : -1L;
+    }
+
+    /**
+     * Gets a word of a plane along with the tiles either side of it
+     *
+     * @param plane Plane to read
+     * @param row Index of the first word of the row
+     * @param w Word of the row
+     * @return Bits set for tiles set in the plane or next to one in the row
+     */
+    private long dilated(long[] plane, int row, int w) {
+        return plane[row + w] | shiftedLeft(plane, row, w)
+               | shiftedRight(plane, row, w);
+    }
+
+    /**
+     * Gets a word of a plane shifted so each tile holds the tile before it
+     *
+     * @param plane Plane to read
+     * @param row Index of the first word of the row
+     * @param w Word of the row
+     * @return Shifted word
+     */
+    private long shiftedLeft(long[] plane, int row, int w) {
+        long word = plane[row + w] << 1;
+
+        if (w > 0) {
+            word |= plane[row + w - 1] >>> (WORD_SIZE - 1);
+        }
+
+        return word & rowMask(w);
+    }
+
+    /**
+     * Gets a word of a plane shifted so each tile holds the tile after it
+     *
+     * @param plane Plane to read
+     * @param row Index of the first word of the row
+     * @param w Word of the row
+     * @return Shifted word
+     */
+    private long shiftedRight(long[] plane, int row, int w) {
+        long word = plane[row + w] >>> 1;
+
+        if (w < m_rowWords - 1) {
+            word |= plane[row + w + 1] << (WORD_SIZE - 1);
+        }
+
+        return word;
+    }
+
+    /**
+     * Gets the index of the word holding a tile
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return Index of the word
+     */
+    private int word(int x, int y) {
+        if ((x < 0) || (x >= m_boardSize) || (y < 0) || (y >= m_boardSize)) {
+            throw new IndexOutOfBoundsException("Invalid tile: " + x + ","
+                                                + y);
+        }
+
+        return (x * m_rowWords) + (y / WORD_SIZE);
+    }
+
+    /**
+     * Gets the bit of a tile in its word
+     *
+     * @param y Y coordinate of tile
+     * @return Bit of the tile
+     */
+    private static long bit(int y) {
+        return 1L << (y % WORD_SIZE);
+    }
+
+    /**
+     * Adds a plane of single bits to four bit planes of counts
+     *
+     * @param counts Count bit planes, least significant first
+     * @param bits Bits to add
+     */
+    private static void add(long[] counts, long bits) {
+        long carry = counts[0] & bits;
+        counts[0] ^= bits;
+
+        long next = counts[1] & carry;
+        counts[1] ^= carry;
+
+        carry = counts[2] & next;
+        counts[2] ^= next;
+
+        // no tile has more than eight neighbours, so the top plane can't
+        // overflow
+        counts[3] |= carry;
+    }
+
+    /**
+     * Spreads set bits towards higher bits through runs of allowed bits
+     *
+     * @param gen Bits to spread
+     * @param pro Bits that may be set
+     * @return Spread bits
+     */
+    private static long fillUp(long gen, long pro) {
+        gen |= pro & (gen << 1);
+        pro &= pro << 1;
+        gen |= pro & (gen << 2);
+        pro &= pro << 2;
+        gen |= pro & (gen << 4);
+        pro &= pro << 4;
+        gen |= pro & (gen << 8);
+        pro &= pro << 8;
+        gen |= pro & (gen << 16);
+        pro &= pro << 16;
+        gen |= pro & (gen << 32);
+
+        return gen;
+    }
+
+    /**
+     * Spreads set bits towards lower bits through runs of allowed bits
+     *
+     * @param gen Bits to spread
+     * @param pro Bits that may be set
+     * @return Spread bits
+     */
+    private static long fillDown(long gen, long pro) {
+        gen |= pro & (gen >>> 1);
+        pro &= pro >>> 1;
+        gen |= pro & (gen >>> 2);
+        pro &= pro >>> 2;
+        gen |= pro & (gen >>> 4);
+        pro &= pro >>> 4;
+        gen |= pro & (gen >>> 8);
+        pro &= pro >>> 8;
+        gen |= pro & (gen >>> 16);
+        pro &= pro >>> 16;
+        gen |= pro & (gen >>> 32);
+
+        return gen;
+    }
+}
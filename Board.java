@@ -7,13 +7,43 @@
  * @brief Stores information about the state of the Kablewie board
  */
 
-import java.awt.*;
-import java.util.Random;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
 /**
  * @class Board
  * @brief Stores information about the state of the Kablewie board
+ *
+ * The board is headless: every cell is packed into a single byte holding
+ * its adjacent bomb count, whether it is a bomb and whether it has been
+ * revealed or diffused. Cells are stored row by row, with x selecting the
+ * row, which is the order DisplayBoard lays its tiles out in.
+ *
+ * The cells and counters sit in a CellStore, either on the heap or in a
+ * memory-mapped board file. A board file is the counters followed by the
+ * cells, so a board kept in a file is saved as it is played and can be
+ * opened again without reading it in.
+ *
+ * Revealing an empty tile opens up its indexed region on smaller boards.
+ * Boards too large to index fill the opening a row span at a time, and
+ * hand a large opening on to ParallelFloodFill to finish across several
+ * threads. An opening too large to list reports that the whole board
+ * changed instead of listing its tiles.
+ *
+ * Boards on the heap keep their cells in copy-on-write chunks, so taking a
+ * snapshot only costs the chunks changed after it. Every move keeps a
+ * snapshot for undo, and copies and named snapshots let a player try a
+ * move out and go back.
  */
- 
+
 public class Board {
 
     /**
@@ -25,6 +55,24 @@ public class Board {
         return m_bombCount;
     }
 
+    /**
+     * Gets the seed the bombs were placed with
+     *
+     * @return Seed of the board
+     */
+    public long getSeed() {
+        return m_seed;
+    }
+
+    /**
+     * Gets the width and height of the board
+     *
+     * @return Width and height of board
+     */
+    public int getBoardSize() {
+        return m_boardSize;
+    }
+
     /**
      * Gets number of diffused tiles on board
      *
@@ -52,11 +100,76 @@ public class Board {
         return m_revealed;
     }
 
-    // maximum allowable board size
-    private static final int MAX_BOARD_SIZE = 30;
+    // maximum allowable board size, limited by the number of cells an
+    // array can hold
+    public static final int MAX_BOARD_SIZE = 46340;
+
+    // most moves that can be undone
+    private static final int MAX_UNDO = 256;
+
+    // largest board that gets its regions indexed
+    private static final int MAX_INDEXED_CELLS = 1 << 22;
+
+    // tiles an opening reveals one span at a time before the rest is
+    // filled across several threads, on boards too large to index
+    private static final int PARALLEL_FILL_CELLS = 1 << 20;
+
+    // most tiles of an opening listed, a larger one lists none of them
+    private static final int MAX_LISTED_CELLS = 1 << 24;
+
+    // layout of the bits in a cell
+    static final int ADJACENT_MASK = 0x0F;
+    static final int BOMB = 0x10;
+    static final int REVEALED = 0x20;
+    static final int DIFFUSED = 0x40;
 
-    // stores the tiles on the board
-    private final Tile[][] m_tiles;
+    // fields of the board file header
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 1;
+    private static final int HEADER_BOARD_SIZE = 2;
+    private static final int HEADER_BOMB_COUNT = 3;
+    private static final int HEADER_SEED = 4;
+    private static final int HEADER_DIFFUSED = 5;
+    private static final int HEADER_HIDDEN = 6;
+    private static final int HEADER_REVEALED = 7;
+    private static final int HEADER_SAFE_HIDDEN = 8;
+    private static final int HEADER_BOMBS_DIFFUSED = 9;
+    private static final int HEADER_LOST = 10;
+    private static final int HEADER_FIRST_CLICK = 11;
+
+    // first click of a board still waiting to place its bombs, boards that
+    // placed them when constructed have a first click of zero and the rest
+    // have the clicked cell plus one
+    static final long WAITING_FOR_CLICK = -1;
+
+    // marks a board file, "KABLEWIE" in ASCII, and its format version
+    private static final long FILE_MAGIC = 0x4B41424C45574945L;
+    private static final long FILE_VERSION = 1;
+
+    // stores the packed state of every cell on the board
+    private CellStore m_cells;
+
+    // holds snapshots taken before each move and after each undo, most
+    // recent first, and snapshots kept by name
+    private final ArrayDeque<CellStore> m_undo;
+    private final ArrayDeque<CellStore> m_redo;
+    private final Map<String, CellStore> m_marks;
+
+    // holds the journal moves are recorded to, or null if there isn't one
+    private GameJournal m_journal;
+
+    // holds the events changes are published to, or null until something
+    // watches the board
+    private BoardEvents m_events;
+
+    // holds the counts of tiles in each block, or null until something
+    // reads them
+    private SummaryPyramid m_summary;
+
+    // holds the areas opened by revealing an empty tile, or null if the
+    // board is too large to index, and the first click it was indexed for
+    private RegionIndex m_regions;
+    private long m_indexedClick;
 
     // holds the width and height of the board
     private final int m_boardSize;
@@ -64,237 +177,1321 @@ public class Board {
     // holds number of bombs on board
     private final int m_bombCount;
 
+    // holds the seed the bombs were placed with
+    private final long m_seed;
+
     // holds number of tiles in given state
     private int m_diffused;
     private int m_hidden;
     private int m_revealed;
-    
 
-	/**
-	* Adds all tiles to a DisplayBoard object
-	*
-	* @param board DisplayBoard to add tiles to
-	*/
-    public void addTilesToDisplay(DisplayBoard board) {
-        for (Tile[] tiles : m_tiles) {
-            for (Tile tile : tiles) {
-                board.add(tile);
-                tile.addMouseListener(board);
-            }
-        }
-    }
+    // holds the state needed to tell whether the game is won or lost
+    private int m_safeHidden;
+    private int m_bombsDiffused;
+    private boolean m_lost;
+
+    // holds the first click the bombs were placed around
+    private long m_firstClick;
 
 
-	
     /**
-     * Constructs board object
+     * Constructs board object with randomly placed bombs
      *
      * @param bombCount Number of bombs to place in board
      * @param boardSize Width and height of board
      */
     public Board(int bombCount, int boardSize) {
-        int bombs;
-        Random rnd = new Random();
+        this(bombCount, boardSize, new SplittableRandom().nextLong());
+    }
 
-        // check the parameters are valid
-        if ((boardSize <= 0) || (boardSize > MAX_BOARD_SIZE)) {
-            throw new IllegalArgumentException("Invalid boardSize: "
-		                                       + boardSize);
-        }
+    /**
+     * Constructs board object, the same seed always places the bombs in the
+     * same tiles for a given size and bomb count
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param seed Seed to place bombs with
+     */
+    public Board(int bombCount, int boardSize, long seed) {
+        this(bombCount, boardSize, seed,
+             new HeapCellStore(checkSize(bombCount, boardSize)), false);
+    }
 
-        if ((bombCount < 0) || (bombCount >= (boardSize * boardSize))) {
-            throw new IllegalArgumentException("Invalid bombCount: "
-                                               + bombCount);
-        }
+    /**
+     * Constructs board object with randomly placed bombs, which may wait for
+     * the first click
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param safeFirstClick Whether to place the bombs clear of the first
+     *                       tile revealed
+     */
+    public Board(int bombCount, int boardSize, boolean safeFirstClick) {
+        this(bombCount, boardSize, new SplittableRandom().nextLong(),
+             safeFirstClick);
+    }
+
+    /**
+     * Constructs board object, which may wait for the first click to place
+     * its bombs
+     *
+     * A board waiting for its first click has no bombs. The first reveal
+     * places them, leaving the tile revealed and the tiles around it clear
+     * whenever there is room, so the first click never loses. The same seed
+     * and first click always place the bombs in the same tiles.
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param seed Seed to place bombs with
+     * @param safeFirstClick Whether to place the bombs clear of the first
+     *                       tile revealed
+     */
+    public Board(int bombCount, int boardSize, long seed,
+                 boolean safeFirstClick) {
+        this(bombCount, boardSize, seed,
+             new HeapCellStore(checkSize(bombCount, boardSize)),
+             safeFirstClick);
+    }
+
+    /**
+     * Constructs board object kept in a board file, replacing any file
+     * already there
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param seed Seed to place bombs with
+     * @param file Board file to keep the board in
+     * @throws IOException If the file can't be created
+     */
+    public Board(int bombCount, int boardSize, long seed, Path file)
+            throws IOException {
+        this(bombCount, boardSize, seed,
+             MappedCellStore.create(file, checkSize(bombCount, boardSize)),
+             false);
+    }
+
+    /**
+     * Constructs board object in a store of cleared cells
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param seed Seed to place bombs with
+     * @param cells Store to keep the cells in
+     * @param safeFirstClick Whether to wait for the first click to place
+     *                       the bombs
+     */
+    private Board(int bombCount, int boardSize, long seed, CellStore cells,
+                  boolean safeFirstClick) {
 
         // initialise variables
         this.m_bombCount = bombCount;
         m_boardSize = boardSize;
-        m_tiles = new Tile[boardSize][boardSize];
+        m_seed = seed;
+        m_cells = cells;
+        m_undo = new ArrayDeque<>();
+        m_redo = new ArrayDeque<>();
+        m_marks = new HashMap<>();
 
         m_diffused = 0;
         m_hidden = boardSize * boardSize;
         m_revealed = 0;
 
-        // setup bombs
-        bombs = 0;
+        m_safeHidden = (boardSize * boardSize) - bombCount;
+        m_bombsDiffused = 0;
+        m_lost = false;
+        m_indexedClick = WAITING_FOR_CLICK;
 
-        while (bombs < bombCount) {
+        if (safeFirstClick) {
+            m_firstClick = WAITING_FOR_CLICK;
+        } else {
+            m_firstClick = 0;
+            placeBombs(new SplittableRandom(seed), new int[0]);
+            countAdjacent();
+        }
 
-            // get random x,y coordinates
-            int x = rnd.nextInt(boardSize);
-            int y = rnd.nextInt(boardSize);
+        m_cells.setHeader(HEADER_MAGIC, FILE_MAGIC);
+        m_cells.setHeader(HEADER_VERSION, FILE_VERSION);
+        m_cells.setHeader(HEADER_BOARD_SIZE, boardSize);
+        m_cells.setHeader(HEADER_BOMB_COUNT, bombCount);
+        m_cells.setHeader(HEADER_SEED, seed);
+        storeCounters();
+        indexRegions();
+    }
 
-            // if that tile is not already a bomb, make it one
-            if (m_tiles[x][y] == null) {
-                m_tiles[x][y] = new BombTile(new Point(x, y));
-                bombs++;
-            }
+    /**
+     * Constructs board object from a store holding a board
+     *
+     * @param cells Store holding the board
+     * @throws IOException If the store doesn't hold a board
+     */
+    private Board(CellStore cells) throws IOException {
+        if ((cells.getHeader(HEADER_MAGIC) != FILE_MAGIC)
+                || (cells.getHeader(HEADER_VERSION) != FILE_VERSION)) {
+            throw new IOException("Not a board file");
         }
 
-        // make all the other tiles empty
-        for (int x = 0; x < boardSize; x++) {
-            for (int y = 0; y < boardSize; y++) {
+        m_cells = cells;
+        m_boardSize = (int) cells.getHeader(HEADER_BOARD_SIZE);
+        m_bombCount = (int) cells.getHeader(HEADER_BOMB_COUNT);
+        m_seed = cells.getHeader(HEADER_SEED);
 
-                // check if we already set this tile to be a bomb
-                if (m_tiles[x][y] == null) {
-                    m_tiles[x][y] = new EmptyTile(new Point(x, y),
-                            getAdjacentCount(x, y));
-                }
-            }
+        if ((m_boardSize <= 0) || (m_boardSize > MAX_BOARD_SIZE)
+                || ((m_boardSize * m_boardSize) != cells.size())) {
+            throw new IOException("Invalid boardSize: " + m_boardSize);
         }
+
+        m_undo = new ArrayDeque<>();
+        m_redo = new ArrayDeque<>();
+        m_marks = new HashMap<>();
+        m_indexedClick = WAITING_FOR_CLICK;
+        loadCounters();
     }
 
     /**
-     * Gets a boolean indicating the game is lost
+     * Constructs a copy of a board, sharing its cells until either changes
      *
-     * @return True if game is lost, false otherwise
+     * @param other Board to copy
      */
-    public boolean isLost() {
-        for (Tile[] tileRow : m_tiles) {
-            for (Tile tile : tileRow) {
-                if (tile.hasLost()) {
-                    return true;
-                }
-            }
-        }
+    private Board(Board other) {
+        m_cells = other.m_cells.snapshot();
+        m_regions = other.m_regions;
+        m_indexedClick = other.m_indexedClick;
+        m_boardSize = other.m_boardSize;
+        m_bombCount = other.m_bombCount;
+        m_seed = other.m_seed;
+        m_undo = new ArrayDeque<>();
+        m_redo = new ArrayDeque<>();
+        m_marks = new HashMap<>();
+        loadCounters();
+    }
 
-        return false;
+    /**
+     * Copies the board, the copy starts with no moves to undo and is kept
+     * on the heap
+     *
+     * @return Copy of the board
+     */
+    public Board copy() {
+        return new Board(this);
     }
 
     /**
-     * Gets a boolean indicating the game is won
+     * Opens a board kept in a board file, later moves are saved to the file
+     * as they are made
      *
-     * @return True if game is won, false otherwise
+     * @param file Board file to open
+     * @return The board in the file
+     * @throws IOException If the file can't be opened or isn't a board file
      */
-    public boolean isWon() {
-        for (Tile[] tileRow : m_tiles) {
-            for (Tile tile : tileRow) {
-                if (!tile.isWinning()) {
-                    return false;
-                }
+    public static Board open(Path file) throws IOException {
+        return new Board(MappedCellStore.open(file));
+    }
+
+    /**
+     * Saves a copy of the board to a board file, replacing any file already
+     * there
+     *
+     * @param file Board file to save to
+     * @throws IOException If the file can't be written
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MappedCellStore.HEADER_BYTES
+                                                + m_cells.size());
+
+        for (int field = 0; field < CellStore.HEADER_FIELDS; field++) {
+            buffer.putLong(m_cells.getHeader(field));
+        }
+
+        for (int cell = 0; cell < m_cells.size(); cell++) {
+            buffer.put(m_cells.get(cell));
+        }
+
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
             }
         }
+    }
 
-        return true;
+    /**
+     * Gets whether the board is kept in a board file
+     *
+     * @return True if the board is kept in a file, false otherwise
+     */
+    public boolean isKeptInFile() {
+        return m_cells instanceof MappedCellStore;
     }
-	
-	/**
-     * Reveals a tile
+
+    /**
+     * Writes any changes to the board through to its board file, if it is
+     * kept in one
+     */
+    public void flush() {
+        m_cells.flush();
+    }
+
+    /**
+     * Keeps a snapshot of the board under a name, replacing any snapshot
+     * already kept under it
      *
-     * @param x X coordinate of tile
-     * @param y Y coordinate of tile
+     * @param name Name of snapshot
      */
-    public void reveal(int x, int y) {
-        Tile tile = m_tiles[x][y];
+    public void mark(String name) {
+        m_marks.put(name, m_cells.snapshot());
+    }
 
-        if (!tile.isDiffused() && !tile.isRevealed()) {
-            tile.reveal();
-            m_revealed++;
-            m_hidden--;
+    /**
+     * Returns the board to a named snapshot, the moves since can be undone
+     * unless the board is kept in a file
+     *
+     * @param name Name of snapshot
+     */
+    public void restore(String name) {
+        CellStore mark = m_marks.get(name);
 
-            if (tile.getAdjacentBombs() == 0) {
-                revealAdjacent(x, y);
+        if (mark == null) {
+            throw new IllegalArgumentException("Invalid name: " + name);
+        }
+
+        remember();
+
+        // the file is the board, so the snapshot is copied back into it
+        // rather than played on the heap from now on
+        if (isKeptInFile()) {
+            for (int field = 0; field < CellStore.HEADER_FIELDS; field++) {
+                m_cells.setHeader(field, mark.getHeader(field));
+            }
+
+            for (int cell = 0; cell < m_cells.size(); cell++) {
+                m_cells.set(cell, mark.get(cell));
             }
+        } else {
+            m_cells = mark.snapshot();
         }
+
+        loadCounters();
+        recordState(GameJournal.RESTORE);
     }
 
-	
-   /**
+    /**
+     * Forgets a named snapshot
+     *
+     * @param name Name of snapshot
+     */
+    public void forget(String name) {
+        m_marks.remove(name);
+    }
 
-     * show a bombtile
+    /**
+     * Gets whether there is a move to undo
+     *
+     * @return True if a move can be undone, false otherwise
+     */
+    public boolean canUndo() {
+        return !m_undo.isEmpty();
+    }
 
+    /**
+     * Gets whether there is an undone move to redo
+     *
+     * @return True if a move can be redone, false otherwise
      */
-    public void showBombTile( boolean s ) {
+    public boolean canRedo() {
+        return !m_redo.isEmpty();
+    }
 
-	
-	 for (Tile[] tileRow : m_tiles) {
-            for (Tile tile : tileRow) {
-               if( tile != null && tile.isBomb()  ){
-			tile.show(s);
-		}
-            }
+    /**
+     * Undoes the last move
+     *
+     * @return True if a move was undone, false if there wasn't one
+     */
+    public boolean undo() {
+        if (m_undo.isEmpty()) {
+            return false;
         }
 
-       
+        m_redo.push(m_cells);
+        m_cells = m_undo.pop();
+        loadCounters();
+        recordState(GameJournal.UNDO);
+
+        return true;
     }
 
+    /**
+     * Redoes the last undone move
+     *
+     * @return True if a move was redone, false if there wasn't one
+     */
+    public boolean redo() {
+        if (m_redo.isEmpty()) {
+            return false;
+        }
 
+        m_undo.push(m_cells);
+        m_cells = m_redo.pop();
+        loadCounters();
+        recordState(GameJournal.REDO);
 
+        return true;
+    }
 
     /**
-     * Diffuses a tile
+     * Sets the journal to record moves to, from now on
      *
-     * @param x X coordinate of tile
-     * @param y Y coordinate of tile
+     * @param journal Journal to record to, or null to stop recording
      */
-    public void toggleDiffused(int x, int y) {
+    public void setJournal(GameJournal journal) {
+        m_journal = journal;
+    }
 
-        // check is tile is already revealed
-        if (m_tiles[x][y].isRevealed()) {
-            return;
+    /**
+     * Gets the events the board publishes as its cells change, a copy of
+     * the board publishes its own
+     *
+     * @return Events of the board
+     */
+    public BoardEvents getEvents() {
+        if (m_events == null) {
+
+            // a small board needs no more slots than twice its cells, which
+            // matters when many boards are played at once
+            m_events = new BoardEvents(Math.min(
+                    BoardEvents.DEFAULT_CAPACITY_BITS,
+                    33 - Integer.numberOfLeadingZeros(m_cells.size())));
         }
 
-        m_tiles[x][y].toggleDiffused();
+        return m_events;
+    }
 
-        if (m_tiles[x][y].isDiffused()) {
-            m_diffused++;
-        } else {
-            m_diffused--;
+    /**
+     * Gets the counts of tiles in blocks of the board, which are kept up to
+     * date as moves are made
+     *
+     * @return Summary of the board
+     */
+    public SummaryPyramid getSummary() {
+        if (m_summary == null) {
+            m_summary = new SummaryPyramid(this);
         }
+
+        return m_summary;
     }
-	
-	/**
+
+    /**
+     * Gets whether the bombs have been placed, which a board constructed
+     * with a safe first click waits for its first reveal to do
+     *
+     * @return True if the bombs are placed, false otherwise
+     */
+    public boolean isPlaced() {
+        return m_firstClick != WAITING_FOR_CLICK;
+    }
+
+    /**
+     * Gets a boolean indicating the game is lost
+     *
+     * @return True if game is lost, false otherwise
+     */
+    public boolean isLost() {
+        return m_lost;
+    }
+
+    /**
+     * Gets a boolean indicating the game is won
+     *
+     * @return True if game is won, false otherwise
+     */
+    public boolean isWon() {
+
+        // bombs must be diffused, everything else must be revealed
+        return (m_safeHidden == 0) && (m_bombsDiffused == m_bombCount);
+    }
+
+    /**
+     * Gets whether a tile is a bomb
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is a bomb, false otherwise
+     */
+    public boolean isBomb(int x, int y) {
+        return (m_cells.get(index(x, y)) & BOMB) != 0;
+    }
+
+    /**
+     * Gets whether a tile is diffused
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is diffused, false otherwise
+     */
+    public boolean isDiffused(int x, int y) {
+        return (m_cells.get(index(x, y)) & DIFFUSED) != 0;
+    }
+
+    /**
+     * Gets whether a tile is revealed
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is revealed, false otherwise
+     */
+    public boolean isRevealed(int x, int y) {
+        return (m_cells.get(index(x, y)) & REVEALED) != 0;
+    }
+
+    /**
      * Gets the number of bombs adjacent to a tile
      *
      * @param x X coordinate of tile
      * @param y Y coordinate of tile
      * @return The number of adjacent bombs
      */
-    private int getAdjacentCount(int x, int y) {
-        int bombs = 0;
+    public int getAdjacentBombs(int x, int y) {
+        return m_cells.get(index(x, y)) & ADJACENT_MASK;
+    }
+
+	/**
+     * Reveals a tile, and every tile around it if it has no adjacent bombs
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return The cells that were revealed, or none of them if the opening
+     *         was too large to list
+     */
+    public CellList reveal(int x, int y) {
+        CellList revealed = new CellList();
+        int cell = index(x, y);
 
-        // loop through the adjacent x columns
-        for (int i = x - 1; i <= (x + 1); i++) {
+        if ((m_cells.get(cell) & (DIFFUSED | REVEALED)) != 0) {
+            return revealed;
+        }
 
-            // loop through adjacent y rows
-            for (int j = y - 1; j <= (y + 1); j++) {
+        remember();
+        revealCell(cell, revealed);
+        storeCounters();
 
-                // check tile is valid (e.g not off edge)
-                if ((i < m_boardSize) && (i >= 0)
-                        && (j < m_boardSize) && (j >= 0)) {
+        if (m_journal != null) {
+            m_journal.recordMove(GameJournal.REVEAL, x, y, this);
+        }
 
-                    // if tile is a bomb, increment counter
-                    if ((m_tiles[i][j] != null) && m_tiles[i][j].isBomb()) {
-                        bombs++;
-                    }
-                }
+        return revealed;
+    }
 
-            }
+    /**
+     * Diffuses a tile
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     */
+    public void toggleDiffused(int x, int y) {
+        int cell = index(x, y);
+
+        // check is tile is already revealed
+        if ((m_cells.get(cell) & REVEALED) != 0) {
+            return;
         }
 
-        return bombs;
+        remember();
+        toggleCell(cell);
+        storeCounters();
+
+        if (m_journal != null) {
+            m_journal.recordMove(GameJournal.DIFFUSE, x, y, this);
+        }
     }
-	    /**
-     * Reveals tiles adjacent to a given tile
+
+    /**
+     * Encodes a reveal or diffuse for applyBatch
      *
+     * @param type GameJournal.REVEAL or GameJournal.DIFFUSE
      * @param x X coordinate of tile
      * @param y Y coordinate of tile
+     * @return The encoded action
+     */
+    public long encodeAction(int type, int x, int y) {
+        if ((type != GameJournal.REVEAL) && (type != GameJournal.DIFFUSE)) {
+            throw new IllegalArgumentException("Invalid type: " + type);
+        }
+
+        return ((long) type << 32) | index(x, y);
+    }
+
+    /**
+     * Makes a batch of reveals and diffuses in one go, as if each were made
+     * in turn, stopping early if a bomb is revealed
+     *
+     * The counters are stored once for the whole batch, and the batch is
+     * undone as a single move. Each action is still recorded to the journal.
+     *
+     * @param actions Actions encoded by encodeAction
+     * @return The tiles the batch changed and the state it left the board in
      */
-    private void revealAdjacent(int x, int y) {
-        for (int i = x - 1; i <= (x + 1); i++) {
-            for (int j = y - 1; j <= (y + 1); j++) {
+    public BatchResult applyBatch(long[] actions) {
+        CellList revealed = new CellList();
+        CellList toggled = new CellList();
+        boolean remembered = false;
+        int applied = 0;
 
-                // check that the tile is in the board
-                if ((i < m_boardSize) && (i >= 0)
-                        && (j < m_boardSize) && (j >= 0)) {
+        // check every action before making any of them
+        for (long action : actions) {
+            int type = (int) (action >>> 32);
+            int cell = (int) action;
 
-                    // check that we aren't revealing the already revealed tile
-                    if ((x != i) || (y != j)) {
-                        reveal(i, j);
-                    }
-                }
+            if ((type != GameJournal.REVEAL) && (type != GameJournal.DIFFUSE)) {
+                throw new IllegalArgumentException("Invalid action: "
+                                                   + action);
             }
+
+            if ((cell < 0) || (cell >= m_cells.size())) {
+                throw new IndexOutOfBoundsException("Invalid tile: " + cell);
+            }
+        }
+
+        for (long action : actions) {
+            int type = (int) (action >>> 32);
+            int cell = (int) action;
+            int blocked = (type == GameJournal.REVEAL) ? (DIFFUSED | REVEALED)
+                                                       : REVEALED;
+
+            if (m_lost) {
+                break;
+            }
+
+            if ((m_cells.get(cell) & blocked) != 0) {
+                continue;
+            }
+
+            // the whole batch is undone as one move
+            if (!remembered) {
+                remember();
+                remembered = true;
+            }
+
+            if (type == GameJournal.REVEAL) {
+                revealCell(cell, revealed);
+            } else {
+                toggleCell(cell);
+                toggled.add(cell);
+            }
+
+            applied++;
+
+            if (m_journal != null) {
+                m_journal.recordMove(type, getX(cell), getY(cell), this);
+            }
+        }
+
+        if (remembered) {
+            storeCounters();
+        }
+
+        return new BatchResult(applied, revealed, toggled, this);
+    }
+
+    /**
+     * Gets the cells with a state bit set
+     *
+     * @param flag REVEALED or DIFFUSED
+     * @return Set of cells with the bit set
+     */
+    BitSet getTiles(int flag) {
+        return getTiles(m_cells, flag);
+    }
+
+    /**
+     * Gets the cells of a store with a state bit set
+     *
+     * @param cells Cells laid out as in Board
+     * @param flag REVEALED or DIFFUSED
+     * @return Set of cells with the bit set
+     */
+    static BitSet getTiles(CellStore cells, int flag) {
+        BitSet tiles = new BitSet(cells.size());
+
+        for (int cell = 0; cell < cells.size(); cell++) {
+            if ((cells.get(cell) & flag) != 0) {
+                tiles.set(cell);
+            }
+        }
+
+        return tiles;
+    }
+
+    /**
+     * Takes a snapshot of the cells, which shares them with the board until
+     * either changes if the board is on the heap
+     *
+     * @return Snapshot of the cells
+     */
+    CellStore snapshotCells() {
+        return m_cells.snapshot();
+    }
+
+    /**
+     * Sets which tiles are revealed and diffused, replacing every earlier
+     * move, the change can be undone
+     *
+     * @param revealed Set of revealed cells
+     * @param diffused Set of diffused cells
+     */
+    void setTiles(BitSet revealed, BitSet diffused) {
+        remember();
+
+        m_diffused = 0;
+        m_revealed = 0;
+        m_safeHidden = m_cells.size() - m_bombCount;
+        m_bombsDiffused = 0;
+        m_lost = false;
+
+        for (int cell = 0; cell < m_cells.size(); cell++) {
+            byte state = m_cells.get(cell);
+            int tile = state & (BOMB | ADJACENT_MASK);
+
+            if (revealed.get(cell)) {
+                tile |= REVEALED;
+                m_revealed++;
+
+                if ((state & BOMB) != 0) {
+                    m_lost = true;
+                } else {
+                    m_safeHidden--;
+                }
+            } else if (diffused.get(cell)) {
+                tile |= DIFFUSED;
+                m_diffused++;
+
+                if ((state & BOMB) != 0) {
+                    m_bombsDiffused++;
+                }
+            }
+
+            if (tile != state) {
+                m_cells.set(cell, (byte) tile);
+            }
+        }
+
+        m_hidden = m_cells.size() - m_revealed;
+        storeCounters();
+        publishChanged();
+    }
+
+    /**
+     * Gets the packed state of a cell
+     *
+     * @param cell Index of cell
+     * @return State of the cell, laid out as the bits of a cell
+     */
+    int getState(int cell) {
+        return m_cells.get(cell);
+    }
+
+    /**
+     * Gets the x coordinate of a cell
+     *
+     * @param cell Index of cell
+     * @return X coordinate of cell
+     */
+    public int getX(int cell) {
+        return cell / m_boardSize;
+    }
+
+    /**
+     * Gets the y coordinate of a cell
+     *
+     * @param cell Index of cell
+     * @return Y coordinate of cell
+     */
+    public int getY(int cell) {
+        return cell % m_boardSize;
+    }
+
+    /**
+     * Gets the index of a tile in the cell array
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return Index of the tile
+     */
+    private int index(int x, int y) {
+        if ((x < 0) || (x >= m_boardSize) || (y < 0) || (y >= m_boardSize)) {
+            throw new IndexOutOfBoundsException("Invalid tile: " + x + ","
+                                                + y);
+        }
+
+        return (x * m_boardSize) + y;
+    }
+
+    /**
+     * Checks the size of a new board is valid
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @return Number of cells on the board
+     */
+    static int checkSize(int bombCount, int boardSize) {
+
+        // check the parameters are valid
+        if ((boardSize <= 0) || (boardSize > MAX_BOARD_SIZE)) {
+            throw new IllegalArgumentException("Invalid boardSize: "
+                                               + boardSize);
+        }
+
+        if ((bombCount < 0) || (bombCount >= (boardSize * boardSize))) {
+            throw new IllegalArgumentException("Invalid bombCount: "
+                                               + bombCount);
+        }
+
+        return boardSize * boardSize;
+    }
+
+    /**
+     * Copies the counters into the store's header
+     */
+    private void storeCounters() {
+        m_cells.setHeader(HEADER_DIFFUSED, m_diffused);
+        m_cells.setHeader(HEADER_HIDDEN, m_hidden);
+        m_cells.setHeader(HEADER_REVEALED, m_revealed);
+        m_cells.setHeader(HEADER_SAFE_HIDDEN, m_safeHidden);
+        m_cells.setHeader(HEADER_BOMBS_DIFFUSED, m_bombsDiffused);
+        m_cells.setHeader(HEADER_LOST, m_lost ? 1 : 0);
+        m_cells.setHeader(HEADER_FIRST_CLICK, m_firstClick);
+    }
+
+    /**
+     * Copies the counters out of the store's header
+     */
+    private void loadCounters() {
+        m_diffused = (int) m_cells.getHeader(HEADER_DIFFUSED);
+        m_hidden = (int) m_cells.getHeader(HEADER_HIDDEN);
+        m_revealed = (int) m_cells.getHeader(HEADER_REVEALED);
+
+        m_safeHidden = (int) m_cells.getHeader(HEADER_SAFE_HIDDEN);
+        m_bombsDiffused = (int) m_cells.getHeader(HEADER_BOMBS_DIFFUSED);
+        m_lost = m_cells.getHeader(HEADER_LOST) != 0;
+        m_firstClick = m_cells.getHeader(HEADER_FIRST_CLICK);
+
+        // undoing or restoring can go back past the first click
+        indexRegions();
+        publishChanged();
+    }
+
+    /**
+     * Publishes that any cell may have changed, if anything is watching
+     */
+    private void publishChanged() {
+        if (m_events != null) {
+            m_events.publish(BoardEvents.BOARD_CHANGED, 0);
+        }
+
+        if (m_summary != null) {
+            m_summary.invalidate();
+        }
+    }
+
+    /**
+     * Records the board to the journal, if there is one
+     *
+     * @param type Move that left the board as it is
+     */
+    private void recordState(int type) {
+        if (m_journal != null) {
+            m_journal.recordState(type, this);
+        }
+    }
+
+    /**
+     * Keeps a snapshot of the board before a move so it can be undone,
+     * which starts a new line of moves to redo
+     *
+     * Snapshots of a board kept in a file are whole copies, so its moves
+     * aren't kept for undo.
+     */
+    private void remember() {
+        if (isKeptInFile()) {
+            return;
         }
+
+        if (m_undo.size() == MAX_UNDO) {
+            m_undo.removeLast();
+        }
+
+        m_undo.push(m_cells.snapshot());
+        m_redo.clear();
+    }
+
+    /**
+     * Reveals a hidden tile, and every tile around it if it has no adjacent
+     * bombs, placing the bombs first if this is the first click
+     *
+     * @param cell Index of a hidden tile that isn't diffused
+     * @param revealed List to add the newly revealed cells to
+     */
+    private void revealCell(int cell, CellList revealed) {
+        int before = revealed.size();
+        int unlisted = 0;
+
+        if (!isPlaced()) {
+            placeBombsAround(cell);
+        }
+
+        if ((m_cells.get(cell) & BOMB) != 0) {
+            markRevealed(cell);
+            revealed.add(cell);
+            m_lost = true;
+        } else if ((m_cells.get(cell) & ADJACENT_MASK) != 0) {
+            markRevealed(cell);
+            revealed.add(cell);
+        } else if ((m_regions == null) || !revealRegion(cell, revealed)) {
+            unlisted = fill(cell, revealed);
+        }
+
+        int count = revealed.size() - before + unlisted;
+
+        if (unlisted > 0) {
+            publishChanged();
+        } else {
+            if (m_events != null) {
+                m_events.publishAll(BoardEvents.REVEALED, revealed, before);
+            }
+
+            if (m_summary != null) {
+                m_summary.addRevealed(revealed, before);
+            }
+        }
+
+        m_revealed += count;
+        m_hidden -= count;
+
+        // a fill never reveals bombs
+        if ((m_cells.get(cell) & BOMB) == 0) {
+            m_safeHidden -= count;
+        }
+    }
+
+    /**
+     * Toggles whether a hidden tile is diffused
+     *
+     * @param cell Index of a hidden tile
+     */
+    private void toggleCell(int cell) {
+        m_cells.set(cell, (byte) (m_cells.get(cell) ^ DIFFUSED));
+
+        int change = ((m_cells.get(cell) & DIFFUSED) != 0) ? 1 : -1;
+
+        m_diffused += change;
+
+        if ((m_cells.get(cell) & BOMB) != 0) {
+            m_bombsDiffused += change;
+        }
+
+        if (m_events != null) {
+            m_events.publish((change > 0) ? BoardEvents.DIFFUSED
+                                          : BoardEvents.UNDIFFUSED, cell);
+        }
+
+        if (m_summary != null) {
+            m_summary.addDiffused(cell, change,
+                                  (m_cells.get(cell) & BOMB) != 0);
+        }
+    }
+
+    /**
+     * Shows a tile as a player sees it on another board, for a board that
+     * follows what can be seen of one
+     *
+     * Such a board holds no bombs of its own, only the tiles it is shown,
+     * and takes its bombs to be placed once a tile is revealed. Showing a
+     * tile isn't kept for undo or recorded to the journal.
+     *
+     * @param cell Index of cell
+     * @param diffused Whether the tile is diffused
+     * @param adjacent Number on the tile, or -1 if it is hidden
+     */
+    void show(int cell, boolean diffused, int adjacent) {
+        if (((m_cells.get(cell) & DIFFUSED) != 0) != diffused) {
+            toggleCell(cell);
+        }
+
+        if ((adjacent >= 0) && ((m_cells.get(cell) & REVEALED) == 0)) {
+            if (!isPlaced()) {
+                m_firstClick = cell + 1L;
+            }
+
+            m_cells.set(cell, (byte) (m_cells.get(cell) | REVEALED
+                                      | adjacent));
+            m_revealed++;
+            m_hidden--;
+            m_safeHidden--;
+
+            if (m_events != null) {
+                m_events.publish(BoardEvents.REVEALED, cell);
+            }
+
+            if (m_summary != null) {
+                m_summary.invalidate();
+            }
+        }
+
+        storeCounters();
+    }
+
+    /**
+     * Gets the first click the bombs were placed around
+     *
+     * @return Zero if the bombs were placed when the board was constructed,
+     *         WAITING_FOR_CLICK if they haven't been placed, otherwise the
+     *         cell clicked plus one
+     */
+    long getFirstClick() {
+        return m_firstClick;
+    }
+
+    /**
+     * Places the bombs clear of a tile and the tiles around it, counts the
+     * bombs adjacent to every tile and indexes the regions
+     *
+     * @param cell Index of the first tile clicked
+     */
+    void placeBombsAround(int cell) {
+        placeBombs(new SplittableRandom(m_seed),
+                   clearCells(cell, m_boardSize, m_bombCount));
+        countAdjacent();
+
+        // tiles may have been diffused before the bombs were placed
+        m_bombsDiffused = 0;
+
+        if (m_diffused > 0) {
+            for (int i = 0; i < m_cells.size(); i++) {
+                if ((m_cells.get(i) & (BOMB | DIFFUSED)) == (BOMB | DIFFUSED)) {
+                    m_bombsDiffused++;
+                }
+            }
+        }
+
+        m_firstClick = cell + 1L;
+        storeCounters();
+        indexRegions();
+        publishChanged();
+    }
+
+    /**
+     * Indexes the regions of the board for its first click, if it is small
+     * enough and the bombs are placed
+     */
+    private void indexRegions() {
+        if (m_indexedClick == m_firstClick) {
+            return;
+        }
+
+        if (isPlaced() && (m_cells.size() <= MAX_INDEXED_CELLS)) {
+            m_regions = new RegionIndex(m_cells, m_boardSize);
+        } else {
+            m_regions = null;
+        }
+
+        m_indexedClick = m_firstClick;
+    }
+
+    /**
+     * Marks a cell as revealed
+     *
+     * @param cell Index of cell
+     */
+    private void markRevealed(int cell) {
+        m_cells.set(cell, (byte) (m_cells.get(cell) | REVEALED));
+    }
+
+    /**
+     * Places the bombs using Floyd's sampling algorithm, which picks each
+     * bomb with a single random number however full the board is
+     *
+     * When more than half the board is bombs the safe tiles are picked
+     * instead, so the cost depends on whichever there are fewer of. Tiles
+     * to be kept clear are skipped over when numbering the tiles to pick
+     * from, which leaves the picks the same as before when there are none.
+     *
+     * @param rnd Random number generator to place bombs with
+     * @param clear Cells to keep clear of bombs, in ascending order
+     */
+    private void placeBombs(SplittableRandom rnd, int[] clear) {
+        int cells = m_cells.size() - clear.length;
+        int picks = m_bombCount;
+        boolean picked = true;
+
+        if (m_bombCount > (cells / 2)) {
+            for (int j = 0; j < cells; j++) {
+                setBomb(skipClear(j, clear), true);
+            }
+
+            picks = cells - m_bombCount;
+            picked = false;
+        }
+
+        for (int j = cells - picks; j < cells; j++) {
+            int cell = skipClear(rnd.nextInt(j + 1), clear);
+
+            // if that cell was already picked, j can't have been yet
+            if (((m_cells.get(cell) & BOMB) != 0) == picked) {
+                cell = skipClear(j, clear);
+            }
+
+            setBomb(cell, picked);
+        }
+    }
+
+    /**
+     * Sets whether a cell is a bomb, leaving its other bits alone
+     *
+     * @param cell Index of cell
+     * @param bomb Whether the cell is a bomb
+     */
+    private void setBomb(int cell, boolean bomb) {
+        int state = m_cells.get(cell);
+
+        m_cells.set(cell, (byte) (bomb ? (state | BOMB) : (state & ~BOMB)));
+    }
+
+    /**
+     * Gets the cells to keep clear of bombs around a first click
+     *
+     * @param cell Index of the first tile clicked
+     * @param boardSize Width and height of board
+     * @param bombCount Number of bombs to place in board
+     * @return The tile and the tiles around it in ascending order, or just
+     *         the tile if there isn't room for the bombs otherwise
+     */
+    static int[] clearCells(int cell, int boardSize, int bombCount) {
+        int x = cell / boardSize;
+        int y = cell % boardSize;
+        int[] clear = new int[9];
+        int count = 0;
+
+        for (int i = Math.max(x - 1, 0);
+             i <= Math.min(x + 1, boardSize - 1); i++) {
+            for (int j = Math.max(y - 1, 0);
+                 j <= Math.min(y + 1, boardSize - 1); j++) {
+                clear[count++] = (i * boardSize) + j;
+            }
+        }
+
+        if ((boardSize * boardSize) - count < bombCount) {
+            return new int[] {cell};
+        }
+
+        return Arrays.copyOf(clear, count);
+    }
+
+    /**
+     * Gets the cell a tile is numbered as when the cells kept clear are
+     * skipped over
+     *
+     * @param tile Number of the tile, not counting cells kept clear
+     * @param clear Cells kept clear, in ascending order
+     * @return Index of cell
+     */
+    static int skipClear(int tile, int[] clear) {
+        for (int cell : clear) {
+            if (cell <= tile) {
+                tile++;
+            }
+        }
+
+        return tile;
+    }
+
+    /**
+     * Stores the number of adjacent bombs in every cell, in one pass split
+     * across the common fork-join pool
+     *
+     * Every cell is written, so anything shared with an undo snapshot is
+     * copied first rather than by several threads at once.
+     */
+    private void countAdjacent() {
+        m_cells.claimAll();
+        new AdjacentCountTask(m_cells, m_boardSize, 0, m_boardSize).invoke();
+    }
+
+    /**
+     * Reveals the indexed region of a tile with no adjacent bombs
+     *
+     * Walking the region only gives the same result as filling it while
+     * none of its empty tiles are revealed or diffused, otherwise it is
+     * left to be filled.
+     *
+     * @param cell Index of a hidden tile with no adjacent bombs
+     * @param revealed List to add the newly revealed cells to
+     * @return True if the region was revealed, false otherwise
+     */
+    private boolean revealRegion(int cell, CellList revealed) {
+        int region = m_regions.getRegion(cell);
+        int start = m_regions.getStart(region);
+        int end = m_regions.getEnd(region);
+
+        for (int i = start; i < end; i++) {
+            int state = m_cells.get(m_regions.getMember(i));
+
+            if (((state & (BOMB | ADJACENT_MASK)) == 0)
+                    && ((state & (DIFFUSED | REVEALED)) != 0)) {
+                return false;
+            }
+        }
+
+        revealed.ensureCapacity(end - start);
+
+        for (int i = start; i < end; i++) {
+            int member = m_regions.getMember(i);
+
+            if ((m_cells.get(member) & (DIFFUSED | REVEALED)) == 0) {
+                markRevealed(member);
+                revealed.add(member);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reveals the area around a tile with no adjacent bombs with the
+     * scanline fill, even if its region is indexed, so the index can be
+     * checked against the fill; the counters and events aren't updated
+     *
+     * @param cell Index of a hidden tile with no adjacent bombs
+     * @return The newly revealed cells
+     */
+    CellList fillRegion(int cell) {
+        CellList revealed = new CellList();
+        fill(cell, revealed);
+        return revealed;
+    }
+
+    /**
+     * Reveals the area around a tile with no adjacent bombs, one row span
+     * at a time
+     *
+     * Each seed is the start of a hidden span of tiles with no adjacent
+     * bombs. The span is revealed, along with every tile bordering it, and
+     * the hidden spans in the rows above and below are queued as new seeds.
+     *
+     * On boards too large to index, a fill that grows large hands its seeds
+     * on to ParallelFloodFill, which finishes it across several threads.
+     *
+     * @param seed Index of a hidden tile with no adjacent bombs
+     * @param revealed List to add the newly revealed cells to
+     * @return The number of cells revealed but not listed, which is every
+     *         cell of an opening too large to list and 0 otherwise
+     */
+    private int fill(int seed, CellList revealed) {
+        CellList seeds = new CellList();
+        int before = revealed.size();
+
+        seeds.add(seed);
+
+        while (seeds.size() > 0) {
+            int listed = revealed.size() - before;
+
+            if ((m_regions == null) && (listed >= PARALLEL_FILL_CELLS)) {
+                int count = new ParallelFloodFill(m_cells, m_boardSize).fill(
+                        seeds, revealed, MAX_LISTED_CELLS - listed);
+
+                if (revealed.size() - before == listed + count) {
+                    return 0;
+                }
+
+                revealed.truncate(before);
+                return listed + count;
+            }
+
+            int cell = seeds.removeLast();
+
+            // another span may have reached this seed first
+            if ((m_cells.get(cell) & REVEALED) != 0) {
+                continue;
+            }
+
+            int x = cell / m_boardSize;
+            int row = x * m_boardSize;
+            int left = cell - row;
+            int right = left;
+
+            // extend the span in both directions
+            while ((left > 0) && isHiddenZero(row + left - 1)) {
+                left--;
+            }
+
+            while ((right < m_boardSize - 1) && isHiddenZero(row + right + 1)) {
+                right++;
+            }
+
+            // the tiles bordering the span, including the rows above and
+            // below, are at most one tile either side of it
+            left = Math.max(left - 1, 0);
+            right = Math.min(right + 1, m_boardSize - 1);
+
+            revealSpan(row, left, right, revealed, null);
+
+            if (x > 0) {
+                revealSpan(row - m_boardSize, left, right, revealed, seeds);
+            }
+
+            if (x < m_boardSize - 1) {
+                revealSpan(row + m_boardSize, left, right, revealed, seeds);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Reveals the hidden tiles in part of a row
+     *
+     * @param row Index of first cell in the row
+     * @param left First column of the span
+     * @param right Last column of the span
+     * @param revealed List to add the newly revealed cells to
+     * @param seeds List to add the start of each hidden run of tiles with no
+     *              adjacent bombs to instead of revealing them, or null to
+     *              reveal them too
+     */
+    private void revealSpan(int row, int left, int right, CellList revealed,
+                            CellList seeds) {
+        boolean inRun = false;
+
+        for (int cell = row + left; cell <= row + right; cell++) {
+            int state = m_cells.get(cell);
+
+            if ((state & (DIFFUSED | REVEALED)) != 0) {
+                inRun = false;
+            } else if ((seeds != null)
+                       && ((state & (BOMB | ADJACENT_MASK)) == 0)) {
+
+                // leave the run hidden so its span gets extended
+                if (!inRun) {
+                    seeds.add(cell);
+                    inRun = true;
+                }
+            } else {
+                m_cells.set(cell, (byte) (state | REVEALED));
+                revealed.add(cell);
+                inRun = false;
+            }
+        }
+    }
+
+    /**
+     * Gets whether a cell is hidden, not diffused and has no adjacent bombs
+     *
+     * @param cell Index of cell
+     * @return True if cell is a hidden tile with no adjacent bombs
+     */
+    private boolean isHiddenZero(int cell) {
+        return (m_cells.get(cell) & (BOMB | ADJACENT_MASK | DIFFUSED | REVEALED))
+               == 0;
     }
 }
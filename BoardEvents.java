@@ -0,0 +1,212 @@
+/**
+ * @file BoardEvents.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Passes the changes made to a board on to anything watching it
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @class BoardEvents
+ * @brief Passes the changes made to a board on to anything watching it
+ *
+ * The board publishes an event each time a cell changes into a ring of
+ * preallocated slots, and each watcher reads them through its own Reader at
+ * its own pace. Only the thread making moves on the board publishes, and
+ * it never waits for a reader: once the ring is full the oldest events are
+ * written over, and a reader that falls that far behind is told it missed
+ * some and should look at the board again.
+ *
+ * An event is a single long holding the type of change and the cell. Each
+ * slot also holds the low bits of the event's sequence number, so a reader
+ * can tell when the slot it read was written over while it read it.
+ */
+public class BoardEvents {
+
+    // types of event
+    public static final int REVEALED = 1;
+    public static final int DIFFUSED = 2;
+    public static final int UNDIFFUSED = 3;
+    public static final int BOARD_CHANGED = 4;
+
+    // returned by Reader.poll when there is no new event, and when events
+    // were missed
+    public static final long EMPTY = -1;
+    public static final long MISSED = -2;
+
+    // default number of slots, as a power of two
+    static final int DEFAULT_CAPACITY_BITS = 16;
+
+    // layout of the bits in a slot
+    private static final int TYPE_SHIFT = 32;
+    private static final int SEQUENCE_SHIFT = 36;
+    private static final long EVENT_MASK = (1L << SEQUENCE_SHIFT) - 1;
+
+    // holds the events, with the low bits of their sequence number
+    private final AtomicLongArray m_slots;
+    private final int m_mask;
+
+    // holds the sequence number of the next event to publish
+    private final AtomicLong m_cursor;
+
+    /**
+     * Constructs a ring with the default number of slots
+     */
+    BoardEvents() {
+        this(DEFAULT_CAPACITY_BITS);
+    }
+
+    /**
+     * Constructs a ring
+     *
+     * @param capacityBits Number of slots, as a power of two
+     */
+    BoardEvents(int capacityBits) {
+        if ((capacityBits < 1) || (capacityBits > 24)) {
+            throw new IllegalArgumentException("Invalid capacityBits: "
+                                               + capacityBits);
+        }
+
+        m_slots = new AtomicLongArray(1 << capacityBits);
+        m_mask = (1 << capacityBits) - 1;
+        m_cursor = new AtomicLong();
+    }
+
+    /**
+     * Gets the number of events the ring holds before writing over the
+     * oldest
+     *
+     * @return Number of slots
+     */
+    public int getCapacity() {
+        return m_mask + 1;
+    }
+
+    /**
+     * Gets the number of events published so far, which changes every time
+     * the board does, so it can tell whether a board has changed since
+     *
+     * @return Number of events
+     */
+    public long getPublished() {
+        return m_cursor.get();
+    }
+
+    /**
+     * Gets the type of an event
+     *
+     * @param event Event returned by Reader.poll
+     * @return REVEALED, DIFFUSED, UNDIFFUSED or BOARD_CHANGED
+     */
+    public static int getType(long event) {
+        return (int) (event >>> TYPE_SHIFT);
+    }
+
+    /**
+     * Gets the cell an event changed
+     *
+     * @param event Event returned by Reader.poll
+     * @return Index of cell, or zero for BOARD_CHANGED
+     */
+    public static int getCell(long event) {
+        return (int) event;
+    }
+
+    /**
+     * Constructs a reader that sees every event published from now on
+     *
+     * @return A new reader
+     */
+    public Reader newReader() {
+        return new Reader(m_cursor.get());
+    }
+
+    /**
+     * Publishes an event, only ever called by the thread making moves
+     *
+     * @param type Type of event
+     * @param cell Index of cell changed
+     */
+    void publish(int type, int cell) {
+        long sequence = m_cursor.get();
+        long slot = (sequence << SEQUENCE_SHIFT) | ((long) type << TYPE_SHIFT)
+                    | (cell & 0xFFFFFFFFL);
+
+        m_slots.lazySet((int) sequence & m_mask, slot);
+        m_cursor.lazySet(sequence + 1);
+    }
+
+    /**
+     * Publishes an event for each cell in part of a list, or a single
+     * BOARD_CHANGED if there are more than the ring can hold
+     *
+     * @param type Type of event
+     * @param cells List of cells
+     * @param from Index in the list of the first cell to publish
+     */
+    void publishAll(int type, CellList cells, int from) {
+        if (cells.size() - from > getCapacity()) {
+            publish(BOARD_CHANGED, 0);
+            return;
+        }
+
+        for (int i = from; i < cells.size(); i++) {
+            publish(type, cells.get(i));
+        }
+    }
+
+    /**
+     * @class Reader
+     * @brief Reads the events of a ring in order, on any one thread
+     */
+    public final class Reader {
+
+        // holds the sequence number of the next event to read
+        private long m_next;
+
+        /**
+         * Constructs a reader
+         *
+         * @param next Sequence number of the first event to read
+         */
+        private Reader(long next) {
+            m_next = next;
+        }
+
+        /**
+         * Gets the next event
+         *
+         * @return The event, EMPTY if there isn't one yet or MISSED if
+         *         events were written over before they were read, in which
+         *         case reading carries on from the newest events
+         */
+        public long poll() {
+            long cursor = m_cursor.get();
+
+            if (m_next == cursor) {
+                return EMPTY;
+            }
+
+            if (cursor - m_next > m_mask) {
+                m_next = cursor;
+                return MISSED;
+            }
+
+            long slot = m_slots.get((int) m_next & m_mask);
+
+            // the slot may have been written over since the cursor was read
+            if ((slot >>> SEQUENCE_SHIFT)
+                    != (m_next & (-1L >>> SEQUENCE_SHIFT))) {
+                m_next = m_cursor.get();
+                return MISSED;
+            }
+
+            m_next++;
+
+            return slot & EVENT_MASK;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+/**
+ * @file BoardPool.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Makes boards ahead of time so a new game can start at once
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * @class BoardPool
+ * @brief Makes boards ahead of time so a new game can start at once
+ *
+ * Each board size, bomb count and whether it must be solvable without
+ * guessing is a config, and the pool keeps a few boards of each config it
+ * was asked to prepare. A thread in the background makes the boards, and
+ * taking a board queues its config to be topped up again, so the next game
+ * of the same config finds a board waiting. When none is ready the board
+ * is made by the caller instead.
+ *
+ * Only the configs most recently used are kept, a config of large boards
+ * keeps fewer of them, and boards larger than a config may hold aren't
+ * kept at all, so the pool never holds much memory. A board waiting for
+ * its first click has no bombs yet, so placing them, counting the bombs
+ * around each tile and indexing its regions still happen on that click;
+ * the pool saves making the board and its events.
+ *
+ * Preparing a config cancels the boards being made or waiting to be made
+ * of any other, since a form changing its config only wants the last.
+ */
+public class BoardPool implements AutoCloseable {
+
+    // most boards kept of a config
+    private static final int BOARDS_PER_CONFIG = 2;
+
+    // most cells kept of a config, boards larger than this aren't kept
+    private static final long MAX_CELLS_PER_CONFIG = 1L << 24;
+
+    // most configs kept
+    private static final int MAX_CONFIGS = 4;
+
+    // holds the boards of each config, least recently used first
+    private final Map<Long, Config> m_configs;
+
+    // holds the configs waiting to be topped up
+    private final BlockingQueue<Config> m_queue;
+
+    // finds the boards that can be solved without guessing
+    private final NoGuessGenerator m_noGuess;
+
+    // makes boards in the background
+    private final Thread m_filler;
+
+    // holds the config the filler is making a board of, which is only
+    // changed while holding the queue, so it is never cancelled by mistake
+    private Config m_making;
+
+    // holds whether the pool was closed
+    private volatile boolean m_closed;
+
+    /**
+     * Constructs a pool, which makes no boards until a config is prepared
+     */
+    public BoardPool() {
+        m_configs = new LinkedHashMap<Long, Config>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Config> e) {
+                return size() > MAX_CONFIGS;
+            }
+        };
+        m_queue = new LinkedBlockingQueue<>();
+        m_noGuess = new NoGuessGenerator();
+
+        m_filler = new Thread(this::fill, "Kablewie boards");
+        m_filler.setDaemon(true);
+        m_filler.setPriority(Thread.MIN_PRIORITY);
+        m_filler.start();
+    }
+
+    /**
+     * Starts making boards of a config in the background
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param noGuess Whether boards must be solvable without guessing
+     */
+    public void prepare(int bombCount, int boardSize, boolean noGuess) {
+        Board.checkSize(bombCount, boardSize);
+
+        if (isPooled(boardSize)) {
+            Config config = config(bombCount, boardSize, noGuess);
+
+            cancelOthers(config);
+            topUp(config);
+        }
+    }
+
+    /**
+     * Takes a board that is ready, without waiting
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param noGuess Whether the board must be solvable without guessing
+     * @return Board, or null if none is ready
+     */
+    public Board poll(int bombCount, int boardSize, boolean noGuess) {
+        Board.checkSize(bombCount, boardSize);
+
+        if (!isPooled(boardSize)) {
+            return null;
+        }
+
+        Config config = config(bombCount, boardSize, noGuess);
+        Board board = config.m_boards.poll();
+
+        topUp(config);
+        return board;
+    }
+
+    /**
+     * Takes a board waiting for its first click, making one now if none is
+     * ready
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @return Board
+     */
+    public Board take(int bombCount, int boardSize) {
+        Board board = poll(bombCount, boardSize, false);
+        return (board != null) ? board : new Board(bombCount, boardSize, true);
+    }
+
+    /**
+     * Takes a board that can be solved without guessing, looking for one
+     * now if none is ready
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @return Board with its middle tile revealed, or null if none could be
+     *         found
+     * @throws InterruptedException If looking was cancelled
+     */
+    public Board takeNoGuess(int bombCount, int boardSize)
+            throws InterruptedException {
+        Board board = poll(bombCount, boardSize, true);
+        return (board != null) ? board
+                               : m_noGuess.generate(bombCount, boardSize);
+    }
+
+    /**
+     * Gets the number of boards ready of a config
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param noGuess Whether boards must be solvable without guessing
+     * @return Number of boards, 0 if the config isn't kept
+     */
+    public int getReady(int bombCount, int boardSize, boolean noGuess) {
+        synchronized (m_configs) {
+            Config config = m_configs.get(key(bombCount, boardSize,
+                                              noGuess));
+            return (config != null) ? config.m_boards.size() : 0;
+        }
+    }
+
+    /**
+     * Stops making boards
+     */
+    @Override
+    public void close() {
+        m_closed = true;
+        m_filler.interrupt();
+        m_noGuess.close();
+    }
+
+    /**
+     * Gets the kept config of boards, keeping it if it isn't already
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param noGuess Whether boards must be solvable without guessing
+     * @return Config
+     */
+    private Config config(int bombCount, int boardSize, boolean noGuess) {
+        long key = key(bombCount, boardSize, noGuess);
+
+        synchronized (m_configs) {
+            Config config = m_configs.get(key);
+
+            if (config == null) {
+                config = new Config(bombCount, boardSize, noGuess);
+                m_configs.put(key, config);
+            }
+
+            return config;
+        }
+    }
+
+    /**
+     * Queues a config to be topped up, unless it is full or already queued
+     *
+     * @param config Config to top up
+     */
+    private void topUp(Config config) {
+        synchronized (config) {
+            if (config.m_queued || config.m_stuck
+                    || (config.m_boards.remainingCapacity() == 0)) {
+                return;
+            }
+
+            config.m_queued = true;
+        }
+
+        m_queue.add(config);
+    }
+
+    /**
+     * Stops topping up every config but one, interrupting the board being
+     * made if it is of another config
+     *
+     * @param config Config to keep topping up
+     */
+    private void cancelOthers(Config config) {
+        synchronized (m_queue) {
+            m_queue.removeIf(queued -> {
+                if (queued == config) {
+                    return false;
+                }
+
+                synchronized (queued) {
+                    queued.m_queued = false;
+                }
+                return true;
+            });
+
+            if ((m_making != null) && (m_making != config)) {
+                m_making = null;
+                m_filler.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Tops up the queued configs, until the pool is closed
+     */
+    private void fill() {
+        while (!m_closed) {
+            Config config;
+
+            try {
+                config = m_queue.take();
+            } catch (InterruptedException e) {
+
+                // a cancel that came after its board was made
+                continue;
+            }
+
+            synchronized (config) {
+                config.m_queued = false;
+            }
+
+            while (!m_closed && isKept(config)
+                    && (config.m_boards.remainingCapacity() > 0)) {
+                Board board;
+
+                synchronized (m_queue) {
+                    m_making = config;
+                }
+
+                try {
+                    board = make(config);
+                } catch (InterruptedException e) {
+
+                    // the config was cancelled, or the pool closed
+                    break;
+                } finally {
+                    synchronized (m_queue) {
+                        m_making = null;
+                    }
+                }
+
+                if (board == null) {
+
+                    // no board of the config can be found
+                    synchronized (config) {
+                        config.m_stuck = true;
+                    }
+                    break;
+                }
+
+                config.m_boards.offer(board);
+            }
+        }
+    }
+
+    /**
+     * Gets whether boards of a size are small enough to keep
+     *
+     * @param boardSize Width and height of board
+     * @return True if a board fits in what a config may hold
+     */
+    private static boolean isPooled(int boardSize) {
+        return (long) boardSize * boardSize <= MAX_CELLS_PER_CONFIG;
+    }
+
+    /**
+     * Gets whether a config is still kept
+     *
+     * @param config Config
+     * @return True if the config hasn't been forgotten
+     */
+    private boolean isKept(Config config) {
+        synchronized (m_configs) {
+            return m_configs.containsValue(config);
+        }
+    }
+
+    /**
+     * Makes a board of a config
+     *
+     * @param config Config
+     * @return Board, or null if none could be found
+     * @throws InterruptedException If the pool was closed
+     */
+    private Board make(Config config) throws InterruptedException {
+        Board board;
+
+        if (config.m_noGuess) {
+            board = m_noGuess.generate(config.m_bombCount,
+                                       config.m_boardSize);
+        } else {
+            board = new Board(config.m_bombCount, config.m_boardSize, true);
+        }
+
+        // the display reads the events, which don't wait for the click
+        if (board != null) {
+            board.getEvents();
+        }
+
+        return board;
+    }
+
+    /**
+     * Gets the key of a config
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param noGuess Whether boards must be solvable without guessing
+     * @return Key packing the board size, bomb count and no guessing flag
+     */
+    private static long key(int bombCount, int boardSize, boolean noGuess) {
+        return ((long) boardSize << 32) | ((long) bombCount << 1)
+               | (noGuess ? 1 : 0);
+    }
+
+    /**
+     * @class Config
+     * @brief The boards kept of a config
+     */
+    private static final class Config {
+
+        // holds the config
+        private final int m_bombCount;
+        private final int m_boardSize;
+        private final boolean m_noGuess;
+
+        // holds the boards ready to be taken
+        private final BlockingQueue<Board> m_boards;
+
+        // holds whether the config is waiting to be topped up, and whether
+        // no board of it could be found
+        private boolean m_queued;
+        private boolean m_stuck;
+
+        /**
+         * Constructs an empty config
+         *
+         * @param bombCount Number of bombs to place in board
+         * @param boardSize Width and height of board
+         * @param noGuess Whether boards must be solvable without guessing
+         */
+        private Config(int bombCount, int boardSize, boolean noGuess) {
+            long cells = (long) boardSize * boardSize;
+
+            m_bombCount = bombCount;
+            m_boardSize = boardSize;
+            m_noGuess = noGuess;
+            m_boards = new ArrayBlockingQueue<>((int) Math.min(
+                    BOARDS_PER_CONFIG, MAX_CELLS_PER_CONFIG / cells));
+        }
+    }
+}
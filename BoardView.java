@@ -0,0 +1,141 @@
+/**
+ * @file BoardView.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Shows a bot what a player can see of a board
+ */
+
+/**
+ * @class BoardView
+ * @brief Shows a bot what a player can see of a board
+ *
+ * A view reads the board it wraps but can't change it, and only shows what
+ * a player sees: which tiles are revealed or diffused and the numbers on
+ * the revealed tiles, never where the hidden bombs are. A bot chooses a
+ * move from the view and hands it back encoded, and the game makes it.
+ */
+public final class BoardView {
+
+    // holds the board being viewed
+    private final Board m_board;
+
+    // holds the pattern cache shared by the games of a tournament
+    private final PatternCache m_patterns;
+
+    /**
+     * Constructs a view of a board
+     *
+     * @param board Board to view
+     * @param patterns Pattern cache the solvers of a tournament share, or
+     *        null if there isn't one
+     */
+    BoardView(Board board, PatternCache patterns) {
+        m_board = board;
+        m_patterns = patterns;
+    }
+
+    /**
+     * Gets the width and height of the board
+     *
+     * @return Width and height of board
+     */
+    public int getBoardSize() {
+        return m_board.getBoardSize();
+    }
+
+    /**
+     * Gets the number of bombs on the board
+     *
+     * @return Number of bombs
+     */
+    public int getBombCount() {
+        return m_board.getBombCount();
+    }
+
+    /**
+     * Gets the number of hidden tiles
+     *
+     * @return Number of hidden tiles
+     */
+    public int getHidden() {
+        return m_board.getHidden();
+    }
+
+    /**
+     * Gets the number of diffused tiles
+     *
+     * @return Number of diffused tiles
+     */
+    public int getDiffused() {
+        return m_board.getDiffused();
+    }
+
+    /**
+     * Gets whether the bombs have been placed, which they are by the first
+     * reveal
+     *
+     * @return True if the bombs have been placed
+     */
+    public boolean isPlaced() {
+        return m_board.isPlaced();
+    }
+
+    /**
+     * Gets whether a tile is revealed
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is revealed
+     */
+    public boolean isRevealed(int x, int y) {
+        return m_board.isRevealed(x, y);
+    }
+
+    /**
+     * Gets whether a tile is diffused
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is diffused
+     */
+    public boolean isDiffused(int x, int y) {
+        return m_board.isDiffused(x, y);
+    }
+
+    /**
+     * Gets the number on a revealed tile
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return Number of bombs next to the tile, or -1 if it is hidden
+     */
+    public int getAdjacentBombs(int x, int y) {
+        if (!m_board.isRevealed(x, y)) {
+            return -1;
+        }
+
+        return m_board.getAdjacentBombs(x, y);
+    }
+
+    /**
+     * Encodes a move to hand back to the game
+     *
+     * @param type GameJournal.REVEAL or GameJournal.DIFFUSE
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return Encoded move
+     */
+    public long encodeMove(int type, int x, int y) {
+        return m_board.encodeAction(type, x, y);
+    }
+
+    /**
+     * Gets the pattern cache the solvers of the tournament share
+     *
+     * @return Pattern cache, or null if there isn't one
+     */
+    PatternCache getPatterns() {
+        return m_patterns;
+    }
+}
@@ -56,26 +56,6 @@ public class BombTile extends Tile {
 		}
 	}
 
-	/**
-	* Determines whether this tile will cause the game to be lost
-	*
-	* @return True if if tile has been revealed, false otherwise
-	*/
-	@Override
-	public boolean hasLost() {
-		return isRevealed();
-	}
-	
-	/**
-	* Determines whether this tile will allow the game to be won
-	*
-	* @return True if tile is diffused, false otherwise
-	*/
-	@Override
-	public boolean isWinning() {
-		return isDiffused();
-	}
-	
 	/**
 	* state of the show function
 	*
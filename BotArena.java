@@ -0,0 +1,381 @@
+/**
+ * @file BotArena.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Plays bots against the same seeded boards and reports how they
+ * did
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * @class BotArena
+ * @brief Plays bots against the same seeded boards and reports how they
+ * did
+ *
+ * Every bot plays game n on a board placed with the tournament's seed plus
+ * n, and every game of every bot is started at once, each on a thread of
+ * its own. Each move is chosen on a thread of its own as well, so a bot
+ * that takes longer than the deadline can be left behind; the game waiting
+ * for it is forfeited and never changes the board again.
+ *
+ * Where the Java runtime has virtual threads, each game and each move gets
+ * a new virtual thread, so thousands of games can be played at once in
+ * little memory. Older runtimes don't, so the arena looks them up when it
+ * is constructed and otherwise plays as many games at once as there are
+ * processors, on ordinary threads.
+ */
+public class BotArena implements AutoCloseable {
+
+    // time a bot has to choose a move, in milliseconds
+    private static final long DEFAULT_DEADLINE = 1000;
+
+    // most moves a game can need for each of its tiles
+    private static final long MOVES_PER_TILE = 4;
+
+    // holds the threads the games and the moves are played on
+    private final ExecutorService m_games;
+    private final ExecutorService m_moves;
+
+    // holds whether the threads are virtual
+    private final boolean m_virtual;
+
+    // holds the pattern cache the solvers of every game share, or null
+    private final PatternCache m_patterns;
+
+    /**
+     * Constructs an arena without a pattern cache, with virtual threads if
+     * the runtime has them
+     */
+    public BotArena() {
+        this(null);
+    }
+
+    /**
+     * Constructs an arena, with virtual threads if the runtime has them
+     *
+     * @param patterns Pattern cache the solvers of every game share, or
+     *        null to always compare
+     */
+    public BotArena(PatternCache patterns) {
+        ExecutorService games = newVirtualThreadExecutor();
+
+        m_virtual = (games != null);
+
+        if (m_virtual) {
+            m_games = games;
+            m_moves = newVirtualThreadExecutor();
+        } else {
+            m_games = Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(),
+                    BotArena::newDaemonThread);
+            m_moves = Executors.newCachedThreadPool(BotArena::newDaemonThread);
+        }
+
+        m_patterns = patterns;
+    }
+
+    /**
+     * Gets whether games are played on virtual threads
+     *
+     * @return True if the threads are virtual
+     */
+    public boolean isVirtual() {
+        return m_virtual;
+    }
+
+    /**
+     * Gets the pattern cache the solvers of every game share, which keeps
+     * its patterns and counts from one tournament to the next
+     *
+     * @return Pattern cache, or null if there isn't one
+     */
+    public PatternCache getPatterns() {
+        return m_patterns;
+    }
+
+    /**
+     * Gets the strategies listed in META-INF/services/BotStrategy
+     *
+     * @return A provider of each strategy, which constructs a new one each
+     *         time it is asked
+     */
+    public static List<ServiceLoader.Provider<BotStrategy>> getRegistered() {
+        List<ServiceLoader.Provider<BotStrategy>> providers = new ArrayList<>();
+
+        ServiceLoader.load(BotStrategy.class).stream().forEach(providers::add);
+        return providers;
+    }
+
+    /**
+     * Plays every registered strategy, with the default deadline
+     *
+     * @param bombCount Number of bombs on each board
+     * @param boardSize Width and height of each board
+     * @param games Number of games each strategy plays
+     * @param seed Seed of the first game, the games after it add one each
+     * @return How each strategy did
+     * @throws InterruptedException If interrupted while waiting for the
+     *                              games
+     */
+    public List<BotResult> run(int bombCount, int boardSize, int games,
+                               long seed) throws InterruptedException {
+        return run(getRegistered(), bombCount, boardSize, games, seed,
+                   DEFAULT_DEADLINE);
+    }
+
+    /**
+     * Plays strategies against the same seeded boards
+     *
+     * @param bots Constructs a strategy of each bot for each game
+     * @param bombCount Number of bombs on each board
+     * @param boardSize Width and height of each board
+     * @param games Number of games each strategy plays
+     * @param seed Seed of the first game, the games after it add one each
+     * @param deadline Time a bot has to choose a move, in milliseconds
+     * @return How each strategy did, in the order given
+     * @throws InterruptedException If interrupted while waiting for the
+     *                              games
+     */
+    public List<BotResult> run(List<? extends Supplier<? extends BotStrategy>>
+                                       bots, int bombCount, int boardSize,
+                               int games, long seed, long deadline)
+            throws InterruptedException {
+        Board.checkSize(bombCount, boardSize);
+
+        if (games < 0) {
+            throw new IllegalArgumentException("Invalid games: " + games);
+        }
+
+        if (deadline <= 0) {
+            throw new IllegalArgumentException("Invalid deadline: "
+                                               + deadline);
+        }
+
+        List<List<Future<Tally>>> played = new ArrayList<>();
+        List<BotResult> results = new ArrayList<>();
+
+        // start every game before waiting for any
+        for (Supplier<? extends BotStrategy> bot : bots) {
+            List<Future<Tally>> tallies = new ArrayList<>();
+
+            for (int game = 0; game < games; game++) {
+                long boardSeed = seed + game;
+                tallies.add(m_games.submit(() -> play(bot, bombCount,
+                                                      boardSize, boardSeed,
+                                                      deadline)));
+            }
+
+            played.add(tallies);
+        }
+
+        for (int i = 0; i < bots.size(); i++) {
+            Tally total = new Tally(null);
+
+            for (Future<Tally> tally : played.get(i)) {
+                try {
+                    total.add(tally.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+
+            // a tournament of no games never asks the bot its name
+            if (total.m_name == null) {
+                total.m_name = bots.get(i).get().getName();
+            }
+
+            results.add(new BotResult(total.m_name, total.m_games,
+                                      total.m_wins, total.m_forfeits,
+                                      total.m_moves, total.m_moveTime));
+        }
+
+        return results;
+    }
+
+    /**
+     * Stops the threads, leaving any bots still choosing a move behind
+     */
+    @Override
+    public void close() {
+        m_games.shutdownNow();
+        m_moves.shutdownNow();
+    }
+
+    /**
+     * Plays every registered strategy and prints how each did
+     *
+     * @param args Number of games, board size, bomb count, and optionally
+     *             the deadline of a move in milliseconds
+     * @throws InterruptedException If interrupted while waiting for the
+     *                              games
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if ((args.length < 3) || (args.length > 4)) {
+            System.err.println("Usage: BotArena games boardSize bombCount "
+                               + "[deadlineMillis]");
+            System.exit(1);
+        }
+
+        try (BotArena arena = new BotArena()) {
+            System.out.println("Threads: "
+                               + (arena.isVirtual() ? "virtual" : "platform"));
+
+            for (BotResult result : arena.run(getRegistered(),
+                    Integer.parseInt(args[2]), Integer.parseInt(args[1]),
+                    Integer.parseInt(args[0]), 0, (args.length > 3)
+                    ? Long.parseLong(args[3]) : DEFAULT_DEADLINE)) {
+                System.out.println(result);
+            }
+        }
+    }
+
+    /**
+     * Plays a game to the end
+     *
+     * @param bot Constructs the strategy playing the game
+     * @param bombCount Number of bombs on the board
+     * @param boardSize Width and height of the board
+     * @param seed Seed of the game
+     * @param deadline Time a move can take, in milliseconds
+     * @return Counts of the game
+     * @throws InterruptedException If the tournament was stopped
+     */
+    private Tally play(Supplier<? extends BotStrategy> bot, int bombCount,
+                       int boardSize, long seed, long deadline)
+            throws InterruptedException {
+        Board board = new Board(bombCount, boardSize, seed, true);
+        BoardView view = new BoardView(board, m_patterns);
+        BotStrategy strategy = bot.get();
+        Tally tally = new Tally(strategy.getName());
+        long limit = MOVES_PER_TILE * boardSize * boardSize;
+        long[] took = new long[1];
+
+        tally.m_games = 1;
+
+        while (!board.isWon() && !board.isLost()) {
+            Future<Long> chosen = m_moves.submit(() -> {
+                long start = System.nanoTime();
+                long move = strategy.nextMove(view);
+
+                took[0] = System.nanoTime() - start;
+                return move;
+            });
+
+            try {
+                long move = chosen.get(deadline, TimeUnit.MILLISECONDS);
+
+                tally.m_moves++;
+                tally.m_moveTime += took[0];
+                board.applyBatch(new long[] {move});
+            } catch (TimeoutException | ExecutionException
+                     | IllegalArgumentException
+                     | IndexOutOfBoundsException e) {
+
+                // a bot that is too slow, fails or makes a move that isn't
+                // valid loses
+                chosen.cancel(true);
+                tally.m_forfeits++;
+                break;
+            }
+
+            // a game ended by the last move allowed isn't forfeited
+            if ((tally.m_moves == limit) && !board.isWon()
+                    && !board.isLost()) {
+                tally.m_forfeits++;
+                break;
+            }
+        }
+
+        if (board.isWon()) {
+            tally.m_wins++;
+        }
+
+        return tally;
+    }
+
+    /**
+     * Gets an executor starting a virtual thread for each task, if the
+     * runtime has virtual threads
+     *
+     * @return Executor, or null if there are no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+
+            // the method is missing before Java 19, and throws while
+            // virtual threads are a preview feature that isn't enabled
+            return null;
+        }
+    }
+
+    /**
+     * Constructs an ordinary thread that doesn't keep the program running
+     *
+     * @param task Task the thread runs
+     * @return Thread
+     */
+    private static Thread newDaemonThread(Runnable task) {
+        Thread thread = new Thread(task, "Kablewie arena");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * @class Tally
+     * @brief Counts of the games a strategy played
+     */
+    private static final class Tally {
+
+        // holds the name of the strategy
+        private String m_name;
+
+        // holds the number of games played, won, and lost by forfeit
+        private long m_games;
+        private long m_wins;
+        private long m_forfeits;
+
+        // holds the number of moves made and the time taken to choose them
+        private long m_moves;
+        private long m_moveTime;
+
+        /**
+         * Constructs empty counts
+         *
+         * @param name Name of the strategy, or null if not known yet
+         */
+        private Tally(String name) {
+            m_name = name;
+        }
+
+        /**
+         * Adds the counts of another game
+         *
+         * @param other Counts to add
+         */
+        private void add(Tally other) {
+            if (m_name == null) {
+                m_name = other.m_name;
+            }
+
+            m_games += other.m_games;
+            m_wins += other.m_wins;
+            m_forfeits += other.m_forfeits;
+            m_moves += other.m_moves;
+            m_moveTime += other.m_moveTime;
+        }
+    }
+}
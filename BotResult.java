@@ -0,0 +1,148 @@
+/**
+ * @file BotResult.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief How a bot did in a tournament
+ */
+
+/**
+ * @class BotResult
+ * @brief How a bot did in a tournament
+ *
+ * Holds the totals a BotArena counted for one strategy, and works out its
+ * win rate, with a 95% Wilson score interval, and the time it took to
+ * choose a move. Games lost by running out of time or by making a move
+ * that isn't valid are counted as well, as forfeits.
+ */
+public class BotResult {
+
+    // holds the name of the strategy
+    private final String m_name;
+
+    // holds the number of games played, won, and lost by forfeit
+    private final long m_games;
+    private final long m_wins;
+    private final long m_forfeits;
+
+    // holds the number of moves made and the time taken to choose them, in
+    // nanoseconds
+    private final long m_moves;
+    private final long m_moveTime;
+
+    /**
+     * Constructs a result
+     *
+     * @param name Name of the strategy
+     * @param games Number of games played
+     * @param wins Number of games won
+     * @param forfeits Number of games lost by forfeit
+     * @param moves Number of moves made
+     * @param moveTime Time taken to choose the moves, in nanoseconds
+     */
+    BotResult(String name, long games, long wins, long forfeits, long moves,
+              long moveTime) {
+        m_name = name;
+        m_games = games;
+        m_wins = wins;
+        m_forfeits = forfeits;
+        m_moves = moves;
+        m_moveTime = moveTime;
+    }
+
+    /**
+     * Gets the name of the strategy
+     *
+     * @return Name of the strategy
+     */
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     * Gets the number of games played
+     *
+     * @return Number of games
+     */
+    public long getGames() {
+        return m_games;
+    }
+
+    /**
+     * Gets the number of games won
+     *
+     * @return Number of wins
+     */
+    public long getWins() {
+        return m_wins;
+    }
+
+    /**
+     * Gets the number of games lost by running out of time or making a
+     * move that isn't valid
+     *
+     * @return Number of forfeits
+     */
+    public long getForfeits() {
+        return m_forfeits;
+    }
+
+    /**
+     * Gets the share of games won
+     *
+     * @return Win rate from 0 to 1, or NaN if no games were played
+     */
+    public double getWinRate() {
+        return (double) m_wins / m_games;
+    }
+
+    /**
+     * Gets the low end of the 95% confidence interval of the win rate
+     *
+     * @return Lowest likely win rate, or 0 if no games were played
+     */
+    public double getWinRateLow() {
+        return SimulationResult.getWinRateLow(m_wins, m_games);
+    }
+
+    /**
+     * Gets the high end of the 95% confidence interval of the win rate
+     *
+     * @return Highest likely win rate, or 1 if no games were played
+     */
+    public double getWinRateHigh() {
+        return SimulationResult.getWinRateHigh(m_wins, m_games);
+    }
+
+    /**
+     * Gets the number of moves made
+     *
+     * @return Number of moves
+     */
+    public long getMoves() {
+        return m_moves;
+    }
+
+    /**
+     * Gets the average time taken to choose a move
+     *
+     * @return Time a move, in nanoseconds, or NaN if no moves were made
+     */
+    public double getTimePerMove() {
+        return (double) m_moveTime / m_moves;
+    }
+
+    /**
+     * Gets the result as a line of text
+     *
+     * @return Name, win rate, forfeits and time a move
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %d games, won %.2f%% (%.2f-%.2f%%), "
+                             + "%d forfeits, %.1f us/move", m_name, m_games,
+                             100 * getWinRate(), 100 * getWinRateLow(),
+                             100 * getWinRateHigh(), m_forfeits,
+                             getTimePerMove() / 1e3);
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * @file BotStrategy.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Chooses the moves of a bot playing a board
+ */
+
+/**
+ * @class BotStrategy
+ * @brief Chooses the moves of a bot playing a board
+ *
+ * Strategies are found with ServiceLoader, by listing their classes in
+ * META-INF/services/BotStrategy, and need a public constructor taking no
+ * arguments. A new strategy is constructed for every game, so it can keep
+ * what it has worked out about the board from one move to the next.
+ *
+ * The game asks for one move at a time and makes it before asking again,
+ * so the view doesn't change while a move is chosen. A move taking longer
+ * than the deadline it is given loses the game, as does a move that isn't
+ * valid or making more moves than a game can need.
+ */
+public interface BotStrategy {
+
+    /**
+     * Gets the name the strategy is reported under
+     *
+     * @return Name of the strategy
+     */
+    String getName();
+
+    /**
+     * Chooses the next move
+     *
+     * @param view What can be seen of the board
+     * @return Move encoded by BoardView.encodeMove
+     */
+    long nextMove(BoardView view);
+}
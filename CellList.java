@@ -0,0 +1,123 @@
+/**
+ * @file CellList.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Growable list of board cell indices
+ */
+
+import java.util.Arrays;
+
+/**
+ * @class CellList
+ * @brief Growable list of board cell indices
+ *
+ * Cells are stored as indices into the board, so a list of millions of
+ * cells is a single int array rather than millions of objects.
+ */
+public class CellList {
+
+    // initial capacity of a new list
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // holds the cell indices, only the first m_size are in use
+    private int[] m_cells;
+    private int m_size;
+
+    /**
+     * Constructs an empty list
+     */
+    public CellList() {
+        m_cells = new int[DEFAULT_CAPACITY];
+        m_size = 0;
+    }
+
+    /**
+     * Adds a cell to the end of the list
+     *
+     * @param cell Index of cell to add
+     */
+    public void add(int cell) {
+        if (m_size == m_cells.length) {
+            m_cells = Arrays.copyOf(m_cells, m_cells.length * 2);
+        }
+
+        m_cells[m_size++] = cell;
+    }
+
+    /**
+     * Makes room for more cells without growing the list again
+     *
+     * @param extra Number of cells about to be added
+     */
+    public void ensureCapacity(int extra) {
+        if (m_size + extra > m_cells.length) {
+            m_cells = Arrays.copyOf(m_cells, m_size + extra);
+        }
+    }
+
+    /**
+     * Removes every cell from the list, keeping its capacity
+     */
+    public void clear() {
+        m_size = 0;
+    }
+
+    /**
+     * Removes the cells past a position, keeping its capacity
+     *
+     * @param size Number of cells to keep
+     */
+    public void truncate(int size) {
+        if ((size < 0) || (size > m_size)) {
+            throw new IndexOutOfBoundsException("Invalid size: " + size);
+        }
+
+        m_size = size;
+    }
+
+    /**
+     * Gets a cell from the list
+     *
+     * @param i Position in list
+     * @return Index of cell
+     */
+    public int get(int i) {
+        if ((i < 0) || (i >= m_size)) {
+            throw new IndexOutOfBoundsException("Invalid position: " + i);
+        }
+
+        return m_cells[i];
+    }
+
+    /**
+     * Removes the last cell from the list
+     *
+     * @return Index of the removed cell
+     */
+    public int removeLast() {
+        if (m_size == 0) {
+            throw new IllegalStateException("List is empty");
+        }
+
+        return m_cells[--m_size];
+    }
+
+    /**
+     * Gets the number of cells in the list
+     *
+     * @return Number of cells
+     */
+    public int size() {
+        return m_size;
+    }
+
+    /**
+     * Copies the cells into a new array
+     *
+     * @return Array of cell indices
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(m_cells, m_size);
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * @file CellStore.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Holds the packed cells and counters of a board
+ */
+
+/**
+ * @interface CellStore
+ * @brief Holds the packed cells and counters of a board
+ *
+ * Board keeps every cell as one byte laid out as described in Board, plus
+ * a small header of counters, in a store. The store decides where those
+ * bytes live, so the same board can sit on the heap or in a file.
+ */
+interface CellStore {
+
+    // number of long fields in the header
+    int HEADER_FIELDS = 16;
+
+    /**
+     * Gets the number of cells in the store
+     *
+     * @return Number of cells
+     */
+    int size();
+
+    /**
+     * Gets the packed state of a cell
+     *
+     * @param cell Index of cell
+     * @return Packed state
+     */
+    byte get(int cell);
+
+    /**
+     * Sets the packed state of a cell
+     *
+     * @param cell Index of cell
+     * @param state Packed state
+     */
+    void set(int cell, byte state);
+
+    /**
+     * Gets a header field
+     *
+     * @param field Index of field
+     * @return Value of field
+     */
+    long getHeader(int field);
+
+    /**
+     * Sets a header field
+     *
+     * @param field Index of field
+     * @param value Value of field
+     */
+    void setHeader(int field, long value);
+
+    /**
+     * Writes any changes through to wherever the store keeps them
+     */
+    void flush();
+
+    /**
+     * Copies anything the store shares with its snapshots, after which
+     * different cells can be set from several threads at once
+     */
+    void claimAll();
+
+    /**
+     * Takes a snapshot of the store, later changes to either the store or
+     * the snapshot aren't seen by the other
+     *
+     * @return Snapshot of the store
+     */
+    CellStore snapshot();
+}
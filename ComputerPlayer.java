@@ -1,14 +1,215 @@
-import javax.crypto.IllegalBlockSizeException;
-import javax.swing.*;
+/**
+ * @file ComputerPlayer.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * @see Player.java
+ * @brief Plays a board by itself, guessing only when it has to
+ */
 
+import java.util.Random;
+
+/**
+ * @class ComputerPlayer
+ * @brief Plays a board by itself, guessing only when it has to
+ *
+ * Each turn makes every move the solver is certain of in a single batch.
+ * When there are none, it reveals the tile least likely to be a bomb, or
+ * a tile at random if there is nothing to go on.
+ */
 public class ComputerPlayer extends Player {
 
-	public ComputerPlayer() {
+	// most random tiles to try before looking through the board for one
+	private static final int GUESS_TRIES = 64;
+
+	// board being played and the solver working it out
+	private final Board m_board;
+	private final Solver m_solver;
+	private final ProbabilityEngine m_chances;
+	private final Random m_random;
+
+	// result of the last turn, or null before the first
+	private BatchResult m_lastTurn;
+
+	// holds the number of moves and guesses made
+	private long m_moves;
+	private long m_guesses;
+
+	/**
+	 * Constructs a computer player for a board
+	 *
+	 * @param board Board to play
+	 */
+	public ComputerPlayer(Board board) {
+		this(board, new Random(), null);
+	}
+
+	/**
+	 * Constructs a computer player for a board, the same seed always makes
+	 * the same guesses on the same board
+	 *
+	 * @param board Board to play
+	 * @param seed Seed to pick random guesses with
+	 */
+	public ComputerPlayer(Board board, long seed) {
+		this(board, new Random(seed), null);
+	}
+
+	/**
+	 * Constructs a computer player for a board, whose solver keeps what it
+	 * finds in a pattern cache
+	 *
+	 * @param board Board to play
+	 * @param patterns Pattern cache, which may be shared with other
+	 *        players, or null to always compare
+	 */
+	public ComputerPlayer(Board board, PatternCache patterns) {
+		this(board, new Random(), patterns);
+	}
+
+	/**
+	 * Constructs a computer player for a board, whose solver keeps what it
+	 * finds in a pattern cache, the same seed always makes the same
+	 * guesses on the same board
+	 *
+	 * @param board Board to play
+	 * @param seed Seed to pick random guesses with
+	 * @param patterns Pattern cache, which may be shared with other
+	 *        players, or null to always compare
+	 */
+	public ComputerPlayer(Board board, long seed, PatternCache patterns) {
+		this(board, new Random(seed), patterns);
+	}
+
+	/**
+	 * Constructs a computer player for a board
+	 *
+	 * @param board Board to play
+	 * @param random Source of random guesses
+	 * @param patterns Pattern cache, or null to always compare
+	 */
+	private ComputerPlayer(Board board, Random random,
+	                       PatternCache patterns) {
 		super("Computer");
+		m_board = board;
+		m_solver = new Solver(board, patterns);
+		m_chances = new ProbabilityEngine(board, m_solver);
+		m_random = random;
+	}
+
+	/**
+	 * Gets the result of the last turn
+	 *
+	 * @return Tiles the last turn changed, or null before the first turn
+	 */
+	public BatchResult getLastTurn() {
+		return m_lastTurn;
+	}
+
+	/**
+	 * Gets the number of moves made, counting every tile revealed or
+	 * diffused by choice
+	 *
+	 * @return Number of moves
+	 */
+	public long getMoves() {
+		return m_moves;
+	}
+
+	/**
+	 * Gets the number of guesses made, including the first click
+	 *
+	 * @return Number of guesses
+	 */
+	public long getGuesses() {
+		return m_guesses;
 	}
 
+	/**
+	 * Makes every certain move, or a guess if there are none
+	 */
 	@Override
 	public void takeTurn() {
+		if (m_board.isWon() || m_board.isLost()) {
+			return;
+		}
+
+		m_lastTurn = m_board.applyBatch(chooseMoves());
+		m_moves += m_lastTurn.getApplied();
+	}
+
+	/**
+	 * Chooses the moves of the next turn without making them, which must
+	 * be made before choosing again
+	 *
+	 * @return Every certain move encoded as by Board.encodeAction, or a
+	 *         single guess if there are none
+	 */
+	public long[] chooseMoves() {
+		long[] moves = m_solver.nextMoves();
+
+		if (moves.length == 0) {
+			int cell = guess();
+			moves = new long[] {m_board.encodeAction(GameJournal.REVEAL,
+			        m_board.getX(cell), m_board.getY(cell))};
+			m_guesses++;
+		}
+
+		return moves;
+	}
+
+	/**
+	 * Picks the hidden tile least likely to be a bomb
+	 *
+	 * @return Index of cell
+	 */
+	private int guess() {
+		int cells = m_board.getBoardSize() * m_board.getBoardSize();
+
+		// the first click can't hit a bomb, so start in the middle
+		if (!m_board.isPlaced()) {
+			return m_board.getBoardSize() / 2 * (m_board.getBoardSize() + 1);
+		}
+
+		m_chances.update();
+
+		int safest = m_chances.getSafestFrontierCell();
+
+		// a tile away from the frontier is safer, if there is one
+		if ((safest >= 0) && !(m_chances.getOtherChance()
+		                       < m_chances.getChance(safest))) {
+			return safest;
+		}
+
+		for (int i = 0; i < GUESS_TRIES; i++) {
+			int cell = m_random.nextInt(cells);
+
+			if (isGuessable(cell) && !m_chances.isFrontier(cell)) {
+				return cell;
+			}
+		}
+
+		int start = m_random.nextInt(cells);
+
+		for (int i = 0; i < cells; i++) {
+			int cell = (start + i) % cells;
+
+			if (isGuessable(cell)) {
+				return cell;
+			}
+		}
+
+		return start;
+	}
 
+	/**
+	 * Gets whether a tile can be guessed
+	 *
+	 * @param cell Index of cell
+	 * @return True if tile is hidden, not diffused and not known to be a
+	 *         bomb
+	 */
+	private boolean isGuessable(int cell) {
+		return ((m_board.getState(cell) & (Board.REVEALED | Board.DIFFUSED))
+		        == 0) && !m_solver.isKnownBomb(cell);
 	}
 }
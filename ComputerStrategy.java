@@ -0,0 +1,138 @@
+/**
+ * @file ComputerStrategy.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * @see ComputerPlayer.java
+ * @brief Plays a bot the way the computer player does
+ */
+
+/**
+ * @class ComputerStrategy
+ * @brief Plays a bot the way the computer player does
+ *
+ * The computer player plays a board of the strategy's own, which is shown
+ * only what the view shows: after each move, the tile it was made on and
+ * any tiles a reveal opened up along with it. The moves the computer
+ * player chooses are handed out one at a time, skipping any already
+ * revealed by an earlier move of the turn, and a whole turn is chosen again
+ * once they have all been made. The solvers of every game in the
+ * tournament share the arena's pattern cache, if it has one.
+ */
+public class ComputerStrategy implements BotStrategy {
+
+	// holds what can be seen of the board, and the player choosing the
+	// moves, both made on the first move
+	private Board m_seen;
+	private ComputerPlayer m_player;
+
+	// holds the moves of the turn and the next one to hand out
+	private long[] m_moves = new long[0];
+	private int m_next;
+
+	// holds the last move handed out, or -1 before the first
+	private long m_last = -1;
+
+	@Override
+	public String getName() {
+		return "Computer";
+	}
+
+	@Override
+	public long nextMove(BoardView view) {
+		if (m_player == null) {
+			m_seen = new Board(view.getBombCount(), view.getBoardSize(), 0L,
+			                   true);
+			m_player = new ComputerPlayer(m_seen, view.getPatterns());
+		}
+
+		if (m_last >= 0) {
+			see(view, (int) (m_last >>> 32), (int) m_last);
+		}
+
+		long move = nextUnmade();
+
+		if (move < 0) {
+			m_moves = m_player.chooseMoves();
+			m_next = 0;
+			move = nextUnmade();
+		}
+
+		// with nothing left to guess the computer player can guess a tile
+		// that is already revealed, which is handed out as it is rather
+		// than chosen again until the deadline
+		if (move < 0) {
+			move = m_moves[m_moves.length - 1];
+		}
+
+		m_last = move;
+		return move;
+	}
+
+	/**
+	 * Gets the next move of the turn that hasn't already been made
+	 *
+	 * @return The move, or -1 if there are no more
+	 */
+	private long nextUnmade() {
+		while (m_next < m_moves.length) {
+			long move = m_moves[m_next++];
+			int cell = (int) move;
+
+			// an empty tile revealed earlier in the turn may have revealed
+			// this one along with it
+			if ((m_seen.getState(cell) & Board.REVEALED) == 0) {
+				return move;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Shows the board what a move changed, as the view sees it
+	 *
+	 * @param view What can be seen of the board
+	 * @param type GameJournal.REVEAL or GameJournal.DIFFUSE
+	 * @param cell Index of the tile the move was made on
+	 */
+	private void see(BoardView view, int type, int cell) {
+		if (type == GameJournal.DIFFUSE) {
+			m_seen.show(cell, view.isDiffused(m_seen.getX(cell),
+			                                  m_seen.getY(cell)), -1);
+			return;
+		}
+
+		// follow the tiles the reveal opened up out from the first
+		CellList waiting = new CellList();
+		int size = m_seen.getBoardSize();
+
+		waiting.add(cell);
+
+		while (waiting.size() > 0) {
+			int next = waiting.removeLast();
+			int x = m_seen.getX(next);
+			int y = m_seen.getY(next);
+
+			if (!view.isRevealed(x, y)
+			        || ((m_seen.getState(next) & Board.REVEALED) != 0)) {
+				continue;
+			}
+
+			int adjacent = view.getAdjacentBombs(x, y);
+
+			m_seen.show(next, false, adjacent);
+
+			if (adjacent != 0) {
+				continue;
+			}
+
+			for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, size - 1);
+			     i++) {
+				for (int j = Math.max(y - 1, 0);
+				     j <= Math.min(y + 1, size - 1); j++) {
+					waiting.add((i * size) + j);
+				}
+			}
+		}
+	}
+}
@@ -19,39 +19,70 @@ import java.awt.event.*;
  */
 public class DisplayBoard extends JPanel implements MouseListener {
 
+	// milliseconds between the computer's turns
+	private static final int COMPUTER_INTERVAL = 100;
+
 	// stores all the internal information for the board
 	private final Board m_board;
+	// tiles drawing each cell of the board
+	private final Tile[][] m_tiles;
 	private final DisplayHeader m_header;
 	private final MainForm m_mainForm;
+	// reads the cells the board changes, so only those tiles are redrawn
+	private final BoardEvents.Reader m_changes;
+	// plays the board while the computer box is ticked
+	private final ComputerPlayer m_computer;
+	private final Timer m_computerTimer;
+	// works out the hint and heatmap in the background after each move
+	private final HintWorker m_hints;
+	// whether the hint was asked for before it was ready
+	private boolean m_hintWanted;
 
 	/**
 	 * Constructs a DisplayBoard object
 	 * Calls drawBoard to set up the board
 	 *
 	 * @param header    the display header
-	 * @param boardSize the width/height of the board
-	 * @param bombCount the amount of bombs in the board
+	 * @param board     the board to display, which may be part played
 	 */
-	public DisplayBoard(DisplayHeader header, MainForm mainform, int boardSize,
-	                    int bombCount) {
+	public DisplayBoard(DisplayHeader header, MainForm mainform, Board board) {
 		m_header = header;
 		m_mainForm = mainform;
-		m_board = new Board(bombCount, boardSize);
-		drawBoard(boardSize);
+		m_board = board;
+		m_changes = board.getEvents().newReader();
+		m_tiles = new Tile[board.getBoardSize()][board.getBoardSize()];
+		drawBoard(board.getBoardSize());
 
 		m_header.setBombCount(m_board.getBombCount());
-		m_header.setHidden(boardSize * boardSize);
-		m_header.setRevealed(0);
-		m_header.setDiffused(0);
+		updateDisplay();
+
+		m_computer = new ComputerPlayer(board);
+		m_computerTimer = new Timer(COMPUTER_INTERVAL, e -> computerTurn());
+		m_header.m_ComputerCheckBox.addItemListener(e -> {
+			if (e.getStateChange() == ItemEvent.SELECTED) {
+				m_computerTimer.start();
+			} else {
+				m_computerTimer.stop();
+			}
+		});
+
+		m_hints = new HintWorker(board, hint -> showHint(hint));
+		m_header.m_hintButton.addActionListener(e -> {
+			m_hintWanted = true;
+			showHint(m_hints.getHint());
+		});
+		m_header.m_heatmapCheckBox.addItemListener(
+				e -> showHint(m_hints.getHint()));
+		m_hints.update();
 
 	    m_header.m_showBombTileCheckBox.addItemListener(new ItemListener() {
 
             @Override
             public void itemStateChanged(ItemEvent e) {
                 if(e.getStateChange() == ItemEvent.SELECTED) {
-			m_board.showBombTile(true);
+			showBombTiles(true);
 		}
-		else m_board.showBombTile(false);
+		else showBombTiles(false);
             }
         });
 
@@ -72,7 +103,50 @@ public class DisplayBoard extends JPanel implements MouseListener {
 		// set the tiles to be added in left to right order
 		setComponentOrientation(ComponentOrientation.LEFT_TO_RIGHT);
 
-		m_board.addTilesToDisplay(this);
+		// create a tile for every cell and listen for clicks on it
+		for (int x = 0; x < boardSize; x++) {
+			for (int y = 0; y < boardSize; y++) {
+				Point position = new Point(x, y);
+
+				if (m_board.isBomb(x, y)) {
+					m_tiles[x][y] = new BombTile(position);
+				} else {
+					m_tiles[x][y] = new EmptyTile(position,
+					                      m_board.getAdjacentBombs(x, y));
+				}
+
+				// a resumed board may already have tiles played
+				m_tiles[x][y].restore(m_board.isRevealed(x, y),
+				                      m_board.isDiffused(x, y));
+
+				add(m_tiles[x][y]);
+				m_tiles[x][y].addMouseListener(this);
+			}
+		}
+	}
+
+	/**
+	 * Gets the board being displayed
+	 *
+	 * @return The board
+	 */
+	public Board getBoard() {
+		return m_board;
+	}
+
+	/**
+	 * Shows or hides the position of every bomb
+	 *
+	 * @param show Whether to show the bombs
+	 */
+	public void showBombTiles(boolean show) {
+		for (Tile[] tileRow : m_tiles) {
+			for (Tile tile : tileRow) {
+				if (tile.isBomb()) {
+					((BombTile) tile).show(show);
+				}
+			}
+		}
 	}
 
 	/**
@@ -87,6 +161,7 @@ public class DisplayBoard extends JPanel implements MouseListener {
 		Point position = tile.getPosition();
 		if (e.getButton() == MouseEvent.BUTTON1) {
 			m_board.reveal((int) position.getX(), (int) position.getY());
+			showChanges();
 
 			// you can only lose from revealing, so we'll check that here
 			if (m_board.isLost()) {
@@ -97,6 +172,7 @@ public class DisplayBoard extends JPanel implements MouseListener {
 		} else if (e.getButton() == MouseEvent.BUTTON3) {
 			m_board.toggleDiffused((int) position.getX(),
 					               (int) position.getY());
+			showChanges();
 		}
 
 		updateDisplay();
@@ -132,6 +208,114 @@ public class DisplayBoard extends JPanel implements MouseListener {
 
 	}
 
+	/**
+	 * Lets the computer take a turn and shows what it did
+	 */
+	private void computerTurn() {
+		if (m_board.isWon() || m_board.isLost()) {
+			m_computerTimer.stop();
+			return;
+		}
+
+		m_computer.takeTurn();
+		showChanges();
+		updateDisplay();
+
+		if (m_board.isLost()) {
+			m_computerTimer.stop();
+			m_mainForm.gameOver(false);
+		} else if (m_board.isWon()) {
+			m_computerTimer.stop();
+			m_mainForm.gameOver(true);
+		}
+	}
+
+	/**
+	 * Redraws the tiles of every cell the board has changed since this was
+	 * last called
+	 */
+	private void showChanges() {
+		boolean redrawn = false;
+		boolean changed = false;
+
+		for (long event = m_changes.poll(); event != BoardEvents.EMPTY;
+		     event = m_changes.poll()) {
+			int type = BoardEvents.getType(event);
+			changed = true;
+
+			if ((event == BoardEvents.MISSED)
+			        || (type == BoardEvents.BOARD_CHANGED)) {
+				// any tile may be new, such as once the first click
+				// places the bombs, so every tile is drawn again
+				if (!redrawn) {
+					redrawBoard();
+					redrawn = true;
+				}
+				continue;
+			}
+
+			int cell = BoardEvents.getCell(event);
+			Tile tile = m_tiles[m_board.getX(cell)][m_board.getY(cell)];
+
+			if (type == BoardEvents.REVEALED) {
+				tile.reveal();
+			} else if (tile.isDiffused() != (type == BoardEvents.DIFFUSED)) {
+				tile.toggleDiffused();
+			}
+		}
+
+		// the hint for the board before the move no longer applies
+		if (changed) {
+			moved();
+		}
+	}
+
+	/**
+	 * Draws every tile again from the board
+	 */
+	private void redrawBoard() {
+		removeAll();
+		drawBoard(m_board.getBoardSize());
+		revalidate();
+		repaint();
+
+		if (m_header.m_showBombTileCheckBox.isSelected()) {
+			showBombTiles(true);
+		}
+	}
+
+	/**
+	 * Shows the hint and heatmap, or clears them if the hint for the board
+	 * as it is isn't ready
+	 *
+	 * @param hint Hint for the board as it is, or null
+	 */
+	private void showHint(HintWorker.Hint hint) {
+		boolean heatmap = (hint != null)
+		                  && m_header.m_heatmapCheckBox.isSelected();
+		boolean hinted = (hint != null) && m_hintWanted;
+
+		for (int x = 0; x < m_tiles.length; x++) {
+			for (int y = 0; y < m_tiles.length; y++) {
+				int cell = (x * m_tiles.length) + y;
+
+				m_tiles[x][y].showChance(heatmap ? hint.getChance(cell)
+				                                 : Double.NaN);
+				m_tiles[x][y].showHint(hinted && (hint.getCell() == cell));
+			}
+		}
+	}
+
+	/**
+	 * Clears the hint and heatmap of the board before a move, and starts
+	 * working out the ones for the board as it is now
+	 */
+	private void moved() {
+		m_hintWanted = false;
+		showHint(null);
+		m_hints.update();
+	}
+
 	/**
 	 * Updates header display with latest values
 	 */
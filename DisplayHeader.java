@@ -76,6 +76,10 @@ public class DisplayHeader extends JPanel {
 			new Rectangle(10, 50, 120, 20);
         private static final Rectangle COMPUTER_POS =
 			new Rectangle(130, 50, 100, 20);
+	private static final Rectangle HEATMAP_POS =
+			new Rectangle(230, 50, 80, 20);
+	private static final Rectangle HINT_POS =
+			new Rectangle(310, 50, 60, 20);
 	
         // size of display header
 	private static final Dimension SIZE = new Dimension(375, 75);
@@ -89,6 +93,8 @@ public class DisplayHeader extends JPanel {
 	private final JLabel m_timerLabel;
 	final JCheckBox m_showBombTileCheckBox;
         final JCheckBox m_ComputerCheckBox;
+	final JCheckBox m_heatmapCheckBox;
+	final JButton m_hintButton;
 
 	// data relating to the timer
 	private final long m_startTime;
@@ -137,6 +143,15 @@ public class DisplayHeader extends JPanel {
                 m_ComputerCheckBox = new JCheckBox("randomize");
 		m_ComputerCheckBox.setBounds(COMPUTER_POS);
 		add(m_ComputerCheckBox);
+
+		m_heatmapCheckBox = new JCheckBox("heatmap");
+		m_heatmapCheckBox.setBounds(HEATMAP_POS);
+		add(m_heatmapCheckBox);
+
+		m_hintButton = new JButton("Hint");
+		m_hintButton.setBounds(HINT_POS);
+		m_hintButton.setMargin(new Insets(0, 0, 0, 0));
+		add(m_hintButton);
                 
 		// setup timer
 		m_startTime = System.currentTimeMillis();
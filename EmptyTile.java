@@ -78,26 +78,6 @@ public class EmptyTile extends Tile {
 		}
 	}
 	
-	/**
-	* Determines whether this tile will cause the game to be lost
-	*
-	* @return False, because tile has no mine
-	*/
-	@Override
-	public boolean hasLost() {
-		return false;
-	}
-	
-	/**
-	* Determines whether this tile allows the game to be won
-	*
-	* @return True, if tile is revealed, false otherwise
-	*/
-	@Override
-	public boolean isWinning() {
-		return isRevealed();
-	}
-	
 		/**
 	* Reveals tile, if it is not already revealed, and displays animation
 	*/
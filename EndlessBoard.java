@@ -0,0 +1,556 @@
+/**
+ * @file EndlessBoard.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Stores the state of an endless Kablewie board
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @class EndlessBoard
+ * @brief Stores the state of an endless Kablewie board
+ *
+ * The board has no edges. Whether a tile is a bomb comes from a hash of
+ * the seed and its coordinates, so bombs are never stored. Revealed and
+ * diffused tiles are stored in square chunks that are only created once a
+ * tile in them changes. A limited number of chunks are kept as arrays,
+ * and when another is needed the least recently used one is packed down
+ * with run-length encoding until it is used again.
+ *
+ * A packed chunk keeps every tile it held, and takes two bytes for each
+ * run of alike tiles. A chunk that packs badly, such as one scattered with
+ * flags, is kept as two bits a tile instead, so a packed chunk never takes
+ * more than a quarter of the array it came from.
+ */
+public class EndlessBoard {
+
+    /**
+     * Gets the bomb density of the board
+     *
+     * @return Chance of a tile being a bomb
+     */
+    public double getDensity() {
+        return m_density;
+    }
+
+    /**
+     * Gets number of diffused tiles on board
+     *
+     * @return Number of diffused tiles
+     */
+    public long getDiffused() {
+        return m_diffused;
+    }
+
+    /**
+     * Gets number of revealed tiles on board
+     *
+     * @return Number of revealed tiles
+     */
+    public long getRevealed() {
+        return m_revealed;
+    }
+
+    /**
+     * Gets the number of chunks currently held as arrays
+     *
+     * @return Number of resident chunks
+     */
+    public int getResidentChunks() {
+        return m_resident.size();
+    }
+
+    /**
+     * Gets the number of chunks currently packed
+     *
+     * @return Number of packed chunks
+     */
+    public int getPackedChunks() {
+        return m_packed.size();
+    }
+
+    /**
+     * Gets the memory the packed chunks take up
+     *
+     * @return Bytes of packed chunks, counting what each costs to keep
+     */
+    public long getPackedBytes() {
+        return m_packedBytes;
+    }
+
+    /**
+     * Gets the seed the bombs are placed with
+     *
+     * @return Seed of the board
+     */
+    public long getSeed() {
+        return m_seed;
+    }
+
+    // width and height of a chunk, as a power of two
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // default number of chunks held as arrays
+    private static final int DEFAULT_RESIDENT_CHUNKS = 1024;
+
+    // bytes a packed chunk costs to keep beyond its runs, for its key and
+    // its entry in the map
+    private static final int PACKED_OVERHEAD = 64;
+
+    // most tiles a single reveal opens up, since an opening can go on for
+    // ever when bombs are sparse
+    private static final int MAX_FILL_TILES = 1 << 20;
+
+    // longest run a packed chunk stores in one pair of bytes
+    private static final int MAX_RUN = 255;
+
+    // size of a chunk kept as two bits a tile, which run-length encoded
+    // chunks are always smaller than
+    private static final int BITS_SIZE = CHUNK_SIZE * CHUNK_SIZE / 4;
+
+    // holds the bomb density and the seed bombs are placed with
+    private final double m_density;
+    private final long m_bombThreshold;
+    private final long m_seed;
+
+    // most chunks held as arrays
+    private final int m_maxResident;
+
+    // chunks held as arrays, least recently used first
+    private final Map<Long, byte[]> m_resident;
+
+    // chunks packed with run-length encoding, and the bytes they take up
+    private final Map<Long, byte[]> m_packed;
+    private long m_packedBytes;
+
+    // holds number of tiles in given state
+    private long m_diffused;
+    private long m_revealed;
+
+    // holds whether a bomb has been revealed
+    private boolean m_lost;
+
+    /**
+     * Constructs board object holding the default number of chunks
+     *
+     * @param density Chance of a tile being a bomb
+     * @param seed Seed to place bombs with
+     */
+    public EndlessBoard(double density, long seed) {
+        this(density, seed, DEFAULT_RESIDENT_CHUNKS);
+    }
+
+    /**
+     * Constructs board object
+     *
+     * @param density Chance of a tile being a bomb
+     * @param seed Seed to place bombs with
+     * @param maxResident Most chunks to hold as arrays
+     */
+    public EndlessBoard(double density, long seed, int maxResident) {
+
+        // check the parameters are valid
+        if (!(density >= 0) || (density >= 1)) {
+            throw new IllegalArgumentException("Invalid density: "
+                                               + density);
+        }
+
+        if (maxResident <= 0) {
+            throw new IllegalArgumentException("Invalid maxResident: "
+                                               + maxResident);
+        }
+
+        m_density = density;
+        m_bombThreshold = (long) (density * Long.MAX_VALUE);
+        m_seed = seed;
+        m_maxResident = maxResident;
+
+        m_resident = new LinkedHashMap<>(16, 0.75f, true);
+        m_packed = new HashMap<>();
+        m_packedBytes = 0;
+
+        m_diffused = 0;
+        m_revealed = 0;
+        m_lost = false;
+    }
+
+    /**
+     * Gets a boolean indicating the game is lost
+     *
+     * @return True if game is lost, false otherwise
+     */
+    public boolean isLost() {
+        return m_lost;
+    }
+
+    /**
+     * Gets whether a tile is a bomb
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is a bomb, false otherwise
+     */
+    public boolean isBomb(int x, int y) {
+        long hash = m_seed + (x * 0x9E3779B97F4A7C15L)
+                    + (y * 0xC2B2AE3D27D4EB4FL);
+
+        // finish with the SplitMix64 mixer
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+
+        return (hash >>> 1) < m_bombThreshold;
+    }
+
+    /**
+     * Gets whether a tile is diffused
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is diffused, false otherwise
+     */
+    public boolean isDiffused(int x, int y) {
+        return (getState(x, y) & Board.DIFFUSED) != 0;
+    }
+
+    /**
+     * Gets whether a tile is revealed
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return True if tile is revealed, false otherwise
+     */
+    public boolean isRevealed(int x, int y) {
+        return (getState(x, y) & Board.REVEALED) != 0;
+    }
+
+    /**
+     * Gets the number of bombs adjacent to a tile
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return The number of adjacent bombs
+     */
+    public int getAdjacentBombs(int x, int y) {
+        int bombs = 0;
+
+        for (int i = x - 1; i <= x + 1; i++) {
+            for (int j = y - 1; j <= y + 1; j++) {
+                if (((i != x) || (j != y)) && isBomb(i, j)) {
+                    bombs++;
+                }
+            }
+        }
+
+        return bombs;
+    }
+
+    /**
+     * Reveals a tile, and every tile around it if it has no adjacent bombs
+     *
+     * An opening stops after a fixed number of tiles. Revealing an empty
+     * tile that is already revealed carries on opening up from it.
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return The number of tiles revealed
+     */
+    public int reveal(int x, int y) {
+        int state = getState(x, y);
+        int revealed = 0;
+
+        if ((state & Board.DIFFUSED) != 0) {
+            return 0;
+        }
+
+        if ((state & Board.REVEALED) == 0) {
+            setState(x, y, state | Board.REVEALED);
+            revealed++;
+
+            if (isBomb(x, y)) {
+                m_lost = true;
+            }
+        }
+
+        if (!isBomb(x, y) && (getAdjacentBombs(x, y) == 0)) {
+            revealed += fill(x, y);
+        }
+
+        m_revealed += revealed;
+
+        return revealed;
+    }
+
+    /**
+     * Diffuses a tile
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     */
+    public void toggleDiffused(int x, int y) {
+        int state = getState(x, y);
+
+        // check is tile is already revealed
+        if ((state & Board.REVEALED) != 0) {
+            return;
+        }
+
+        setState(x, y, state ^ Board.DIFFUSED);
+
+        if ((state & Board.DIFFUSED) == 0) {
+            m_diffused++;
+        } else {
+            m_diffused--;
+        }
+    }
+
+    /**
+     * Opens up the area around a revealed tile with no adjacent bombs,
+     * crossing chunks as it goes
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return The number of tiles revealed
+     */
+    private int fill(int x, int y) {
+        long[] queue = new long[64];
+        int head = 0;
+        int tail = 0;
+        int revealed = 0;
+
+        queue[tail++] = pack(x, y);
+
+        while ((head < tail) && (revealed < MAX_FILL_TILES)) {
+            int cx = (int) (queue[head] >> 32);
+            int cy = (int) queue[head++];
+
+            for (int i = cx - 1; i <= cx + 1; i++) {
+                for (int j = cy - 1; j <= cy + 1; j++) {
+                    int state = getState(i, j);
+
+                    if ((state & (Board.DIFFUSED | Board.REVEALED)) != 0) {
+                        continue;
+                    }
+
+                    // tiles next to an empty tile are never bombs
+                    setState(i, j, state | Board.REVEALED);
+                    revealed++;
+
+                    if (getAdjacentBombs(i, j) != 0) {
+                        continue;
+                    }
+
+                    // make room by dropping the tiles already opened up,
+                    // or grow the queue if most of it is still waiting
+                    if (tail == queue.length) {
+                        if (head > queue.length / 2) {
+                            System.arraycopy(queue, head, queue, 0,
+                                             tail - head);
+                            tail -= head;
+                            head = 0;
+                        } else {
+                            queue = Arrays.copyOf(queue, queue.length * 2);
+                        }
+                    }
+
+                    queue[tail++] = pack(i, j);
+                }
+            }
+        }
+
+        return revealed;
+    }
+
+    /**
+     * Gets the revealed and diffused bits of a tile
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @return State bits of the tile
+     */
+    private int getState(int x, int y) {
+        Long key = pack(x >> CHUNK_BITS, y >> CHUNK_BITS);
+        byte[] chunk = m_resident.get(key);
+
+        if (chunk == null) {
+            byte[] packed = m_packed.get(key);
+
+            // untouched chunks aren't created just to be read
+            if (packed == null) {
+                return 0;
+            }
+
+            chunk = loadChunk(key);
+        }
+
+        return chunk[((x & CHUNK_MASK) << CHUNK_BITS) | (y & CHUNK_MASK)];
+    }
+
+    /**
+     * Sets the revealed and diffused bits of a tile
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @param state State bits of the tile
+     */
+    private void setState(int x, int y, int state) {
+        byte[] chunk = loadChunk(pack(x >> CHUNK_BITS, y >> CHUNK_BITS));
+
+        chunk[((x & CHUNK_MASK) << CHUNK_BITS) | (y & CHUNK_MASK)] =
+                (byte) state;
+    }
+
+    /**
+     * Gets a chunk as an array, unpacking or creating it if needed
+     *
+     * @param key Coordinates of the chunk
+     * @return Chunk array
+     */
+    private byte[] loadChunk(Long key) {
+        byte[] chunk = m_resident.get(key);
+
+        if (chunk == null) {
+            byte[] packed = m_packed.remove(key);
+            chunk = new byte[CHUNK_SIZE * CHUNK_SIZE];
+
+            if (packed != null) {
+                m_packedBytes -= packed.length + PACKED_OVERHEAD;
+                unpack(packed, chunk);
+            }
+
+            // make room before adding, so the chunk given out is never the
+            // one packed away
+            if (m_resident.size() >= m_maxResident) {
+                Iterator<Map.Entry<Long, byte[]>> eldest =
+                        m_resident.entrySet().iterator();
+                Map.Entry<Long, byte[]> entry = eldest.next();
+
+                eldest.remove();
+                packChunk(entry.getKey(), entry.getValue());
+            }
+
+            m_resident.put(key, chunk);
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Packs a chunk that has left the resident chunks
+     *
+     * @param key Coordinates of the chunk
+     * @param chunk Chunk array
+     */
+    private void packChunk(Long key, byte[] chunk) {
+        byte[] packed = pack(chunk);
+
+        // chunks with nothing revealed or diffused aren't kept
+        if (packed == null) {
+            return;
+        }
+
+        m_packed.put(key, packed);
+        m_packedBytes += packed.length + PACKED_OVERHEAD;
+    }
+
+    /**
+     * Packs a chunk into pairs of run length and state, or into two bits a
+     * tile if the runs would take as much room
+     *
+     * @param chunk Chunk array
+     * @return Packed chunk, or null if no tile in it is revealed or diffused
+     */
+    private static byte[] pack(byte[] chunk) {
+        byte[] packed = new byte[BITS_SIZE];
+        int size = 0;
+        boolean empty = true;
+
+        for (int i = 0; i < chunk.length;) {
+            int run = 1;
+
+            while ((i + run < chunk.length) && (run < MAX_RUN)
+                   && (chunk[i + run] == chunk[i])) {
+                run++;
+            }
+
+            // give up on the runs once they are no smaller than the bits
+            if (size + 2 >= BITS_SIZE) {
+                return packBits(chunk);
+            }
+
+            empty &= (chunk[i] == 0);
+            packed[size++] = (byte) run;
+            packed[size++] = chunk[i];
+            i += run;
+        }
+
+        return empty ? null : Arrays.copyOf(packed, size);
+    }
+
+    /**
+     * Packs a chunk into two bits a tile, the revealed bit then the diffused
+     *
+     * @param chunk Chunk array
+     * @return Packed chunk
+     */
+    private static byte[] packBits(byte[] chunk) {
+        byte[] packed = new byte[BITS_SIZE];
+
+        for (int i = 0; i < chunk.length; i++) {
+            int bits = (((chunk[i] & Board.REVEALED) != 0) ? 1 : 0)
+                       | (((chunk[i] & Board.DIFFUSED) != 0) ? 2 : 0);
+
+            packed[i >> 2] |= (byte) (bits << ((i & 3) << 1));
+        }
+
+        return packed;
+    }
+
+    /**
+     * Unpacks a chunk packed by pack
+     *
+     * @param packed Packed chunk
+     * @param chunk Array to unpack into
+     */
+    private static void unpack(byte[] packed, byte[] chunk) {
+        // only a chunk kept as bits is this long
+        if (packed.length == BITS_SIZE) {
+            for (int i = 0; i < chunk.length; i++) {
+                int bits = packed[i >> 2] >> ((i & 3) << 1);
+
+                chunk[i] = (byte) ((((bits & 1) != 0) ? Board.REVEALED : 0)
+                                   | (((bits & 2) != 0) ? Board.DIFFUSED : 0));
+            }
+
+            return;
+        }
+
+        int next = 0;
+
+        for (int i = 0; i < packed.length; i += 2) {
+            int run = packed[i] & 0xFF;
+
+            Arrays.fill(chunk, next, next + run, packed[i + 1]);
+            next += run;
+        }
+    }
+
+    /**
+     * Packs a pair of coordinates into a long
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Packed coordinates
+     */
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
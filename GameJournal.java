@@ -0,0 +1,328 @@
+/**
+ * @file GameJournal.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Records every move made on a board to a journal file
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * @class GameJournal
+ * @brief Records every move made on a board to a journal file
+ *
+ * A journal starts with the seed and size of the board, followed by one
+ * record per move. Reveals and diffuses are recorded by position. Every
+ * few moves a keyframe of the revealed and diffused tiles, and of the
+ * first click the bombs were placed around, is recorded as well, so
+ * JournalReplay can jump to any move without making every move before it.
+ * Undoing, redoing and restoring a snapshot are recorded as keyframes of
+ * the board they leave behind.
+ *
+ * Moves are handed to a background thread to be written, so recording a
+ * move only costs queueing it. A keyframe takes a snapshot of the cells,
+ * which shares them until the board changes, and the background thread
+ * reads the tiles out of the snapshot. A snapshot of a board kept in a file
+ * would be a whole copy, so such a board only gets the keyframes undoing,
+ * redoing and restoring need, which copy out just the tiles.
+ *
+ * If a record can't be written the journal stops: later records are
+ * dropped, and the error is given by getError and thrown by close.
+ */
+public class GameJournal implements Closeable {
+
+    // types of record
+    public static final int REVEAL = 1;
+    public static final int DIFFUSE = 2;
+    public static final int KEYFRAME = 3;
+    public static final int UNDO = 4;
+    public static final int REDO = 5;
+    public static final int RESTORE = 6;
+
+    // marks a journal file, "KBJOURNL" in ASCII, and its format version
+    static final long FILE_MAGIC = 0x4B424A4F55524E4CL;
+    static final int FILE_VERSION = 2;
+
+    // default number of moves between keyframes
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+    // size of the buffer records are written through
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // record that tells the writer thread to stop
+    private static final Entry END = new Entry(0, 0, 0, 0);
+
+    // holds the number of moves between keyframes
+    private final int m_keyframeInterval;
+
+    // holds records waiting to be written
+    private final BlockingQueue<Entry> m_queue;
+
+    // writes the records in the background
+    private final Thread m_writer;
+    private final DataOutputStream m_out;
+
+    // holds the number of moves recorded
+    private int m_moves;
+
+    // holds the first error the writer thread hit, if any
+    private volatile IOException m_error;
+
+    /**
+     * Constructs a journal with the default keyframe interval, replacing
+     * any file already there
+     *
+     * @param file Journal file to write
+     * @param board Board to record, as it is now
+     * @throws IOException If the file can't be created
+     */
+    public GameJournal(Path file, Board board) throws IOException {
+        this(file, board, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Constructs a journal, replacing any file already there
+     *
+     * @param file Journal file to write
+     * @param board Board to record, as it is now
+     * @param keyframeInterval Number of moves between keyframes
+     * @throws IOException If the file can't be created
+     */
+    public GameJournal(Path file, Board board, int keyframeInterval)
+            throws IOException {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Invalid keyframeInterval: "
+                                               + keyframeInterval);
+        }
+
+        m_keyframeInterval = keyframeInterval;
+        m_queue = new LinkedBlockingQueue<>();
+        m_out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), BUFFER_SIZE));
+        m_moves = 0;
+
+        m_out.writeLong(FILE_MAGIC);
+        m_out.writeInt(FILE_VERSION);
+        m_out.writeLong(board.getSeed());
+        m_out.writeInt(board.getBoardSize());
+        m_out.writeInt(board.getBombCount());
+        m_out.writeInt(keyframeInterval);
+
+        // the board may already be part played
+        recordState(KEYFRAME, board);
+
+        m_writer = new Thread(this::write, "Kablewie journal");
+        m_writer.setDaemon(true);
+        m_writer.start();
+    }
+
+    /**
+     * Records a reveal or diffuse, followed by a keyframe if one is due
+     *
+     * @param type REVEAL or DIFFUSE
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     * @param board Board after the move
+     */
+    void recordMove(int type, int x, int y, Board board) {
+        if (m_error != null) {
+            return;
+        }
+
+        m_queue.add(new Entry(type, System.currentTimeMillis(), x, y));
+
+        if ((++m_moves % m_keyframeInterval == 0)
+                && !board.isKeptInFile()) {
+            recordState(KEYFRAME, board);
+        }
+    }
+
+    /**
+     * Records the revealed and diffused tiles of a board
+     *
+     * @param type KEYFRAME, or the move that left the board as it is
+     * @param board Board to record
+     */
+    void recordState(int type, Board board) {
+        if (m_error != null) {
+            return;
+        }
+
+        m_queue.add(new Entry(type, System.currentTimeMillis(), board));
+
+        if (type != KEYFRAME) {
+            m_moves++;
+        }
+    }
+
+    /**
+     * Gets the error that stopped the journal writing records
+     *
+     * @return The error, or null if every record so far has been written
+     *         or is waiting to be
+     */
+    public IOException getError() {
+        return m_error;
+    }
+
+    /**
+     * Writes out every record made so far and closes the file
+     *
+     * @throws IOException If a record couldn't be written
+     */
+    @Override
+    public void close() throws IOException {
+        m_queue.add(END);
+
+        try {
+            m_writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // the error that stopped the writer is the one worth reporting
+        try {
+            m_out.close();
+        } catch (IOException e) {
+            if (m_error == null) {
+                throw e;
+            }
+        }
+
+        if (m_error != null) {
+            throw m_error;
+        }
+    }
+
+    /**
+     * Writes records as they are queued, flushing whenever the queue runs
+     * dry, until the journal is closed
+     */
+    private void write() {
+        try {
+            while (true) {
+                Entry entry = m_queue.poll();
+
+                if (entry == null) {
+                    m_out.flush();
+                    entry = m_queue.take();
+                }
+
+                if (entry == END) {
+                    m_out.flush();
+                    return;
+                }
+
+                m_out.writeByte(entry.m_type);
+                m_out.writeLong(entry.m_time);
+
+                if ((entry.m_type == REVEAL) || (entry.m_type == DIFFUSE)) {
+                    m_out.writeInt(entry.m_x);
+                    m_out.writeInt(entry.m_y);
+                } else if (entry.m_cells != null) {
+                    m_out.writeLong(entry.m_firstClick);
+                    writeTiles(Board.getTiles(entry.m_cells, Board.REVEALED));
+                    writeTiles(Board.getTiles(entry.m_cells, Board.DIFFUSED));
+                } else {
+                    m_out.writeLong(entry.m_firstClick);
+                    writeTiles(entry.m_revealed);
+                    writeTiles(entry.m_diffused);
+                }
+            }
+        } catch (IOException e) {
+
+            // nothing more will be written, so stop taking records
+            m_error = e;
+            m_queue.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes a set of tiles as a count of words followed by the words
+     *
+     * @param tiles Set of cells
+     * @throws IOException If the tiles can't be written
+     */
+    private void writeTiles(BitSet tiles) throws IOException {
+        long[] words = tiles.toLongArray();
+
+        m_out.writeInt(words.length);
+
+        for (long word : words) {
+            m_out.writeLong(word);
+        }
+    }
+
+    /**
+     * @class Entry
+     * @brief A record waiting to be written
+     */
+    private static final class Entry {
+        private final int m_type;
+        private final long m_time;
+        private final int m_x;
+        private final int m_y;
+
+        // holds the first click and either a snapshot of the cells or the
+        // tiles, for a keyframe
+        private final long m_firstClick;
+        private final CellStore m_cells;
+        private final BitSet m_revealed;
+        private final BitSet m_diffused;
+
+        /**
+         * Constructs a record of a move
+         *
+         * @param type REVEAL or DIFFUSE
+         * @param time Time of the move in milliseconds
+         * @param x X coordinate of tile
+         * @param y Y coordinate of tile
+         */
+        Entry(int type, long time, int x, int y) {
+            m_type = type;
+            m_time = time;
+            m_x = x;
+            m_y = y;
+            m_firstClick = 0;
+            m_cells = null;
+            m_revealed = null;
+            m_diffused = null;
+        }
+
+        /**
+         * Constructs a keyframe of a board
+         *
+         * @param type KEYFRAME, or the move that left the board as it is
+         * @param time Time of the move in milliseconds
+         * @param board Board to record
+         */
+        Entry(int type, long time, Board board) {
+            m_type = type;
+            m_time = time;
+            m_x = 0;
+            m_y = 0;
+            m_firstClick = board.getFirstClick();
+
+            if (board.isKeptInFile()) {
+                m_cells = null;
+                m_revealed = board.getTiles(Board.REVEALED);
+                m_diffused = board.getTiles(Board.DIFFUSED);
+            } else {
+                m_cells = board.snapshotCells();
+                m_revealed = null;
+                m_diffused = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * @file HeapCellStore.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Holds the cells of a board in copy-on-write chunks on the heap
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class HeapCellStore
+ * @brief Holds the cells of a board in copy-on-write chunks on the heap
+ *
+ * Cells are held in fixed size chunks, which are grouped into pages. A
+ * snapshot copies only the list of pages and then shares every page and
+ * chunk with the store it came from. Each store has an id, and every page
+ * and chunk records the id of the store that created it; a store only
+ * writes to its own pages and chunks, copying any others first. Taking a
+ * snapshot gives both stores new ids, so neither can write to what they
+ * share, and the cost of a snapshot is the pages and chunks changed after
+ * it rather than the whole board.
+ */
+class HeapCellStore implements CellStore {
+
+    // cells in a chunk and chunks in a page, as powers of two
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+    // hands out store ids
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    // holds the number of cells
+    private final int m_size;
+
+    // holds the chunks of each page, and who created each page and chunk
+    private final byte[][][] m_pages;
+    private final int[] m_pageOwners;
+    private final int[][] m_chunkOwners;
+
+    // holds the header fields
+    private final long[] m_header;
+
+    // holds the id this store writes its own pages and chunks with
+    private int m_id;
+
+    /**
+     * Constructs a store of cleared cells
+     *
+     * @param size Number of cells
+     */
+    HeapCellStore(int size) {
+        int chunks = (int) (((long) size + CHUNK_MASK) >>> CHUNK_BITS);
+        int pages = (chunks + PAGE_MASK) >>> PAGE_BITS;
+
+        m_size = size;
+        m_id = NEXT_ID.incrementAndGet();
+        m_pages = new byte[pages][][];
+        m_pageOwners = new int[pages];
+        m_chunkOwners = new int[pages][];
+        m_header = new long[HEADER_FIELDS];
+
+        for (int page = 0; page < pages; page++) {
+            int count = Math.min(1 << PAGE_BITS, chunks - (page << PAGE_BITS));
+
+            m_pages[page] = new byte[count][];
+            m_pageOwners[page] = m_id;
+            m_chunkOwners[page] = new int[count];
+
+            for (int chunk = 0; chunk < count; chunk++) {
+                long start = ((long) (page << PAGE_BITS) + chunk) << CHUNK_BITS;
+
+                // the last chunk only holds the cells that are left
+                m_pages[page][chunk] =
+                        new byte[(int) Math.min(1 << CHUNK_BITS, size - start)];
+                m_chunkOwners[page][chunk] = m_id;
+            }
+        }
+    }
+
+    /**
+     * Constructs a snapshot of a store, sharing all of its pages
+     *
+     * @param other Store to take a snapshot of
+     */
+    private HeapCellStore(HeapCellStore other) {
+        m_size = other.m_size;
+        m_id = NEXT_ID.incrementAndGet();
+        m_pages = other.m_pages.clone();
+        m_pageOwners = other.m_pageOwners.clone();
+        m_chunkOwners = other.m_chunkOwners.clone();
+        m_header = other.m_header.clone();
+
+        // everything the other store had is now shared
+        other.m_id = NEXT_ID.incrementAndGet();
+    }
+
+    @Override
+    public int size() {
+        return m_size;
+    }
+
+    @Override
+    public byte get(int cell) {
+        return m_pages[cell >>> (CHUNK_BITS + PAGE_BITS)]
+                      [(cell >>> CHUNK_BITS) & PAGE_MASK][cell & CHUNK_MASK];
+    }
+
+    @Override
+    public void set(int cell, byte state) {
+        int page = cell >>> (CHUNK_BITS + PAGE_BITS);
+        int chunk = (cell >>> CHUNK_BITS) & PAGE_MASK;
+
+        // a store that shares nothing only reads its page lists here, so
+        // once claimAll has run different cells can be set from several
+        // threads at once
+        if ((m_pageOwners[page] != m_id)
+                || (m_chunkOwners[page][chunk] != m_id)) {
+            claimChunk(page, chunk);
+        }
+
+        m_pages[page][chunk][cell & CHUNK_MASK] = state;
+    }
+
+    @Override
+    public long getHeader(int field) {
+        return m_header[field];
+    }
+
+    @Override
+    public void setHeader(int field, long value) {
+        m_header[field] = value;
+    }
+
+    @Override
+    public void flush() {
+
+        // nothing to write through to
+    }
+
+    @Override
+    public void claimAll() {
+        for (int page = 0; page < m_pages.length; page++) {
+            for (int chunk = 0; chunk < m_pages[page].length; chunk++) {
+                if ((m_pageOwners[page] != m_id)
+                        || (m_chunkOwners[page][chunk] != m_id)) {
+                    claimChunk(page, chunk);
+                }
+            }
+        }
+    }
+
+    @Override
+    public CellStore snapshot() {
+        return new HeapCellStore(this);
+    }
+
+    /**
+     * Copies a page or chunk that is shared so it can be written to
+     *
+     * @param page Index of page
+     * @param chunk Index of chunk in the page
+     */
+    private void claimChunk(int page, int chunk) {
+        if (m_pageOwners[page] != m_id) {
+            m_pages[page] = m_pages[page].clone();
+            m_chunkOwners[page] = m_chunkOwners[page].clone();
+            m_pageOwners[page] = m_id;
+        }
+
+        if (m_chunkOwners[page][chunk] != m_id) {
+            m_pages[page][chunk] = m_pages[page][chunk].clone();
+            m_chunkOwners[page][chunk] = m_id;
+        }
+    }
+}
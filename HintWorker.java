@@ -0,0 +1,250 @@
+/**
+ * @file HintWorker.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Works out hints and bomb chances in the background after each
+ * move
+ */
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javax.swing.SwingWorker;
+
+/**
+ * @class HintWorker
+ * @brief Works out hints and bomb chances in the background after each
+ * move
+ *
+ * After each move the display calls update, which takes a snapshot of the
+ * board and starts working out the safest tile to reveal and the chance of
+ * every hidden tile being a bomb on a background thread, before anyone has
+ * asked. A move made before the work finishes cancels it and starts again
+ * from the new board.
+ *
+ * Each hint records the version of the board it was worked out for, the
+ * number of events the board had published, and is only handed out while
+ * the board is still at that version. Asking for a hint never waits: it
+ * gets the hint for the board as it is, or nothing if that isn't ready.
+ * Everything but the work itself happens on the event dispatch thread.
+ */
+public class HintWorker {
+
+    // holds the board and what to tell when a hint is ready
+    private final Board m_board;
+    private final Consumer<Hint> m_listener;
+
+    // holds the work in progress, or null if there isn't any
+    private SwingWorker<Hint, Void> m_work;
+
+    // holds the latest hint worked out, or null before the first
+    private Hint m_hint;
+
+    /**
+     * Constructs a worker for a board
+     *
+     * @param board Board to work out hints for
+     * @param listener Told on the event dispatch thread whenever a hint for
+     *                 the board as it is becomes ready
+     */
+    public HintWorker(Board board, Consumer<Hint> listener) {
+        m_board = board;
+        m_listener = listener;
+    }
+
+    /**
+     * Gets the hint for the board as it is now, without waiting
+     *
+     * @return Hint, or null if it hasn't been worked out yet
+     */
+    public Hint getHint() {
+        if ((m_hint == null) || (m_hint.getVersion() != version())) {
+            return null;
+        }
+
+        return m_hint;
+    }
+
+    /**
+     * Starts working out the hint for the board as it is now, cancelling
+     * any work for an earlier version
+     */
+    public void update() {
+        cancel();
+
+        if (m_board.isWon() || m_board.isLost() || (getHint() != null)) {
+            return;
+        }
+
+        Board snapshot = m_board.copy();
+        long version = version();
+
+        m_work = new SwingWorker<Hint, Void>() {
+            @Override
+            protected Hint doInBackground() {
+                return work(snapshot, version);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || (m_work != this)) {
+                    return;
+                }
+
+                m_work = null;
+
+                try {
+                    Hint hint = get();
+
+                    if ((hint != null) && (hint.getVersion() == version())) {
+                        m_hint = hint;
+                        m_listener.accept(hint);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Couldn't work out hint: " + e);
+                }
+            }
+        };
+        m_work.execute();
+    }
+
+    /**
+     * Cancels the work in progress, if there is any
+     */
+    public void cancel() {
+        if (m_work != null) {
+            m_work.cancel(true);
+            m_work = null;
+        }
+    }
+
+    /**
+     * Works out the hint for a board
+     *
+     * @param board Board, which nothing else changes while it is worked on
+     * @param version Version of the board the hint is for
+     * @return Hint, or null if the work was cancelled
+     */
+    static Hint work(Board board, long version) {
+        int cells = board.getBoardSize() * board.getBoardSize();
+        Thread worker = Thread.currentThread();
+        Solver solver = new Solver(board);
+
+        solver.nextMoves();
+
+        if (worker.isInterrupted()) {
+            return null;
+        }
+
+        ProbabilityEngine engine = new ProbabilityEngine(board, solver);
+        float[] chances = new float[cells];
+        int safest = -1;
+
+        // the counting runs on other threads, which check this one
+        if (!engine.update(worker::isInterrupted)) {
+            return null;
+        }
+
+        for (int cell = 0; cell < cells; cell++) {
+            int state = board.getState(cell);
+
+            if ((state & Board.REVEALED) != 0) {
+                chances[cell] = Float.NaN;
+                continue;
+            }
+
+            chances[cell] = (float) engine.getChance(cell);
+
+            // the tiles the player diffused aren't offered as hints
+            if (((state & Board.DIFFUSED) == 0) && ((safest < 0)
+                    || (chances[cell] < chances[safest]))) {
+                safest = cell;
+            }
+        }
+
+        // the first click can't hit a bomb, so start in the middle
+        if (!board.isPlaced()) {
+            safest = board.getBoardSize() / 2 * (board.getBoardSize() + 1);
+            chances[safest] = 0;
+        }
+
+        return new Hint(version, safest, chances);
+    }
+
+    /**
+     * Gets the version of the board
+     *
+     * @return Number of events the board has published
+     */
+    private long version() {
+        return m_board.getEvents().getPublished();
+    }
+
+    /**
+     * @class Hint
+     * @brief The safest tile to reveal and the chance of each tile being a
+     * bomb, for one version of a board
+     */
+    public static final class Hint {
+
+        // holds the version of the board the hint is for
+        private final long m_version;
+
+        // holds the safest tile, or -1 if there is no tile to reveal
+        private final int m_cell;
+
+        // holds the chance of each tile being a bomb, NaN for revealed
+        // tiles
+        private final float[] m_chances;
+
+        /**
+         * Constructs a hint
+         *
+         * @param version Version of the board the hint is for
+         * @param cell Safest tile, or -1 if there is no tile to reveal
+         * @param chances Chance of each tile being a bomb
+         */
+        private Hint(long version, int cell, float[] chances) {
+            m_version = version;
+            m_cell = cell;
+            m_chances = chances;
+        }
+
+        /**
+         * Gets the version of the board the hint is for
+         *
+         * @return Number of events the board had published
+         */
+        public long getVersion() {
+            return m_version;
+        }
+
+        /**
+         * Gets the safest tile to reveal
+         *
+         * @return Index of cell, or -1 if there is no tile to reveal
+         */
+        public int getCell() {
+            return m_cell;
+        }
+
+        /**
+         * Gets whether the safest tile is certain to be safe
+         *
+         * @return True if the tile can't be a bomb
+         */
+        public boolean isCertain() {
+            return (m_cell >= 0) && (m_chances[m_cell] == 0);
+        }
+
+        /**
+         * Gets the chance of a tile being a bomb
+         *
+         * @param cell Index of cell
+         * @return Chance from 0 to 1, or NaN if the tile is revealed
+         */
+        public double getChance(int cell) {
+            return m_chances[cell];
+        }
+    }
+}
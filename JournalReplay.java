@@ -0,0 +1,357 @@
+/**
+ * @file JournalReplay.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Replays a game recorded by GameJournal
+ */
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @class JournalReplay
+ * @brief Replays a game recorded by GameJournal
+ *
+ * Opening a journal reads through it once, noting every move and where
+ * each keyframe starts. Seeking to a move then finds the last keyframe
+ * before it with a binary search, loads it into a copy of the starting
+ * board for the keyframe's first click and makes only the moves after
+ * it. A journal cut short, say by a crash, replays up to its last whole
+ * record.
+ */
+public class JournalReplay {
+
+    // holds the journal file
+    private final MappedByteBuffer m_buffer;
+
+    // holds the size, bomb count and seed of the board
+    private final int m_boardSize;
+    private final int m_bombCount;
+    private final long m_seed;
+
+    // holds the board as it was before any moves, for each first click the
+    // bombs have been placed around
+    private final Map<Long, Board> m_starts;
+
+    // holds the type, time and tile of every move
+    private int[] m_types;
+    private long[] m_times;
+    private int[] m_xs;
+    private int[] m_ys;
+    private int m_moves;
+
+    // holds the number of moves made before each keyframe and where its
+    // tiles start in the file
+    private int[] m_keyframeMoves;
+    private int[] m_keyframeOffsets;
+    private int m_keyframes;
+
+    /**
+     * Constructs a replay of a journal file
+     *
+     * @param buffer Journal file
+     * @throws IOException If the file isn't a journal
+     */
+    private JournalReplay(MappedByteBuffer buffer) throws IOException {
+        m_buffer = buffer;
+        m_types = new int[64];
+        m_times = new long[64];
+        m_xs = new int[64];
+        m_ys = new int[64];
+        m_keyframeMoves = new int[16];
+        m_keyframeOffsets = new int[16];
+        m_starts = new HashMap<>();
+
+        try {
+            if ((buffer.getLong() != GameJournal.FILE_MAGIC)
+                    || (buffer.getInt() != GameJournal.FILE_VERSION)) {
+                throw new IOException("Not a journal file");
+            }
+
+            m_seed = buffer.getLong();
+            m_boardSize = buffer.getInt();
+            m_bombCount = buffer.getInt();
+            buffer.getInt();
+
+            m_starts.put(Board.WAITING_FOR_CLICK,
+                         new Board(m_bombCount, m_boardSize, m_seed, true));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Not a journal file", e);
+        }
+
+        readRecords();
+
+        if (m_keyframes == 0) {
+            throw new IOException("Journal has no starting keyframe");
+        }
+    }
+
+    /**
+     * Opens a journal file
+     *
+     * @param file Journal file to open
+     * @return Replay of the journal
+     * @throws IOException If the file can't be opened or isn't a journal
+     */
+    public static JournalReplay open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            return new JournalReplay(channel.map(FileChannel.MapMode.READ_ONLY,
+                                                 0, channel.size()));
+        }
+    }
+
+    /**
+     * Gets the number of moves in the journal
+     *
+     * @return Number of moves
+     */
+    public int getMoveCount() {
+        return m_moves;
+    }
+
+    /**
+     * Gets the type of a move
+     *
+     * @param move Index of move
+     * @return One of the record types in GameJournal
+     */
+    public int getType(int move) {
+        return m_types[checkMove(move)];
+    }
+
+    /**
+     * Gets the time a move was made
+     *
+     * @param move Index of move
+     * @return Time of the move in milliseconds since the epoch
+     */
+    public long getTime(int move) {
+        return m_times[checkMove(move)];
+    }
+
+    /**
+     * Gets the x coordinate of a reveal or diffuse
+     *
+     * @param move Index of move
+     * @return X coordinate of tile
+     */
+    public int getX(int move) {
+        return m_xs[checkMove(move)];
+    }
+
+    /**
+     * Gets the y coordinate of a reveal or diffuse
+     *
+     * @param move Index of move
+     * @return Y coordinate of tile
+     */
+    public int getY(int move) {
+        return m_ys[checkMove(move)];
+    }
+
+    /**
+     * Gets the board as it was after a number of moves
+     *
+     * @param moves Number of moves to make, from zero up to the move count
+     * @return New board after the moves
+     */
+    public Board seek(int moves) {
+        if ((moves < 0) || (moves > m_moves)) {
+            throw new IllegalArgumentException("Invalid moves: " + moves);
+        }
+
+        // find the last keyframe at or before the move
+        int low = 0;
+        int high = m_keyframes - 1;
+
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+
+            if (m_keyframeMoves[middle] <= moves) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        int offset = m_keyframeOffsets[low];
+        Board board = getStart(m_buffer.getLong(offset)).copy();
+        BitSet revealed = readTiles(offset + 8);
+        BitSet diffused = readTiles(offset + 12
+                                    + (m_buffer.getInt(offset + 8) * 8));
+
+        board.setTiles(revealed, diffused);
+
+        // only reveals and diffuses are left between keyframes, and the
+        // first reveal places the bombs if they aren't already
+        for (int move = m_keyframeMoves[low]; move < moves; move++) {
+            if (m_types[move] == GameJournal.REVEAL) {
+                board.reveal(m_xs[move], m_ys[move]);
+            } else {
+                board.toggleDiffused(m_xs[move], m_ys[move]);
+            }
+        }
+
+        return board;
+    }
+
+    /**
+     * Reads through the records, noting every move and keyframe
+     *
+     * @throws IOException If a record is of a type no journal writes
+     */
+    private void readRecords() throws IOException {
+        while (m_buffer.hasRemaining()) {
+            int start = m_buffer.position();
+
+            try {
+                int type = m_buffer.get();
+                long time = m_buffer.getLong();
+                int x = 0;
+                int y = 0;
+
+                if ((type == GameJournal.REVEAL)
+                        || (type == GameJournal.DIFFUSE)) {
+                    x = m_buffer.getInt();
+                    y = m_buffer.getInt();
+                } else if ((type == GameJournal.KEYFRAME)
+                           || (type == GameJournal.UNDO)
+                           || (type == GameJournal.REDO)
+                           || (type == GameJournal.RESTORE)) {
+                    m_buffer.getLong();
+                    skipTiles();
+                    skipTiles();
+
+                    // a keyframe made by a move comes after that move
+                    addKeyframe((type == GameJournal.KEYFRAME) ? m_moves
+                                                               : m_moves + 1,
+                                start + 9);
+                } else {
+                    throw new IOException("Invalid record type: " + type);
+                }
+
+                if (type != GameJournal.KEYFRAME) {
+                    addMove(type, time, x, y);
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+
+                // the last record was cut short
+                break;
+            }
+        }
+    }
+
+    /**
+     * Gets the board as it was before any moves, with its bombs placed
+     * around a first click
+     *
+     * @param firstClick First click as kept by Board
+     * @return Starting board
+     */
+    private Board getStart(long firstClick) {
+        Board start = m_starts.get(firstClick);
+
+        if (start == null) {
+            if (firstClick == 0) {
+                start = new Board(m_bombCount, m_boardSize, m_seed);
+            } else {
+                start = m_starts.get(Board.WAITING_FOR_CLICK).copy();
+                start.placeBombsAround((int) (firstClick - 1));
+            }
+
+            m_starts.put(firstClick, start);
+        }
+
+        return start;
+    }
+
+    /**
+     * Skips over a set of tiles
+     */
+    private void skipTiles() {
+        int words = m_buffer.getInt();
+
+        m_buffer.position(m_buffer.position() + (words * 8));
+    }
+
+    /**
+     * Reads a set of tiles written by GameJournal
+     *
+     * @param offset Position of the set in the file
+     * @return Set of cells
+     */
+    private BitSet readTiles(int offset) {
+        long[] words = new long[m_buffer.getInt(offset)];
+
+        for (int i = 0; i < words.length; i++) {
+            words[i] = m_buffer.getLong(offset + 4 + (i * 8));
+        }
+
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Notes a move
+     *
+     * @param type Type of move
+     * @param time Time of move
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     */
+    private void addMove(int type, long time, int x, int y) {
+        if (m_moves == m_types.length) {
+            m_types = Arrays.copyOf(m_types, m_moves * 2);
+            m_times = Arrays.copyOf(m_times, m_moves * 2);
+            m_xs = Arrays.copyOf(m_xs, m_moves * 2);
+            m_ys = Arrays.copyOf(m_ys, m_moves * 2);
+        }
+
+        m_types[m_moves] = type;
+        m_times[m_moves] = time;
+        m_xs[m_moves] = x;
+        m_ys[m_moves] = y;
+        m_moves++;
+    }
+
+    /**
+     * Notes a keyframe
+     *
+     * @param moves Number of moves made before the keyframe
+     * @param offset Position of the keyframe's tiles in the file
+     */
+    private void addKeyframe(int moves, int offset) {
+        if (m_keyframes == m_keyframeMoves.length) {
+            m_keyframeMoves = Arrays.copyOf(m_keyframeMoves, m_keyframes * 2);
+            m_keyframeOffsets = Arrays.copyOf(m_keyframeOffsets,
+                                              m_keyframes * 2);
+        }
+
+        m_keyframeMoves[m_keyframes] = moves;
+        m_keyframeOffsets[m_keyframes] = offset;
+        m_keyframes++;
+    }
+
+    /**
+     * Checks a move is in the journal
+     *
+     * @param move Index of move
+     * @return The same index
+     */
+    private int checkMove(int move) {
+        if ((move < 0) || (move >= m_moves)) {
+            throw new IndexOutOfBoundsException("Invalid move: " + move);
+        }
+
+        return move;
+    }
+}
@@ -8,6 +8,12 @@
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * @class MainForm
@@ -18,6 +24,17 @@ public class MainForm extends JFrame {
 	private static final int HEADER_WIDTH = 375;
 	private static final int HEADER_HEIGHT = 75;
 	private static final int ANIMATION_SPEED = 5;
+
+	// board file an unfinished game is saved to when the form is closed
+	static final Path CHECKPOINT_FILE =
+			Paths.get(System.getProperty("user.home"), "kablewie.sav");
+
+	// journal the moves of the latest game are recorded to
+	static final Path JOURNAL_FILE =
+			Paths.get(System.getProperty("user.home"), "kablewie.kbj");
+
+	// boards made ahead of time, so the next game starts at once
+	static final BoardPool BOARDS = new BoardPool();
 	
 	// header that displays information to user
 	private final DisplayHeader m_header;
@@ -28,17 +45,44 @@ public class MainForm extends JFrame {
 	private final String m_playerName;
 	private final int m_bombCount;
 	private final int m_boardSize;
+	private final boolean m_noGuess;
 	private Timer m_animation;
+	private boolean m_gameOver;
+	private GameJournal m_journal;
 	
 	/**
-	 * Constructs object
+	 * Constructs object, the mines aren't placed until the first click so
+	 * it can't hit one
 	 * @param playerName Name of the human player
 	 * @param bombCount Number of mines to be placed on the board
 	 * @param boardSize Width and height of Kablewie board
 	 */
 	public MainForm(String playerName, int bombCount, int boardSize) {
+		this(playerName, BOARDS.take(bombCount, boardSize));
+	}
+
+	/**
+	 * Constructs object to play a board, which may already be part played
+	 * @param playerName Name of the human player
+	 * @param board Kablewie board to play
+	 */
+	public MainForm(String playerName, Board board) {
+		this(playerName, board, false);
+	}
+
+	/**
+	 * Constructs object to play a board, which may already be part played
+	 * @param playerName Name of the human player
+	 * @param board Kablewie board to play
+	 * @param noGuess Whether the board, and the boards of games after it,
+	 *                can be solved without guessing
+	 */
+	public MainForm(String playerName, Board board, boolean noGuess) {
 		super("Kablewie");
 
+		int bombCount = board.getBombCount();
+		int boardSize = board.getBoardSize();
+
 		// get form size
 		int boardLength = (boardSize * (Tile.TILE_LENGTH + Tile.PADDING))
 						  + Tile.PADDING;
@@ -47,6 +91,18 @@ public class MainForm extends JFrame {
 		m_playerName = playerName;
 		m_bombCount = bombCount;
 		m_boardSize = boardSize;
+		m_noGuess = noGuess;
+
+		// have the board of the next game ready by the end of this one
+		BOARDS.prepare(bombCount, boardSize, noGuess);
+
+		// record the game so it can be replayed
+		try {
+			m_journal = new GameJournal(JOURNAL_FILE, board);
+			board.setJournal(m_journal);
+		} catch (IOException e) {
+			System.err.println("Couldn't record game: " + e);
+		}
 		
 		// create content panel
 		JPanel panel = new JPanel(null);
@@ -61,7 +117,7 @@ public class MainForm extends JFrame {
 		panel.add(m_header);
 
 		//Create board display
-		m_board = new DisplayBoard(m_header, this, boardSize, bombCount);
+		m_board = new DisplayBoard(m_header, this, board);
 
 		// determine the board's x-coordinate
 		int boardX;
@@ -75,6 +131,15 @@ public class MainForm extends JFrame {
 		panel.add(m_board);
 
 		setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+
+		// keep an unfinished game so it can be resumed from the menu
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				saveCheckpoint();
+				closeJournal();
+			}
+		});
 	}
 	
 	/**
@@ -100,8 +165,58 @@ public class MainForm extends JFrame {
 		m_animation.start();
 		m_animation.setInitialDelay(0);
 		m_header.stopTimer();
+		m_gameOver = true;
+		closeJournal();
+
+		// a finished game can't be resumed
+		try {
+			Files.deleteIfExists(CHECKPOINT_FILE);
+		} catch (IOException e) {
+			System.err.println("Couldn't remove saved game: " + e);
+		}
 		
 	}
+
+	/**
+	 * Stops recording the game and writes out the rest of its journal
+	 */
+	private void closeJournal() {
+		if (m_journal == null) {
+			return;
+		}
+
+		m_board.getBoard().setJournal(null);
+
+		try {
+			m_journal.close();
+		} catch (IOException e) {
+			System.err.println("Couldn't record game: " + e);
+		}
+
+		m_journal = null;
+	}
+
+	/**
+	 * Saves the game to the checkpoint file, unless it is over
+	 */
+	private void saveCheckpoint() {
+		Board board = m_board.getBoard();
+
+		if (m_gameOver) {
+			return;
+		}
+
+		// a resumed game is already kept in the checkpoint file
+		try {
+			if (board.isKeptInFile()) {
+				board.flush();
+			} else {
+				board.save(CHECKPOINT_FILE);
+			}
+		} catch (IOException e) {
+			System.err.println("Couldn't save game: " + e);
+		}
+	}
 	
 	/**
 	* Prompts the user if they want to play again
@@ -126,12 +241,36 @@ public class MainForm extends JFrame {
 		dispose();
 		
 		if(answer == JOptionPane.YES_OPTION) {
-			MainForm newGame = new MainForm(m_playerName, m_bombCount,
-											m_boardSize);
+			MainForm newGame = new MainForm(m_playerName, nextBoard(),
+											m_noGuess);
 			newGame.setVisible(true);
 		} else {
 			System.exit(0);
 		}
 	}
 	
+	/**
+	 * Takes the board of the next game from the pool
+	 *
+	 * @return Board of the same config as this game
+	 */
+	private Board nextBoard() {
+		if (!m_noGuess) {
+			return BOARDS.take(m_bombCount, m_boardSize);
+		}
+
+		// the pool has had the whole game to find one, so this rarely waits
+		try {
+			Board board = BOARDS.takeNoGuess(m_bombCount, m_boardSize);
+
+			if (board != null) {
+				return board;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		return BOARDS.take(m_bombCount, m_boardSize);
+	}
+
 }
@@ -0,0 +1,142 @@
+/**
+ * @file MappedCellStore.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Holds the cells of a board in a memory-mapped file
+ */
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @class MappedCellStore
+ * @brief Holds the cells of a board in a memory-mapped file
+ *
+ * The file is the header fields followed by one byte per cell, so the
+ * operating system only pages in the parts of the board being played and
+ * every change is already in the file. Reopening the file maps it again
+ * with nothing to read in.
+ */
+class MappedCellStore implements CellStore {
+
+    // bytes taken by the header at the start of the file
+    static final int HEADER_BYTES = HEADER_FIELDS * Long.BYTES;
+
+    // the mapped file
+    private final MappedByteBuffer m_buffer;
+
+    // number of cells in the file
+    private final int m_size;
+
+    /**
+     * Constructs a store over a mapped file
+     *
+     * @param buffer Mapped file
+     * @param size Number of cells
+     */
+    private MappedCellStore(MappedByteBuffer buffer, int size) {
+        m_buffer = buffer;
+        m_size = size;
+    }
+
+    /**
+     * Creates a file of cleared cells, replacing any file already there
+     *
+     * @param file File to create
+     * @param size Number of cells
+     * @return Store over the file
+     * @throws IOException If the file can't be created or mapped
+     */
+    static MappedCellStore create(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            return new MappedCellStore(channel.map(
+                    FileChannel.MapMode.READ_WRITE, 0,
+                    (long) HEADER_BYTES + size), size);
+        }
+    }
+
+    /**
+     * Opens a file written by a store
+     *
+     * @param file File to open
+     * @return Store over the file
+     * @throws IOException If the file can't be mapped or is too short
+     */
+    static MappedCellStore open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            long size = channel.size() - HEADER_BYTES;
+
+            if ((size < 0) || (size > Integer.MAX_VALUE)) {
+                throw new IOException("Not a board file: " + file);
+            }
+
+            return new MappedCellStore(channel.map(
+                    FileChannel.MapMode.READ_WRITE, 0, channel.size()),
+                    (int) size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return m_size;
+    }
+
+    @Override
+    public byte get(int cell) {
+        return m_buffer.get(HEADER_BYTES + cell);
+    }
+
+    @Override
+    public void set(int cell, byte state) {
+        m_buffer.put(HEADER_BYTES + cell, state);
+    }
+
+    @Override
+    public long getHeader(int field) {
+        return m_buffer.getLong(field * Long.BYTES);
+    }
+
+    @Override
+    public void setHeader(int field, long value) {
+        m_buffer.putLong(field * Long.BYTES, value);
+    }
+
+    @Override
+    public void flush() {
+        m_buffer.force();
+    }
+
+    @Override
+    public void claimAll() {
+
+        // a file shares nothing, its snapshots are copies
+    }
+
+    @Override
+    public CellStore snapshot() {
+
+        // a file holds a single copy of the board, so snapshots are copied
+        // onto the heap
+        HeapCellStore copy = new HeapCellStore(size());
+
+        for (int field = 0; field < HEADER_FIELDS; field++) {
+            copy.setHeader(field, getHeader(field));
+        }
+
+        for (int cell = 0; cell < size(); cell++) {
+            copy.set(cell, get(cell));
+        }
+
+        return copy;
+    }
+}
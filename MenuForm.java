@@ -9,6 +9,9 @@
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
 
 /** 
  * @class MenuForm
@@ -30,6 +33,10 @@ public class MenuForm extends JFrame {
     private static final int BOMB_COUNT_INCREMENT = 1;
 	private static final int MAX_BOMBS = 150;
 
+    // Milliseconds the config must stay the same before a board of it is
+    // prepared
+    private static final int PREPARE_DELAY = 300;
+
     // MenuForm dimensions
     private static final int FORM_WIDTH = 600;
     private static final int FORM_HEIGHT = 400;
@@ -49,8 +56,15 @@ public class MenuForm extends JFrame {
             new Rectangle(300, 150, 200, 20);
     private static final Rectangle BOMB_COUNT_SPINNER_BOUNDS =
             new Rectangle(300, 200, 200, 20);
+    private static final Rectangle NO_GUESS_BOX_BOUNDS =
+            new Rectangle(300, 230, 200, 20);
     private static final Rectangle START_BUTTON_BOUNDS = 
             new Rectangle(225, 270, 150, 30);
+    private static final Rectangle RESUME_BUTTON_BOUNDS =
+            new Rectangle(225, 310, 150, 30);
+
+    // looks for a board in the background, or null if not looking
+    private SwingWorker<Board, Void> m_generating;
 
 	/**
 	* Constructs MenuForm
@@ -122,17 +136,118 @@ public class MenuForm extends JFrame {
                     Math.min((boardSize * boardSize) - 1, MAX_BOMBS), 1));
         });
 
+        // Setup no guessing check box
+        JCheckBox noGuessBox = new JCheckBox("No guessing");
+        noGuessBox.setBounds(NO_GUESS_BOX_BOUNDS);
+        form.add(noGuessBox);
+
+        // Have a board of the chosen config ready before start is pressed
+        Runnable prepareBoard = () -> {
+            int boardSize = (int) boardSizeSpinner.getValue();
+            int bombCount = (int) bombCountSpinner.getValue();
+
+            // the bomb count may not have been brought down to fit yet
+            if (bombCount < boardSize * boardSize) {
+                MainForm.BOARDS.prepare(bombCount, boardSize,
+                                        noGuessBox.isSelected());
+            }
+        };
+        prepareBoard.run();
+
+        // Wait for the config to settle, so stepping through a spinner
+        // doesn't start looking for a board at every step
+        Timer prepareTimer = new Timer(PREPARE_DELAY,
+                                       e -> prepareBoard.run());
+        prepareTimer.setRepeats(false);
+        boardSizeSpinner.addChangeListener(e -> prepareTimer.restart());
+        bombCountSpinner.addChangeListener(e -> prepareTimer.restart());
+        noGuessBox.addActionListener(e -> prepareTimer.restart());
+
         // Setup start button
         JButton startButton = new JButton("Start Game");
         startButton.setBounds(START_BUTTON_BOUNDS);
         form.add(startButton);
 
         startButton.addActionListener(e -> {
-            MainForm main = new MainForm(playerNameField.getText(),
-                                         (int) bombCountSpinner.getValue(),
-                                         (int) boardSizeSpinner.getValue());
-            setVisible(false);
-            main.setVisible(true);
+            String playerName = playerNameField.getText();
+            int bombCount = (int) bombCountSpinner.getValue();
+            int boardSize = (int) boardSizeSpinner.getValue();
+
+            // pressing the button while looking for a board cancels it
+            if (m_generating != null) {
+                m_generating.cancel(true);
+                return;
+            }
+
+            if (!noGuessBox.isSelected()) {
+                MainForm main = new MainForm(playerName, bombCount,
+                                             boardSize);
+                setVisible(false);
+                main.setVisible(true);
+                return;
+            }
+
+            // look for a board without guessing off the event thread
+            startButton.setText("Cancel");
+            m_generating = new SwingWorker<Board, Void>() {
+                @Override
+                protected Board doInBackground()
+                        throws InterruptedException {
+                    return MainForm.BOARDS.takeNoGuess(bombCount,
+                                                       boardSize);
+                }
+
+                @Override
+                protected void done() {
+                    m_generating = null;
+                    startButton.setText("Start Game");
+
+                    if (isCancelled()) {
+                        return;
+                    }
+
+                    try {
+                        Board board = get();
+
+                        if (board == null) {
+                            JOptionPane.showMessageDialog(MenuForm.this,
+                                    "Couldn't find a board without "
+                                    + "guessing, try fewer mines",
+                                    "Kablewie", JOptionPane.ERROR_MESSAGE);
+                            return;
+                        }
+
+                        MainForm main = new MainForm(playerName, board,
+                                                     true);
+                        setVisible(false);
+                        main.setVisible(true);
+                    } catch (InterruptedException | ExecutionException ex) {
+                        JOptionPane.showMessageDialog(MenuForm.this,
+                                "Couldn't create game: " + ex.getMessage(),
+                                "Kablewie", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            };
+            m_generating.execute();
+        });
+
+        // Setup resume button, for a game saved when its form was closed
+        JButton resumeButton = new JButton("Resume Game");
+        resumeButton.setBounds(RESUME_BUTTON_BOUNDS);
+        resumeButton.setEnabled(Files.exists(MainForm.CHECKPOINT_FILE));
+        form.add(resumeButton);
+
+        resumeButton.addActionListener(e -> {
+            try {
+                MainForm main = new MainForm(playerNameField.getText(),
+                                             Board.open(MainForm.CHECKPOINT_FILE));
+                setVisible(false);
+                main.setVisible(true);
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this,
+                        "Couldn't resume game: " + ex.getMessage(),
+                        "Kablewie", JOptionPane.ERROR_MESSAGE);
+            }
         });
 
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
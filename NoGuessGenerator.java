@@ -0,0 +1,192 @@
+/**
+ * @file NoGuessGenerator.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Finds boards that can be solved from the first click without
+ * guessing
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class NoGuessGenerator
+ * @brief Finds boards that can be solved from the first click without
+ * guessing
+ *
+ * A candidate board is placed with a safe first click in the middle, and
+ * the solver plays it from there using only the moves it is certain of. If
+ * the solver clears the board, it never had to guess, and neither does the
+ * player. Candidate n is placed with the seed plus n, and each thread of
+ * the pool tries every candidate numbered its own number plus a multiple
+ * of the number of threads. The first candidate found stops every thread
+ * from trying candidates after it, and the lowest found is the board
+ * given, so the same seed always gives the same board however many threads
+ * look for it.
+ *
+ * Looking can be cancelled by interrupting the thread waiting for the
+ * board, so it can be run by a SwingWorker without freezing a form.
+ */
+public class NoGuessGenerator implements AutoCloseable {
+
+    // most candidates to try before giving up
+    private static final long MAX_CANDIDATES = 1L << 16;
+
+    // holds the pool the candidates are tried on, and its size
+    private final ForkJoinPool m_pool;
+    private final int m_threads;
+
+    /**
+     * Constructs a generator using every processor
+     */
+    public NoGuessGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a generator
+     *
+     * @param threads Number of candidates to try at once
+     */
+    public NoGuessGenerator(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Invalid threads: " + threads);
+        }
+
+        m_pool = new ForkJoinPool(threads);
+        m_threads = threads;
+    }
+
+    /**
+     * Finds a board that can be solved without guessing, with a random
+     * seed
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @return Board with its middle tile revealed, or null if none was
+     *         found
+     * @throws InterruptedException If looking was cancelled
+     */
+    public Board generate(int bombCount, int boardSize)
+            throws InterruptedException {
+        return generate(bombCount, boardSize,
+                        new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Finds a board that can be solved without guessing, the same seed
+     * always gives the same board
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param seed Seed of the first candidate
+     * @return Board with its middle tile revealed, or null if none was
+     *         found
+     * @throws InterruptedException If looking was cancelled
+     */
+    public Board generate(int bombCount, int boardSize, long seed)
+            throws InterruptedException {
+        Board.checkSize(bombCount, boardSize);
+
+        AtomicLong found = new AtomicLong(MAX_CANDIDATES);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < m_threads; i++) {
+            int first = i;
+            tasks.add(m_pool.submit(() -> search(bombCount, boardSize, seed,
+                                                 first, found)));
+        }
+
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+
+            // stop every thread from trying another candidate
+            found.set(-1);
+            throw e;
+        } catch (ExecutionException e) {
+            found.set(-1);
+            throw new IllegalStateException(e.getCause());
+        }
+
+        if (found.get() == MAX_CANDIDATES) {
+            return null;
+        }
+
+        return candidate(bombCount, boardSize, seed + found.get());
+    }
+
+    /**
+     * Stops the threads looking for boards
+     */
+    @Override
+    public void close() {
+        m_pool.shutdown();
+    }
+
+    /**
+     * Gets whether the solver can clear a board without guessing
+     *
+     * @param board Board to solve, which is played to the end or until the
+     *              solver is stuck
+     * @return True if the solver cleared the board
+     */
+    static boolean isSolvable(Board board) {
+        Solver solver = new Solver(board);
+
+        while (!board.isWon() && !board.isLost()) {
+            long[] moves = solver.nextMoves();
+
+            if (moves.length == 0) {
+                return false;
+            }
+
+            board.applyBatch(moves);
+        }
+
+        return board.isWon();
+    }
+
+    /**
+     * Tries a thread's candidates until one can be solved or one before it
+     * has been found
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param seed Seed of the first candidate
+     * @param first First candidate to try
+     * @param found Lowest candidate found so far, or -1 if cancelled
+     */
+    private void search(int bombCount, int boardSize, long seed, long first,
+                        AtomicLong found) {
+        for (long i = first; i < found.get(); i += m_threads) {
+            if (isSolvable(candidate(bombCount, boardSize, seed + i))) {
+                found.accumulateAndGet(i, (a, b) -> (a < 0) ? a
+                                                            : Math.min(a, b));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Places a candidate board, with its middle tile revealed
+     *
+     * @param bombCount Number of bombs to place in board
+     * @param boardSize Width and height of board
+     * @param seed Seed to place bombs with
+     * @return Board to try
+     */
+    private static Board candidate(int bombCount, int boardSize, long seed) {
+        Board board = new Board(bombCount, boardSize, seed, true);
+        board.reveal(boardSize / 2, boardSize / 2);
+        return board;
+    }
+}
@@ -0,0 +1,394 @@
+/**
+ * @file ParallelFloodFill.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Opens up the area around a tile across several threads
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @class ParallelFloodFill
+ * @brief Opens up the area around a tile across several threads
+ *
+ * The board is split into square blocks. The fill runs in rounds: each
+ * block with tiles waiting to be opened is flooded by its own fork-join
+ * task, which stays inside the block and passes any tiles it reaches in
+ * the blocks around it on to the next round. Once a round passes nothing
+ * on, the tiles every block reached are revealed.
+ *
+ * The board isn't written to until the end, so the tasks only ever read
+ * cells. Each block notes the tiles it has reached in its own bitmap, and
+ * only one task works on a block in each round, so nothing is shared
+ * between tasks while they run.
+ */
+class ParallelFloodFill {
+
+    // default width and height of a block, as a power of two
+    private static final int DEFAULT_BLOCK_BITS = 8;
+
+    // holds the cells of the board, laid out as in Board
+    private final CellStore m_cells;
+
+    // holds the width and height of the board
+    private final int m_boardSize;
+
+    // holds the width and height of a block, as a power of two
+    private final int m_blockBits;
+
+    // holds the number of blocks across the board
+    private final int m_blocksAcross;
+
+    // holds the tiles each block has reached, or null if it hasn't been
+    private final long[][] m_reached;
+
+    // holds the tiles waiting to be flooded in each block
+    private final CellList[] m_waiting;
+
+    /**
+     * Constructs a fill with the default block size
+     *
+     * @param cells Cells of the board, laid out as in Board
+     * @param boardSize Width and height of the board
+     */
+    ParallelFloodFill(CellStore cells, int boardSize) {
+        this(cells, boardSize, DEFAULT_BLOCK_BITS);
+    }
+
+    /**
+     * Constructs a fill
+     *
+     * @param cells Cells of the board, laid out as in Board
+     * @param boardSize Width and height of the board
+     * @param blockBits Width and height of a block, as a power of two of at
+     *                  least three
+     */
+    ParallelFloodFill(CellStore cells, int boardSize, int blockBits) {
+        if ((blockBits < 3) || (blockBits > 15)) {
+            throw new IllegalArgumentException("Invalid blockBits: "
+                                               + blockBits);
+        }
+
+        m_cells = cells;
+        m_boardSize = boardSize;
+        m_blockBits = blockBits;
+        m_blocksAcross = ((boardSize - 1) >> blockBits) + 1;
+        m_reached = new long[m_blocksAcross * m_blocksAcross][];
+        m_waiting = new CellList[m_blocksAcross * m_blocksAcross];
+    }
+
+    /**
+     * Reveals the area around tiles with no adjacent bombs
+     *
+     * @param seeds Indices of hidden tiles with no adjacent bombs, which
+     *              the list is emptied of
+     * @param revealed List to add the newly revealed cells to
+     * @param maxListed Most cells to add to the list, none are added if
+     *                  more are revealed
+     * @return The number of cells revealed
+     */
+    int fill(CellList seeds, CellList revealed, int maxListed) {
+        List<BlockTask> tasks = new ArrayList<>();
+
+        while (seeds.size() > 0) {
+            pass(seeds.removeLast(), tasks);
+        }
+
+        while (!tasks.isEmpty()) {
+            ForkJoinTask.invokeAll(tasks);
+
+            // hand the tiles each block reached outside itself on to the
+            // blocks they are in
+            List<BlockTask> next = new ArrayList<>();
+
+            for (BlockTask task : tasks) {
+                for (int i = 0; i < task.m_passed.size(); i++) {
+                    pass(task.m_passed.get(i), next);
+                }
+            }
+
+            tasks = next;
+        }
+
+        return reveal(revealed, maxListed);
+    }
+
+    /**
+     * Queues a tile to be flooded by the block it is in
+     *
+     * @param cell Index of cell
+     * @param tasks List to add a task to if the block has none yet
+     */
+    private void pass(int cell, List<BlockTask> tasks) {
+        int block = blockOf(cell);
+
+        if (m_waiting[block] == null) {
+            m_waiting[block] = new CellList();
+            tasks.add(new BlockTask(block));
+        }
+
+        m_waiting[block].add(cell);
+    }
+
+    /**
+     * Reveals every tile the blocks reached
+     *
+     * @param revealed List to add the newly revealed cells to
+     * @param maxListed Most cells to add to the list, none are added if
+     *                  more are revealed
+     * @return The number of cells revealed
+     */
+    private int reveal(CellList revealed, int maxListed) {
+        int size = 1 << m_blockBits;
+        int total = 0;
+
+        for (long[] reached : m_reached) {
+            if (reached != null) {
+                for (long word : reached) {
+                    total += Long.bitCount(word);
+                }
+            }
+        }
+
+        boolean listed = (total <= maxListed);
+
+        if (listed) {
+            revealed.ensureCapacity(total);
+        }
+
+        for (int block = 0; block < m_reached.length; block++) {
+            long[] reached = m_reached[block];
+
+            if (reached == null) {
+                continue;
+            }
+
+            int top = (block / m_blocksAcross) << m_blockBits;
+            int left = (block % m_blocksAcross) << m_blockBits;
+
+            for (int i = 0; i < reached.length; i++) {
+                for (long word = reached[i]; word != 0; word &= word - 1) {
+                    int bit = (i << 6) + Long.numberOfTrailingZeros(word);
+                    int cell = ((top + (bit >> m_blockBits)) * m_boardSize)
+                               + left + (bit & (size - 1));
+
+                    m_cells.set(cell, (byte) (m_cells.get(cell)
+                                              | Board.REVEALED));
+
+                    if (listed) {
+                        revealed.add(cell);
+                    }
+                }
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Gets the block a cell is in
+     *
+     * @param cell Index of cell
+     * @return Index of block
+     */
+    private int blockOf(int cell) {
+        int x = cell / m_boardSize;
+        int y = cell - (x * m_boardSize);
+
+        return ((x >> m_blockBits) * m_blocksAcross) + (y >> m_blockBits);
+    }
+
+    /**
+     * @class BlockTask
+     * @brief Floods the tiles waiting in a single block
+     *
+     * The block is flooded a row span at a time, the same way as
+     * Board.fill, except spans stop at the edges of the block and tiles
+     * past them are passed on instead.
+     */
+    private final class BlockTask extends RecursiveAction {
+
+        // version of the serialized form
+        private static final long serialVersionUID = 1L;
+
+        // holds the block being flooded
+        private final int m_block;
+
+        // holds the tiles reached outside the block
+        private final CellList m_passed;
+
+        // holds the tiles reached in the block
+        private long[] m_reachedTiles;
+
+        // holds the first and last row and column of the block
+        private int m_top;
+        private int m_bottom;
+        private int m_left;
+        private int m_right;
+
+        /**
+         * Constructs a task
+         *
+         * @param block Index of block
+         */
+        BlockTask(int block) {
+            m_block = block;
+            m_passed = new CellList();
+        }
+
+        /**
+         * Floods the block from its waiting tiles, without leaving it
+         */
+        @Override
+        protected void compute() {
+            CellList waiting = m_waiting[m_block];
+
+            m_waiting[m_block] = null;
+            m_top = (m_block / m_blocksAcross) << m_blockBits;
+            m_left = (m_block % m_blocksAcross) << m_blockBits;
+            m_bottom = Math.min(m_top + (1 << m_blockBits), m_boardSize) - 1;
+            m_right = Math.min(m_left + (1 << m_blockBits), m_boardSize) - 1;
+
+            if (m_reached[m_block] == null) {
+                m_reached[m_block] = new long[1 << ((2 * m_blockBits) - 6)];
+            }
+
+            m_reachedTiles = m_reached[m_block];
+
+            while (waiting.size() > 0) {
+                int cell = waiting.removeLast();
+                int x = cell / m_boardSize;
+                int y = cell - (x * m_boardSize);
+                int state = m_cells.get(cell);
+
+                if (isReached(x, y)
+                        || ((state & (Board.DIFFUSED | Board.REVEALED)) != 0)) {
+                    continue;
+                }
+
+                markReached(x, y);
+
+                // only tiles with no adjacent bombs open up their neighbours
+                if ((state & (Board.BOMB | Board.ADJACENT_MASK)) != 0) {
+                    continue;
+                }
+
+                // extend the span in both directions, up to the block edges
+                int row = x * m_boardSize;
+                int start = y;
+                int end = y;
+
+                while ((start > m_left) && isOpenable(x, start - 1,
+                                                      row + start - 1)) {
+                    markReached(x, --start);
+                }
+
+                while ((end < m_right) && isOpenable(x, end + 1,
+                                                     row + end + 1)) {
+                    markReached(x, ++end);
+                }
+
+                // the tiles bordering the span are at most one tile either
+                // side of it
+                int from = Math.max(start - 1, 0);
+                int to = Math.min(end + 1, m_boardSize - 1);
+
+                if (x > 0) {
+                    reachSpan(x - 1, from, to, waiting);
+                }
+
+                reachSpan(x, from, from, waiting);
+                reachSpan(x, to, to, waiting);
+
+                if (x < m_boardSize - 1) {
+                    reachSpan(x + 1, from, to, waiting);
+                }
+            }
+        }
+
+        /**
+         * Reaches the hidden tiles in part of a row, passing on any outside
+         * the block
+         *
+         * @param x Row of the span
+         * @param from First column of the span
+         * @param to Last column of the span
+         * @param waiting List to add the start of each hidden run of tiles
+         *                with no adjacent bombs to, so its span gets
+         *                extended
+         */
+        private void reachSpan(int x, int from, int to, CellList waiting) {
+            boolean inRun = false;
+
+            for (int y = from; y <= to; y++) {
+                int cell = (x * m_boardSize) + y;
+
+                if ((x < m_top) || (x > m_bottom) || (y < m_left)
+                        || (y > m_right)) {
+                    m_passed.add(cell);
+                    inRun = false;
+                    continue;
+                }
+
+                int state = m_cells.get(cell);
+
+                if (isReached(x, y)
+                        || ((state & (Board.DIFFUSED | Board.REVEALED)) != 0)) {
+                    inRun = false;
+                } else if ((state & (Board.BOMB | Board.ADJACENT_MASK)) == 0) {
+                    if (!inRun) {
+                        waiting.add(cell);
+                        inRun = true;
+                    }
+                } else {
+                    markReached(x, y);
+                    inRun = false;
+                }
+            }
+        }
+
+        /**
+         * Gets whether a tile in the block is hidden, not diffused, has no
+         * adjacent bombs and hasn't been reached
+         *
+         * @param x X coordinate of tile
+         * @param y Y coordinate of tile
+         * @param cell Index of cell
+         * @return True if the tile can be opened
+         */
+        private boolean isOpenable(int x, int y, int cell) {
+            return ((m_cells.get(cell) & (Board.BOMB | Board.ADJACENT_MASK
+                                          | Board.DIFFUSED | Board.REVEALED))
+                    == 0) && !isReached(x, y);
+        }
+
+        /**
+         * Gets whether a tile in the block has been reached
+         *
+         * @param x X coordinate of tile
+         * @param y Y coordinate of tile
+         * @return True if the tile has been reached
+         */
+        private boolean isReached(int x, int y) {
+            int bit = ((x - m_top) << m_blockBits) | (y - m_left);
+
+            return (m_reachedTiles[bit >> 6] & (1L << bit)) != 0;
+        }
+
+        /**
+         * Marks a tile in the block as reached
+         *
+         * @param x X coordinate of tile
+         * @param y Y coordinate of tile
+         */
+        private void markReached(int x, int y) {
+            int bit = ((x - m_top) << m_blockBits) | (y - m_left);
+
+            m_reachedTiles[bit >> 6] |= 1L << bit;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * @file PatternCache.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Remembers what the solver found around patterns of tiles
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * @class PatternCache
+ * @brief Remembers what the solver found around patterns of tiles
+ *
+ * Comparing a number with the numbers around it depends only on the 7x7
+ * tiles centred on it, so the same small patterns, such as a 1-2-1 along
+ * a wall, keep being worked out again. A pattern is hashed by giving each
+ * tile class at each position of the window a random 64 bit key and
+ * combining the keys of the window with xor, and the cache keeps what was
+ * found for each hash, including finding nothing, which is most common.
+ *
+ * The cache holds a fixed number of patterns and forgets the one least
+ * recently used to make room. It can be shared by the solvers of many
+ * boards, and counts its hits and misses so its size can be tuned.
+ */
+public class PatternCache {
+
+    // width of the window around a number, and how far it reaches
+    static final int WINDOW = 7;
+    static final int REACH = WINDOW / 2;
+
+    // classes of tile in a window, a number that needs n more bombs is
+    // NEEDS + n
+    static final int SETTLED = 0;
+    static final int UNKNOWN = 1;
+    static final int NEEDS = 2;
+    private static final int CLASSES = NEEDS + 9;
+
+    // default number of patterns kept
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    // random keys of each class at each position, the same every run so
+    // hashes can be compared between runs
+    private static final long[][] KEYS = new long[WINDOW * WINDOW][CLASSES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5A0B2157L);
+
+        for (long[] position : KEYS) {
+            for (int c = 0; c < CLASSES; c++) {
+                position[c] = random.nextLong();
+            }
+        }
+    }
+
+    // holds what was found for each pattern, least recently used first
+    private final Map<Long, long[]> m_patterns;
+
+    // holds the counts of lookups
+    private long m_hits;
+    private long m_misses;
+    private long m_evictions;
+
+    /**
+     * Constructs a cache holding the default number of patterns
+     */
+    public PatternCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a cache
+     *
+     * @param capacity Most patterns to hold
+     */
+    public PatternCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: "
+                                               + capacity);
+        }
+
+        m_patterns = new LinkedHashMap<Long, long[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> e) {
+                if (size() > capacity) {
+                    m_evictions++;
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the key of a tile class at a position in the window
+     *
+     * @param dx Row of the tile relative to the centre
+     * @param dy Column of the tile relative to the centre
+     * @param tileClass Class of the tile
+     * @return Key to combine into the hash
+     */
+    static long key(int dx, int dy, int tileClass) {
+        return KEYS[((dx + REACH) * WINDOW) + dy + REACH][tileClass];
+    }
+
+    /**
+     * Gets the bit standing for a position in the window
+     *
+     * @param dx Row of the tile relative to the centre
+     * @param dy Column of the tile relative to the centre
+     * @return Index of the bit
+     */
+    static int bit(int dx, int dy) {
+        return ((dx + REACH) * WINDOW) + dy + REACH;
+    }
+
+    /**
+     * Gets what was found for a pattern
+     *
+     * @param hash Hash of the pattern
+     * @return The tiles found safe and the tiles found to be bombs, as bits
+     *         of the window, or null if the pattern isn't held
+     */
+    synchronized long[] get(long hash) {
+        long[] found = m_patterns.get(hash);
+
+        if (found != null) {
+            m_hits++;
+        } else {
+            m_misses++;
+        }
+
+        return found;
+    }
+
+    /**
+     * Keeps what was found for a pattern
+     *
+     * @param hash Hash of the pattern
+     * @param safe Tiles found safe, as bits of the window
+     * @param bombs Tiles found to be bombs, as bits of the window
+     */
+    synchronized void put(long hash, long safe, long bombs) {
+        m_patterns.put(hash, new long[] {safe, bombs});
+    }
+
+    /**
+     * Gets the number of patterns held
+     *
+     * @return Number of patterns
+     */
+    public synchronized int size() {
+        return m_patterns.size();
+    }
+
+    /**
+     * Gets the number of lookups that found their pattern
+     *
+     * @return Number of hits
+     */
+    public synchronized long getHits() {
+        return m_hits;
+    }
+
+    /**
+     * Gets the number of lookups that didn't find their pattern
+     *
+     * @return Number of misses
+     */
+    public synchronized long getMisses() {
+        return m_misses;
+    }
+
+    /**
+     * Gets the number of patterns forgotten to make room
+     *
+     * @return Number of evictions
+     */
+    public synchronized long getEvictions() {
+        return m_evictions;
+    }
+
+    /**
+     * Gets the share of lookups that found their pattern
+     *
+     * @return Hit rate from 0 to 1, or 0 before any lookups
+     */
+    public synchronized double getHitRate() {
+        long lookups = m_hits + m_misses;
+        return (lookups == 0) ? 0 : ((double) m_hits / lookups);
+    }
+
+    /**
+     * Clears the counts of lookups, keeping the patterns
+     */
+    public synchronized void resetStatistics() {
+        m_hits = 0;
+        m_misses = 0;
+        m_evictions = 0;
+    }
+}
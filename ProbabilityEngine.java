@@ -0,0 +1,788 @@
+/**
+ * @file ProbabilityEngine.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Works out the chance of each hidden tile of a board being a bomb
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @class ProbabilityEngine
+ * @brief Works out the chance of each hidden tile of a board being a bomb
+ *
+ * The unknown tiles next to revealed numbers make up the frontier. Tiles
+ * that share a number depend on each other, so the frontier splits into
+ * components that don't. Each component has every way of placing bombs in
+ * it that satisfies its numbers counted, by placing a tile at a time and
+ * backing out as soon as a number can't be met, noting how many of the
+ * ways put k bombs in the component and how many of those put a bomb in
+ * each tile.
+ *
+ * The components are then weighed against each other and against the
+ * unknown tiles away from the frontier: a way of placing s bombs on the
+ * frontier leaves the rest to be placed among the other tiles, which can
+ * happen C(other tiles, bombs left - s) ways. Summing over every s gives
+ * the exact chance of each tile being a bomb.
+ *
+ * Components are counted in parallel on the common fork-join pool, and a
+ * component whose numbers are unchanged since the last time is not counted
+ * again. A component too large to count in reasonable time is treated as
+ * tiles away from the frontier, and the chances are no longer exact. The
+ * counting can be cancelled part way, which leaves the chances as they
+ * were.
+ */
+public class ProbabilityEngine {
+
+    // largest component that gets counted
+    private static final int MAX_COMPONENT_TILES = 64;
+
+    // most placements to try in a component before giving up on it
+    private static final long MAX_STEPS = 1L << 24;
+
+    // placements tried between checks for cancelling, less one
+    private static final long CANCEL_CHECK_MASK = (1L << 12) - 1;
+
+    // holds the board and the solver that found the certain tiles
+    private final Board m_board;
+    private final Solver m_solver;
+
+    // holds the components counted last time, by their numbers
+    private Map<Key, Component> m_cache;
+
+    // holds the chance of each frontier tile being a bomb
+    private final Map<Integer, Double> m_chances;
+
+    // holds the chance of a tile away from the frontier being a bomb
+    private double m_otherChance;
+
+    // holds whether every component was counted
+    private boolean m_exact;
+
+    /**
+     * Constructs an engine for a board
+     *
+     * @param board Board to work out chances for
+     * @param solver Solver of the board, which must be up to date
+     */
+    public ProbabilityEngine(Board board, Solver solver) {
+        m_board = board;
+        m_solver = solver;
+        m_cache = new HashMap<>();
+        m_chances = new HashMap<>();
+        m_otherChance = Double.NaN;
+        m_exact = true;
+    }
+
+    /**
+     * Works out the chances for the board as it is now, the solver must
+     * have been run since the last move
+     */
+    public void update() {
+        update(() -> false);
+    }
+
+    /**
+     * Works out the chances for the board as it is now, unless cancelled
+     * first, the solver must have been run since the last move
+     *
+     * @param cancelled Checked between components and every few thousand
+     *                  placements while counting, from any thread
+     * @return True if the chances were worked out, false if cancelled, which
+     *         leaves the chances as they were
+     */
+    public boolean update(BooleanSupplier cancelled) {
+        List<Component> components = findComponents();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        Map<Key, Component> cache = new HashMap<>();
+
+        // count the components that have changed
+        for (int i = 0; i < components.size(); i++) {
+            Component component = components.get(i);
+            Component cached = m_cache.get(component.m_key);
+
+            if (cached != null) {
+                components.set(i, cached);
+            } else {
+                tasks.add(new CountTask(component, cancelled));
+            }
+
+            cache.put(components.get(i).m_key, components.get(i));
+        }
+
+        ForkJoinTask.invokeAll(tasks);
+
+        // a component left part counted mustn't be kept as too large
+        if (cancelled.getAsBoolean()) {
+            return false;
+        }
+
+        m_cache = cache;
+        combine(components);
+        return true;
+    }
+
+    /**
+     * Gets the chance of a tile being a bomb, as of the last update
+     *
+     * @param cell Index of cell
+     * @return Chance from 0 to 1, or NaN for a tile away from the frontier
+     *         when there are no unknown tiles away from it
+     */
+    public double getChance(int cell) {
+        int state = m_board.getState(cell);
+
+        if ((state & Board.REVEALED) != 0) {
+            return ((state & Board.BOMB) != 0) ? 1 : 0;
+        }
+
+        if (m_solver.isKnownBomb(cell)) {
+            return 1;
+        }
+
+        if (m_solver.isKnownSafe(cell)) {
+            return 0;
+        }
+
+        Double chance = m_chances.get(cell);
+        return (chance != null) ? chance : m_otherChance;
+    }
+
+    /**
+     * Gets whether a tile is on the frontier, as of the last update
+     *
+     * @param cell Index of cell
+     * @return True if the tile is next to a revealed number and unknown
+     */
+    public boolean isFrontier(int cell) {
+        return m_chances.containsKey(cell);
+    }
+
+    /**
+     * Gets the chance of an unknown tile away from the frontier being a
+     * bomb, as of the last update
+     *
+     * @return Chance from 0 to 1, or NaN if there are no such tiles
+     */
+    public double getOtherChance() {
+        return m_otherChance;
+    }
+
+    /**
+     * Gets the frontier tile least likely to be a bomb, as of the last
+     * update
+     *
+     * @return Index of cell, or -1 if the frontier is empty
+     */
+    public int getSafestFrontierCell() {
+        int best = -1;
+        double bestChance = 2;
+
+        for (Map.Entry<Integer, Double> entry : m_chances.entrySet()) {
+            if ((entry.getValue() < bestChance)
+                    || ((entry.getValue() == bestChance)
+                        && (entry.getKey() < best))) {
+                best = entry.getKey();
+                bestChance = entry.getValue();
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Gets whether the last update counted every component
+     *
+     * @return True if the chances are exact, false otherwise
+     */
+    public boolean isExact() {
+        return m_exact;
+    }
+
+    /**
+     * Splits the unknown tiles around the solver's frontier into components
+     * that share no numbers
+     *
+     * @return The components, not yet counted
+     */
+    private List<Component> findComponents() {
+        Map<Integer, Integer> parents = new HashMap<>();
+        List<int[]> numbers = new ArrayList<>();
+        int[] unknown = new int[8];
+
+        // join the tiles around each number into one set
+        for (int cell = m_solver.nextFrontier(0); cell >= 0;
+             cell = m_solver.nextFrontier(cell + 1)) {
+            int count = m_solver.getUnknown(cell, unknown);
+
+            if (count <= 0) {
+                continue;
+            }
+
+            int[] number = new int[count + 2];
+            number[0] = cell;
+            number[1] = m_solver.getNeeded(cell);
+            System.arraycopy(unknown, 0, number, 2, count);
+            numbers.add(number);
+
+            for (int i = 0; i < count; i++) {
+                parents.putIfAbsent(unknown[i], unknown[i]);
+                union(parents, unknown[0], unknown[i]);
+            }
+        }
+
+        // group the numbers by the set their tiles are in
+        Map<Integer, List<int[]>> groups = new HashMap<>();
+
+        for (int[] number : numbers) {
+            groups.computeIfAbsent(find(parents, number[2]),
+                                   root -> new ArrayList<>()).add(number);
+        }
+
+        List<Component> components = new ArrayList<>();
+
+        for (List<int[]> group : groups.values()) {
+            components.add(new Component(group));
+        }
+
+        return components;
+    }
+
+    /**
+     * Weighs the components against each other and the tiles away from the
+     * frontier, and stores the chance of each tile
+     *
+     * @param components Counted components
+     */
+    private void combine(List<Component> components) {
+        List<Component> counted = new ArrayList<>();
+        int frontier = 0;
+        int uncounted = 0;
+
+        m_chances.clear();
+
+        for (Component component : components) {
+            if (component.m_ways == null) {
+                uncounted += component.m_cells.length;
+            } else {
+                counted.add(component);
+                frontier += component.m_cells.length;
+            }
+        }
+
+        m_exact = (uncounted == 0);
+
+        int left = m_board.getBombCount() - m_solver.getKnownBombCount();
+        int other = m_board.getHidden() - m_solver.getKnownBombCount()
+                    - m_solver.getKnownSafeCount() - frontier;
+        double[] weights = weights(other, left, Math.min(frontier, left));
+
+        // the ways of placing s bombs in every component but one
+        int size = counted.size();
+        double[][] before = new double[size + 1][];
+        double[][] after = new double[size + 1][];
+
+        before[0] = new double[] {1};
+        after[size] = new double[] {1};
+
+        for (int i = 0; i < size; i++) {
+            before[i + 1] = convolve(before[i], counted.get(i).m_ways,
+                                     weights.length);
+        }
+
+        for (int i = size - 1; i >= 0; i--) {
+            after[i] = convolve(counted.get(i).m_ways, after[i + 1],
+                                weights.length);
+        }
+
+        for (int i = 0; i < size; i++) {
+            Component component = counted.get(i);
+            double[] rest = convolve(before[i], after[i + 1], weights.length);
+            double total = 0;
+            double[] bombs = new double[component.m_cells.length];
+
+            for (int k = 0; k < component.m_ways.length; k++) {
+                double weight = 0;
+
+                for (int s = 0; (s < rest.length) && (s + k < weights.length);
+                     s++) {
+                    weight += rest[s] * weights[s + k];
+                }
+
+                total += component.m_ways[k] * weight;
+
+                for (int j = 0; j < bombs.length; j++) {
+                    bombs[j] += component.m_bombs[k][j] * weight;
+                }
+            }
+
+            for (int j = 0; j < bombs.length; j++) {
+                m_chances.put(component.m_cells[j],
+                              (total > 0) ? (bombs[j] / total) : 0);
+            }
+        }
+
+        // tiles away from the frontier share what the frontier leaves
+        double total = 0;
+        double bombs = 0;
+
+        for (int s = 0; (s < before[size].length) && (s < weights.length);
+             s++) {
+            total += before[size][s] * weights[s];
+            bombs += before[size][s] * weights[s] * (left - s);
+        }
+
+        m_otherChance = (other > 0) && (total > 0) ? bombs / total / other
+                                                   : Double.NaN;
+
+        for (Component component : components) {
+            if (component.m_ways == null) {
+                for (int cell : component.m_cells) {
+                    m_chances.put(cell, m_otherChance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the relative number of ways of placing the bombs left off the
+     * frontier, for each number of bombs on the frontier
+     *
+     * @param other Number of unknown tiles off the frontier
+     * @param left Number of bombs not yet found
+     * @param most Most bombs the frontier can hold
+     * @return C(other, left - s) for each s, scaled so the largest is 1
+     */
+    private static double[] weights(int other, int left, int most) {
+        double[] logs = new double[Math.max(most, 0) + 1];
+        double max = Double.NEGATIVE_INFINITY;
+
+        // C(other, left - s) / C(other, left - s + 1) is
+        // (left - s + 1) / (other - left + s)
+        for (int s = 0; s < logs.length; s++) {
+            int off = left - s;
+
+            if ((off < 0) || (off > other)) {
+                logs[s] = Double.NEGATIVE_INFINITY;
+            } else if ((s == 0) || (logs[s - 1] == Double.NEGATIVE_INFINITY)) {
+                logs[s] = 0;
+            } else {
+                logs[s] = logs[s - 1] + Math.log(off + 1.0)
+                          - Math.log(other - off);
+            }
+
+            max = Math.max(max, logs[s]);
+        }
+
+        double[] weights = new double[logs.length];
+
+        for (int s = 0; s < logs.length; s++) {
+            weights[s] = Math.exp(logs[s] - max);
+        }
+
+        return weights;
+    }
+
+    /**
+     * Convolves two distributions of bomb counts, scaling the result so
+     * its largest entry is 1
+     *
+     * @param first Ways of placing each number of bombs
+     * @param second Ways of placing each number of bombs
+     * @param limit Most entries to keep
+     * @return Ways of placing each number of bombs in both
+     */
+    private static double[] convolve(double[] first, double[] second,
+                                     int limit) {
+        double[] result = new double[Math.max(Math.min(
+                first.length + second.length - 1, limit), 1)];
+        double max = 0;
+
+        for (int i = 0; i < first.length; i++) {
+            for (int j = 0; (j < second.length) && (i + j < result.length);
+                 j++) {
+                result[i + j] += first[i] * second[j];
+            }
+        }
+
+        for (double ways : result) {
+            max = Math.max(max, ways);
+        }
+
+        if (max > 0) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] /= max;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the root of a tile's set
+     *
+     * @param parents Parent of each tile
+     * @param cell Index of cell
+     * @return Index of the root
+     */
+    private static int find(Map<Integer, Integer> parents, int cell) {
+        int root = cell;
+
+        while (parents.get(root) != root) {
+            root = parents.get(root);
+        }
+
+        // point every tile on the way straight at the root
+        while (cell != root) {
+            int parent = parents.get(cell);
+            parents.put(cell, root);
+            cell = parent;
+        }
+
+        return root;
+    }
+
+    /**
+     * Joins the sets of two tiles
+     *
+     * @param parents Parent of each tile
+     * @param first Index of a cell
+     * @param second Index of another cell
+     */
+    private static void union(Map<Integer, Integer> parents, int first,
+                              int second) {
+        int a = find(parents, first);
+        int b = find(parents, second);
+
+        if (a != b) {
+            parents.put(Math.max(a, b), Math.min(a, b));
+        }
+    }
+
+    /**
+     * @class Key
+     * @brief Identifies a component by its numbers and their tiles
+     */
+    private static final class Key {
+        private final int[] m_numbers;
+        private final int m_hash;
+
+        /**
+         * Constructs a key
+         *
+         * @param numbers Each number's cell, bombs needed, tile count and
+         *                tiles, one after another in order of cell
+         */
+        Key(int[] numbers) {
+            m_numbers = numbers;
+            m_hash = Arrays.hashCode(numbers);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return (other instanceof Key)
+                   && Arrays.equals(m_numbers, ((Key) other).m_numbers);
+        }
+
+        @Override
+        public int hashCode() {
+            return m_hash;
+        }
+    }
+
+    /**
+     * @class Component
+     * @brief Tiles of the frontier that share numbers, and their counts
+     */
+    private static final class Component {
+
+        // holds what identifies the component
+        private final Key m_key;
+
+        // holds the tiles in ascending order
+        private final int[] m_cells;
+
+        // holds the tiles of each number, as indexes into m_cells, and the
+        // bombs each number needs
+        private final int[][] m_numberCells;
+        private final int[] m_needed;
+
+        // holds the ways of placing k bombs, and how many of those put a
+        // bomb on each tile, or null if the component wasn't counted
+        private double[] m_ways;
+        private double[][] m_bombs;
+
+        /**
+         * Constructs a component from its numbers
+         *
+         * @param numbers Each number's cell, bombs needed and tiles
+         */
+        Component(List<int[]> numbers) {
+            numbers.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+            m_cells = numbers.stream()
+                             .flatMapToInt(n -> Arrays.stream(n, 2, n.length))
+                             .distinct().sorted().toArray();
+            m_numberCells = new int[numbers.size()][];
+            m_needed = new int[numbers.size()];
+
+            int length = 0;
+
+            for (int[] number : numbers) {
+                length += number.length + 1;
+            }
+
+            int[] key = new int[length];
+            int at = 0;
+
+            for (int i = 0; i < numbers.size(); i++) {
+                int[] number = numbers.get(i);
+
+                m_needed[i] = number[1];
+                m_numberCells[i] = new int[number.length - 2];
+
+                for (int j = 2; j < number.length; j++) {
+                    m_numberCells[i][j - 2] = Arrays.binarySearch(m_cells,
+                                                                  number[j]);
+                }
+
+                key[at++] = number[0];
+                key[at++] = number[1];
+                key[at++] = number.length - 2;
+                System.arraycopy(number, 2, key, at, number.length - 2);
+                at += number.length - 2;
+            }
+
+            m_key = new Key(key);
+        }
+    }
+
+    /**
+     * @class CountTask
+     * @brief Counts the ways of placing bombs in a component
+     */
+    private static final class CountTask extends RecursiveAction {
+
+        // version of the serialized form
+        private static final long serialVersionUID = 1L;
+
+        // holds the component being counted
+        private final Component m_component;
+
+        // holds the check for cancelling
+        private final BooleanSupplier m_cancelled;
+
+        // holds the numbers each tile is next to
+        private int[][] m_tileNumbers;
+
+        // holds the order the tiles are placed in
+        private int[] m_order;
+
+        // holds the bombs placed and the tiles left around each number
+        private int[] m_placed;
+        private int[] m_open;
+
+        // holds whether each tile has a bomb in the current placement
+        private boolean[] m_bomb;
+
+        // holds the counts so far and the steps taken
+        private double[] m_ways;
+        private double[][] m_bombs;
+        private long m_steps;
+
+        /**
+         * Constructs a task
+         *
+         * @param component Component to count
+         * @param cancelled Check for cancelling
+         */
+        CountTask(Component component, BooleanSupplier cancelled) {
+            m_component = component;
+            m_cancelled = cancelled;
+        }
+
+        /**
+         * Counts every placement, leaving the component uncounted if it is
+         * too large
+         */
+        @Override
+        protected void compute() {
+            Component component = m_component;
+            int tiles = component.m_cells.length;
+
+            if ((tiles > MAX_COMPONENT_TILES) || m_cancelled.getAsBoolean()) {
+                return;
+            }
+
+            int[] sizes = new int[tiles];
+
+            for (int[] cells : component.m_numberCells) {
+                for (int tile : cells) {
+                    sizes[tile]++;
+                }
+            }
+
+            m_tileNumbers = new int[tiles][];
+
+            for (int tile = 0; tile < tiles; tile++) {
+                m_tileNumbers[tile] = new int[sizes[tile]];
+                sizes[tile] = 0;
+            }
+
+            for (int n = 0; n < component.m_numberCells.length; n++) {
+                for (int tile : component.m_numberCells[n]) {
+                    m_tileNumbers[tile][sizes[tile]++] = n;
+                }
+            }
+
+            m_order = order();
+            m_placed = new int[component.m_needed.length];
+            m_open = new int[component.m_needed.length];
+            m_bomb = new boolean[tiles];
+            m_ways = new double[tiles + 1];
+            m_bombs = new double[tiles + 1][tiles];
+            m_steps = 0;
+
+            for (int n = 0; n < m_open.length; n++) {
+                m_open[n] = component.m_numberCells[n].length;
+            }
+
+            if (place(0, 0)) {
+                component.m_ways = m_ways;
+                component.m_bombs = m_bombs;
+            }
+        }
+
+        /**
+         * Gets an order to place the tiles in, visiting tiles that share
+         * numbers one after another so dead ends are found early
+         *
+         * @return Tiles in the order to place them
+         */
+        private int[] order() {
+            int tiles = m_component.m_cells.length;
+            int[] order = new int[tiles];
+            boolean[] queued = new boolean[tiles];
+            int head = 0;
+            int tail = 0;
+
+            for (int start = 0; start < tiles; start++) {
+                if (queued[start]) {
+                    continue;
+                }
+
+                queued[start] = true;
+                order[tail++] = start;
+
+                while (head < tail) {
+                    int tile = order[head++];
+
+                    for (int n : m_tileNumbers[tile]) {
+                        for (int next : m_component.m_numberCells[n]) {
+                            if (!queued[next]) {
+                                queued[next] = true;
+                                order[tail++] = next;
+                            }
+                        }
+                    }
+                }
+            }
+
+            return order;
+        }
+
+        /**
+         * Places the tiles from a point in the order on, in every way that
+         * can still satisfy the numbers
+         *
+         * @param at Position in the order of the next tile to place
+         * @param count Bombs placed so far
+         * @return False if it took too many steps or was cancelled, true
+         *         otherwise
+         */
+        private boolean place(int at, int count) {
+            if (++m_steps > MAX_STEPS) {
+                return false;
+            }
+
+            if (((m_steps & CANCEL_CHECK_MASK) == 0)
+                    && m_cancelled.getAsBoolean()) {
+                return false;
+            }
+
+            if (at == m_order.length) {
+                m_ways[count]++;
+
+                for (int tile = 0; tile < m_bomb.length; tile++) {
+                    if (m_bomb[tile]) {
+                        m_bombs[count][tile]++;
+                    }
+                }
+
+                return true;
+            }
+
+            int tile = m_order[at];
+
+            for (int bomb = 0; bomb <= 1; bomb++) {
+                if (fits(tile, bomb)) {
+                    set(tile, bomb, 1);
+
+                    boolean finished = place(at + 1, count + bomb);
+
+                    set(tile, bomb, -1);
+
+                    if (!finished) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Gets whether a tile can be placed without breaking a number
+         *
+         * @param tile Tile to place
+         * @param bomb 1 to place a bomb, 0 otherwise
+         * @return True if every number it is next to can still be met
+         */
+        private boolean fits(int tile, int bomb) {
+            for (int n : m_tileNumbers[tile]) {
+                int placed = m_placed[n] + bomb;
+                int needed = m_component.m_needed[n];
+
+                if ((placed > needed) || (placed + m_open[n] - 1 < needed)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Places or removes a tile
+         *
+         * @param tile Tile to place
+         * @param bomb 1 for a bomb, 0 otherwise
+         * @param change 1 to place the tile, -1 to remove it
+         */
+        private void set(int tile, int bomb, int change) {
+            m_bomb[tile] = (change > 0) && (bomb == 1);
+
+            for (int n : m_tileNumbers[tile]) {
+                m_placed[n] += bomb * change;
+                m_open[n] -= change;
+            }
+        }
+    }
+}
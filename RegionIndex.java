@@ -0,0 +1,328 @@
+/**
+ * @file RegionIndex.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Indexes the areas a single click opens up on a board
+ */
+
+import java.util.Arrays;
+
+/**
+ * @class RegionIndex
+ * @brief Indexes the areas a single click opens up on a board
+ *
+ * A region is a connected group of tiles with no adjacent bombs, along
+ * with the numbered tiles bordering it, which is exactly what revealing
+ * any of its empty tiles opens up. Every empty tile stores the id of its
+ * region, and the tiles of each region are stored one region after
+ * another in a single array, so a region can be revealed by walking its
+ * tiles without looking at any neighbours.
+ */
+class RegionIndex {
+
+    // steps to each of the eight neighbours of a tile
+    private static final int[] ROW_STEPS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COLUMN_STEPS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    // region of each cell plus one, or zero if the cell is not empty
+    private final int[] m_regionOf;
+
+    // tiles of each region, region r running from m_starts[r] up to
+    // m_starts[r + 1]
+    private final int[] m_starts;
+    private final int[] m_members;
+
+    /**
+     * Labels every region of a board
+     *
+     * The empty tiles are labelled in two passes over the board, joining
+     * touching labels with a union-find. The tiles of each region are then
+     * counted and filled in board order, so each region's tiles end up
+     * roughly sorted.
+     *
+     * @param cells Cells of the board, laid out as in Board
+     * @param boardSize Width and height of the board
+     */
+    RegionIndex(CellStore cells, int boardSize) {
+        int[] regionOf = new int[cells.size()];
+        int[] parent = new int[16];
+        int labels = 0;
+
+        // give every empty tile the label of the empty tiles before it, or
+        // a new one
+        for (int x = 0; x < boardSize; x++) {
+            for (int y = 0; y < boardSize; y++) {
+                int cell = (x * boardSize) + y;
+
+                if (!isEmpty(cells.get(cell))) {
+                    continue;
+                }
+
+                int label = 0;
+
+                if (y > 0) {
+                    label = join(parent, label, regionOf[cell - 1]);
+                }
+
+                if (x > 0) {
+                    int above = cell - boardSize;
+
+                    if (y > 0) {
+                        label = join(parent, label, regionOf[above - 1]);
+                    }
+
+                    label = join(parent, label, regionOf[above]);
+
+                    if (y < boardSize - 1) {
+                        label = join(parent, label, regionOf[above + 1]);
+                    }
+                }
+
+                if (label == 0) {
+                    if (++labels == parent.length) {
+                        parent = Arrays.copyOf(parent, parent.length * 2);
+                    }
+
+                    parent[labels] = labels;
+                    label = labels;
+                }
+
+                regionOf[cell] = label;
+            }
+        }
+
+        // replace each label with a region id counted from one
+        int[] ids = new int[labels + 1];
+        int[] starts = new int[labels + 2];
+        int regions = 0;
+
+        for (int cell = 0; cell < cells.size(); cell++) {
+            if (regionOf[cell] != 0) {
+                int root = find(parent, regionOf[cell]);
+
+                if (ids[root] == 0) {
+                    ids[root] = ++regions;
+                }
+
+                regionOf[cell] = ids[root];
+            }
+        }
+
+        // count the numbered tiles bordering each region, then fill in the
+        // tiles of every region in board order
+        claimBorders(cells, regionOf, boardSize, starts, null);
+
+        for (int region = 1, total = 0; region <= regions + 1; region++) {
+            int count = starts[region];
+            starts[region] = total;
+            total += count;
+        }
+
+        int[] members = new int[starts[regions + 1]];
+        claimBorders(cells, regionOf, boardSize, starts, members);
+
+        // filling moved each start along to the next region's start
+        m_starts = new int[regions + 1];
+        System.arraycopy(starts, 1, m_starts, 1, regions);
+        m_regionOf = regionOf;
+        m_members = members;
+    }
+
+    /**
+     * Gets the number of regions on the board
+     *
+     * @return Number of regions
+     */
+    int getRegionCount() {
+        return m_starts.length - 1;
+    }
+
+    /**
+     * Gets the region an empty tile belongs to
+     *
+     * @param cell Index of cell
+     * @return Id of the region, or -1 if the cell is not an empty tile
+     */
+    int getRegion(int cell) {
+        return m_regionOf[cell] - 1;
+    }
+
+    /**
+     * Gets the position of a region's first tile in the member array
+     *
+     * @param region Id of region
+     * @return Position of the first member
+     */
+    int getStart(int region) {
+        return m_starts[region];
+    }
+
+    /**
+     * Gets the position after a region's last tile in the member array
+     *
+     * @param region Id of region
+     * @return Position after the last member
+     */
+    int getEnd(int region) {
+        return m_starts[region + 1];
+    }
+
+    /**
+     * Gets a tile from the member array
+     *
+     * @param i Position in the member array
+     * @return Index of cell
+     */
+    int getMember(int i) {
+        return m_members[i];
+    }
+
+    /**
+     * Visits every tile of every region in board order, either counting the
+     * tiles of each region or storing them
+     *
+     * Numbered tiles are found from the empty tiles next to them. Each one
+     * is stamped with the negated id of the last region to claim it, which
+     * keeps most repeats out; the odd repeat left in is harmless, since
+     * revealing a tile twice does nothing. Both passes stamp in the same
+     * order, so they agree on the tiles of each region.
+     *
+     * @param cells Cells of the board
+     * @param regionOf Region id of each empty tile, counted from one
+     * @param boardSize Width and height of the board
+     * @param starts Count of tiles in each region when counting, or the
+     *               next free position of each region when storing
+     * @param members Array to store the tiles in, or null to count them
+     */
+    private static void claimBorders(CellStore cells, int[] regionOf,
+                                     int boardSize, int[] starts,
+                                     int[] members) {
+
+        // offsets of the eight neighbours of a tile
+        int[] offsets = new int[ROW_STEPS.length];
+
+        for (int k = 0; k < offsets.length; k++) {
+            offsets[k] = (ROW_STEPS[k] * boardSize) + COLUMN_STEPS[k];
+        }
+
+        for (int x = 0; x < boardSize; x++) {
+            for (int y = 0; y < boardSize; y++) {
+                int cell = (x * boardSize) + y;
+                int region = regionOf[cell];
+
+                if (region <= 0) {
+                    continue;
+                }
+
+                claim(starts, members, region, cell);
+
+                boolean inside = (x > 0) && (x < boardSize - 1) && (y > 0)
+                                 && (y < boardSize - 1);
+
+                for (int k = 0; k < offsets.length; k++) {
+
+                    // tiles on the edge of the board check each neighbour
+                    if (!inside) {
+                        int i = x + ROW_STEPS[k];
+                        int j = y + COLUMN_STEPS[k];
+
+                        if ((i < 0) || (i >= boardSize) || (j < 0)
+                                || (j >= boardSize)) {
+                            continue;
+                        }
+                    }
+
+                    int neighbour = cell + offsets[k];
+
+                    if ((regionOf[neighbour] <= 0)
+                            && (regionOf[neighbour] != -region)) {
+                        regionOf[neighbour] = -region;
+                        claim(starts, members, region, neighbour);
+                    }
+                }
+            }
+        }
+
+        // clear the stamps left on the numbered tiles
+        for (int cell = 0; cell < regionOf.length; cell++) {
+            if (regionOf[cell] < 0) {
+                regionOf[cell] = 0;
+            }
+        }
+    }
+
+    /**
+     * Counts or stores a tile of a region
+     *
+     * @param starts Counts or next free positions of each region
+     * @param members Array to store the tile in, or null to count it
+     * @param region Id of region, counted from one
+     * @param cell Index of cell
+     */
+    private static void claim(int[] starts, int[] members, int region,
+                              int cell) {
+        if (members == null) {
+            starts[region]++;
+        } else {
+            members[starts[region]++] = cell;
+        }
+    }
+
+    /**
+     * Joins a label with the label of a neighbouring tile
+     *
+     * @param parent Parent of each label
+     * @param label Label so far, or 0 if there isn't one
+     * @param other Label of the neighbour, or 0 if it isn't empty
+     * @return Joined label
+     */
+    private static int join(int[] parent, int label, int other) {
+        if (other == 0) {
+            return label;
+        }
+
+        other = find(parent, other);
+
+        if ((label == 0) || (label == other)) {
+            return other;
+        }
+
+        label = find(parent, label);
+
+        // keep the smaller label as the root
+        if (label < other) {
+            parent[other] = label;
+            return label;
+        }
+
+        parent[label] = other;
+        return other;
+    }
+
+    /**
+     * Finds the root of a label, halving the path to it on the way
+     *
+     * @param parent Parent of each label
+     * @param label Label to find the root of
+     * @return Root label
+     */
+    private static int find(int[] parent, int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+
+        return label;
+    }
+
+    /**
+     * Gets whether a cell is a tile with no bombs around it
+     *
+     * @param cell Packed cell state
+     * @return True if the cell is not a bomb and has no adjacent bombs
+     */
+    private static boolean isEmpty(byte cell) {
+        return (cell & (Board.BOMB | Board.ADJACENT_MASK)) == 0;
+    }
+}
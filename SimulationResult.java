@@ -0,0 +1,334 @@
+/**
+ * @file SimulationResult.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief How the computer player did over many games of one board
+ */
+
+/**
+ * @class SimulationResult
+ * @brief How the computer player did over many games of one board
+ *
+ * Holds the totals a SimulationRunner counted for a board size and bomb
+ * count, and works out the win rate and the average moves and guesses a
+ * game takes, each with a 95% confidence interval. The win rate interval is
+ * a Wilson score interval, which stays within 0 and 1 and is still sound
+ * when nearly every game is won or lost, as on the easiest and hardest
+ * boards. The averages use the normal approximation, which holds for the
+ * thousands of games a run plays.
+ */
+public class SimulationResult {
+
+    // z score of a 95% confidence interval
+    private static final double Z_95 = 1.959963984540054;
+
+    // holds the board the games were played on
+    private final int m_bombCount;
+    private final int m_boardSize;
+
+    // holds the number of games played and won
+    private final long m_games;
+    private final long m_wins;
+
+    // holds the totals of moves and guesses over every game, and of their
+    // squares
+    private final long m_moves;
+    private final long m_guesses;
+    private final double m_movesSquared;
+    private final double m_guessesSquared;
+
+    // holds the lookups of the pattern cache that found their pattern and
+    // that didn't
+    private final long m_patternHits;
+    private final long m_patternMisses;
+
+    // holds how long the games took to play, in nanoseconds
+    private final long m_elapsed;
+
+    /**
+     * Constructs a result
+     *
+     * @param bombCount Number of bombs on each board
+     * @param boardSize Width and height of each board
+     * @param games Number of games played
+     * @param wins Number of games won
+     * @param moves Total moves made
+     * @param guesses Total guesses made
+     * @param movesSquared Total of the square of the moves made in a game
+     * @param guessesSquared Total of the square of the guesses made in a
+     *                       game
+     * @param patternHits Lookups of the pattern cache that found their
+     *                    pattern
+     * @param patternMisses Lookups of the pattern cache that didn't
+     * @param elapsed Time taken to play the games, in nanoseconds
+     */
+    SimulationResult(int bombCount, int boardSize, long games, long wins,
+                     long moves, long guesses, double movesSquared,
+                     double guessesSquared, long patternHits,
+                     long patternMisses, long elapsed) {
+        m_bombCount = bombCount;
+        m_boardSize = boardSize;
+        m_games = games;
+        m_wins = wins;
+        m_moves = moves;
+        m_guesses = guesses;
+        m_movesSquared = movesSquared;
+        m_guessesSquared = guessesSquared;
+        m_patternHits = patternHits;
+        m_patternMisses = patternMisses;
+        m_elapsed = elapsed;
+    }
+
+    /**
+     * Gets the number of bombs on each board
+     *
+     * @return Number of bombs
+     */
+    public int getBombCount() {
+        return m_bombCount;
+    }
+
+    /**
+     * Gets the width and height of each board
+     *
+     * @return Width and height of board
+     */
+    public int getBoardSize() {
+        return m_boardSize;
+    }
+
+    /**
+     * Gets the number of games played
+     *
+     * @return Number of games
+     */
+    public long getGames() {
+        return m_games;
+    }
+
+    /**
+     * Gets the number of games won
+     *
+     * @return Number of wins
+     */
+    public long getWins() {
+        return m_wins;
+    }
+
+    /**
+     * Gets the share of games won
+     *
+     * @return Win rate from 0 to 1, or NaN if no games were played
+     */
+    public double getWinRate() {
+        return (double) m_wins / m_games;
+    }
+
+    /**
+     * Gets the low end of the 95% confidence interval of the win rate
+     *
+     * @return Lowest likely win rate, or 0 if no games were played
+     */
+    public double getWinRateLow() {
+        return getWinRateLow(m_wins, m_games);
+    }
+
+    /**
+     * Gets the high end of the 95% confidence interval of the win rate
+     *
+     * @return Highest likely win rate, or 1 if no games were played
+     */
+    public double getWinRateHigh() {
+        return getWinRateHigh(m_wins, m_games);
+    }
+
+    /**
+     * Gets the average number of moves made in a game, counting every tile
+     * revealed or diffused by choice
+     *
+     * @return Average moves, or NaN if no games were played
+     */
+    public double getAverageMoves() {
+        return (double) m_moves / m_games;
+    }
+
+    /**
+     * Gets how far the average moves may be from the true average
+     *
+     * @return Half the width of the 95% confidence interval of the average
+     */
+    public double getAverageMovesError() {
+        return error(m_moves, m_movesSquared);
+    }
+
+    /**
+     * Gets the average number of guesses made in a game, including the
+     * first click
+     *
+     * @return Average guesses, or NaN if no games were played
+     */
+    public double getAverageGuesses() {
+        return (double) m_guesses / m_games;
+    }
+
+    /**
+     * Gets how far the average guesses may be from the true average
+     *
+     * @return Half the width of the 95% confidence interval of the average
+     */
+    public double getAverageGuessesError() {
+        return error(m_guesses, m_guessesSquared);
+    }
+
+    /**
+     * Gets the number of lookups of the pattern cache that found their
+     * pattern during the games
+     *
+     * @return Number of hits, 0 if there was no cache
+     */
+    public long getPatternHits() {
+        return m_patternHits;
+    }
+
+    /**
+     * Gets the number of lookups of the pattern cache that didn't find
+     * their pattern during the games
+     *
+     * @return Number of misses, 0 if there was no cache
+     */
+    public long getPatternMisses() {
+        return m_patternMisses;
+    }
+
+    /**
+     * Gets the share of lookups of the pattern cache that found their
+     * pattern
+     *
+     * @return Hit rate from 0 to 1, or 0 if there were no lookups
+     */
+    public double getPatternHitRate() {
+        long lookups = m_patternHits + m_patternMisses;
+        return (lookups == 0) ? 0 : ((double) m_patternHits / lookups);
+    }
+
+    /**
+     * Gets how long the games took to play
+     *
+     * @return Time taken, in nanoseconds
+     */
+    public long getElapsed() {
+        return m_elapsed;
+    }
+
+    /**
+     * Gets how many games were played a minute
+     *
+     * @return Games a minute
+     */
+    public double getGamesPerMinute() {
+        return m_games * 60e9 / Math.max(1, m_elapsed);
+    }
+
+    /**
+     * Gets the result as a line of text
+     *
+     * @return Board, win rate, averages, pattern cache hits and speed
+     */
+    @Override
+    public String toString() {
+        return String.format("%dx%d %d bombs: %d games, won %.2f%% "
+                             + "(%.2f-%.2f%%), %.1f moves (+-%.1f), "
+                             + "%.2f guesses (+-%.2f), patterns %d hits "
+                             + "%d misses (%.1f%%), %.0f games/min",
+                             m_boardSize, m_boardSize, m_bombCount, m_games,
+                             100 * getWinRate(), 100 * getWinRateLow(),
+                             100 * getWinRateHigh(), getAverageMoves(),
+                             getAverageMovesError(), getAverageGuesses(),
+                             getAverageGuessesError(), m_patternHits,
+                             m_patternMisses, 100 * getPatternHitRate(),
+                             getGamesPerMinute());
+    }
+
+    /**
+     * Gets the low end of the 95% Wilson score interval of a win rate
+     *
+     * @param wins Number of games won
+     * @param games Number of games played
+     * @return Lowest likely win rate, or 0 if no games were played
+     */
+    static double getWinRateLow(long wins, long games) {
+        if (games == 0) {
+            return 0;
+        }
+
+        return Math.max(0, wilsonCentre(wins, games)
+                           - wilsonHalfWidth(wins, games));
+    }
+
+    /**
+     * Gets the high end of the 95% Wilson score interval of a win rate
+     *
+     * @param wins Number of games won
+     * @param games Number of games played
+     * @return Highest likely win rate, or 1 if no games were played
+     */
+    static double getWinRateHigh(long wins, long games) {
+        if (games == 0) {
+            return 1;
+        }
+
+        return Math.min(1, wilsonCentre(wins, games)
+                           + wilsonHalfWidth(wins, games));
+    }
+
+    /**
+     * Gets the centre of the Wilson score interval
+     *
+     * @param wins Number of games won
+     * @param games Number of games played
+     * @return Centre of the interval
+     */
+    private static double wilsonCentre(long wins, long games) {
+        double z2 = Z_95 * Z_95;
+
+        return (((double) wins / games) + (z2 / (2 * games)))
+               / (1 + (z2 / games));
+    }
+
+    /**
+     * Gets half the width of the Wilson score interval
+     *
+     * @param wins Number of games won
+     * @param games Number of games played
+     * @return Half the width of the interval
+     */
+    private static double wilsonHalfWidth(long wins, long games) {
+        double z2 = Z_95 * Z_95;
+        double rate = (double) wins / games;
+
+        return Z_95 * Math.sqrt((rate * (1 - rate) / games)
+                                + (z2 / (4.0 * games * games)))
+               / (1 + (z2 / games));
+    }
+
+    /**
+     * Gets half the width of the 95% confidence interval of an average
+     *
+     * @param total Total over every game
+     * @param squared Total of the squares over every game
+     * @return Half the width of the interval, or NaN with fewer than two
+     *         games
+     */
+    private double error(long total, double squared) {
+        if (m_games < 2) {
+            return Double.NaN;
+        }
+
+        double mean = (double) total / m_games;
+        double variance = Math.max(0, (squared - (mean * total))
+                                      / (m_games - 1));
+
+        return Z_95 * Math.sqrt(variance / m_games);
+    }
+}
@@ -0,0 +1,312 @@
+/**
+ * @file SimulationRunner.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Plays many seeded games with the computer player to measure how
+ * hard a board is
+ */
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * @class SimulationRunner
+ * @brief Plays many seeded games with the computer player to measure how
+ * hard a board is
+ *
+ * Each game gets its own board, placed with the run's seed plus the number
+ * of the game, and its own computer player guessing with the same seed, so
+ * a run gives the same result however many threads play it. The games are
+ * split between tasks on a fork-join pool, each task playing a run of games
+ * and counting them up by itself, and the counts are only added together
+ * as the tasks finish, so the threads share nothing while they play. The
+ * counting the computer player does in parallel runs on the same pool.
+ *
+ * A runner can be given a pattern cache for the solvers of every game to
+ * share, which the threads then take turns to use.
+ *
+ * Running it from the command line plays each board given and prints how
+ * the computer player did, which is what the difficulty of a board size and
+ * bomb count is judged by.
+ */
+public class SimulationRunner implements AutoCloseable {
+
+    // most games a task plays rather than splitting them
+    private static final int GAMES_PER_TASK = 64;
+
+    // holds the pool the games are played on
+    private final ForkJoinPool m_pool;
+
+    // holds the pattern cache the solvers of every game share, or null
+    private final PatternCache m_patterns;
+
+    /**
+     * Constructs a runner using every processor
+     */
+    public SimulationRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a runner without a pattern cache
+     *
+     * @param threads Number of games to play at once
+     */
+    public SimulationRunner(int threads) {
+        this(threads, null);
+    }
+
+    /**
+     * Constructs a runner
+     *
+     * A cache shared by every game is locked on each lookup, so it is only
+     * worth giving one where comparing numbers costs more than that.
+     *
+     * @param threads Number of games to play at once
+     * @param patterns Pattern cache the solvers of every game share, or
+     *        null to always compare
+     */
+    public SimulationRunner(int threads, PatternCache patterns) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Invalid threads: " + threads);
+        }
+
+        m_pool = new ForkJoinPool(threads);
+        m_patterns = patterns;
+    }
+
+    /**
+     * Plays games on a board with a safe first click, seeded from zero
+     *
+     * @param bombCount Number of bombs on each board
+     * @param boardSize Width and height of each board
+     * @param games Number of games to play
+     * @return How the computer player did
+     */
+    public SimulationResult run(int bombCount, int boardSize, long games) {
+        return run(bombCount, boardSize, games, 0);
+    }
+
+    /**
+     * Plays games on a board with a safe first click, the same seed always
+     * gives the same result
+     *
+     * @param bombCount Number of bombs on each board
+     * @param boardSize Width and height of each board
+     * @param games Number of games to play
+     * @param seed Seed of the first game, the games after it add one each
+     * @return How the computer player did
+     */
+    public SimulationResult run(int bombCount, int boardSize, long games,
+                                long seed) {
+        Board.checkSize(bombCount, boardSize);
+
+        if (games < 0) {
+            throw new IllegalArgumentException("Invalid games: " + games);
+        }
+
+        long hits = (m_patterns != null) ? m_patterns.getHits() : 0;
+        long misses = (m_patterns != null) ? m_patterns.getMisses() : 0;
+        long start = System.nanoTime();
+        Tally tally = m_pool.invoke(new GameTask(bombCount, boardSize, seed,
+                                                 0, games, m_patterns));
+        long elapsed = System.nanoTime() - start;
+
+        // only the lookups of this run, the cache may be used by others
+        if (m_patterns != null) {
+            hits = m_patterns.getHits() - hits;
+            misses = m_patterns.getMisses() - misses;
+        }
+
+        return new SimulationResult(bombCount, boardSize, tally.m_games,
+                                    tally.m_wins, tally.m_moves,
+                                    tally.m_guesses, tally.m_movesSquared,
+                                    tally.m_guessesSquared, hits, misses,
+                                    elapsed);
+    }
+
+    /**
+     * Gets the pattern cache the solvers of every game share
+     *
+     * @return Pattern cache, or null if there isn't one
+     */
+    public PatternCache getPatterns() {
+        return m_patterns;
+    }
+
+    /**
+     * Stops the threads playing games, once any run in progress finishes
+     */
+    @Override
+    public void close() {
+        m_pool.shutdown();
+    }
+
+    /**
+     * Plays each board given and prints how the computer player did
+     *
+     * @param args Number of games, then the size and bomb count of each
+     *             board
+     */
+    public static void main(String[] args) {
+        if ((args.length < 3) || (args.length % 2 == 0)) {
+            System.err.println("Usage: SimulationRunner games boardSize "
+                               + "bombCount [boardSize bombCount ...]");
+            System.exit(1);
+        }
+
+        long games = Long.parseLong(args[0]);
+
+        try (SimulationRunner runner = new SimulationRunner()) {
+            for (int i = 1; i < args.length; i += 2) {
+                System.out.println(runner.run(Integer.parseInt(args[i + 1]),
+                                              Integer.parseInt(args[i]),
+                                              games));
+            }
+        }
+    }
+
+    /**
+     * Plays a game to the end
+     *
+     * @param bombCount Number of bombs on the board
+     * @param boardSize Width and height of the board
+     * @param seed Seed of the game
+     * @param patterns Pattern cache of the solver, or null
+     * @param tally Counts to add the game to
+     */
+    private static void play(int bombCount, int boardSize, long seed,
+                             PatternCache patterns, Tally tally) {
+        Board board = new Board(bombCount, boardSize, seed, true);
+        ComputerPlayer player = new ComputerPlayer(board, seed, patterns);
+
+        while (!board.isWon() && !board.isLost()) {
+            player.takeTurn();
+
+            // a turn that changes nothing would be made forever
+            if (player.getLastTurn().getApplied() == 0) {
+                break;
+            }
+        }
+
+        tally.m_games++;
+        tally.m_moves += player.getMoves();
+        tally.m_guesses += player.getGuesses();
+        tally.m_movesSquared += (double) player.getMoves()
+                                * player.getMoves();
+        tally.m_guessesSquared += (double) player.getGuesses()
+                                  * player.getGuesses();
+
+        if (board.isWon()) {
+            tally.m_wins++;
+        }
+    }
+
+    /**
+     * @class Tally
+     * @brief Counts of the games a task played
+     */
+    private static final class Tally {
+
+        // holds the number of games played and won
+        private long m_games;
+        private long m_wins;
+
+        // holds the totals of moves and guesses, and of their squares
+        private long m_moves;
+        private long m_guesses;
+        private double m_movesSquared;
+        private double m_guessesSquared;
+
+        /**
+         * Adds the counts of another task
+         *
+         * @param other Counts to add
+         */
+        private void add(Tally other) {
+            m_games += other.m_games;
+            m_wins += other.m_wins;
+            m_moves += other.m_moves;
+            m_guesses += other.m_guesses;
+            m_movesSquared += other.m_movesSquared;
+            m_guessesSquared += other.m_guessesSquared;
+        }
+    }
+
+    /**
+     * @class GameTask
+     * @brief Plays a run of games, splitting it between tasks while it is
+     * long
+     */
+    private static final class GameTask extends RecursiveTask<Tally> {
+
+        // version of the serialized form
+        private static final long serialVersionUID = 1L;
+
+        // holds the board to play and the seed of game zero
+        private final int m_bombCount;
+        private final int m_boardSize;
+        private final long m_seed;
+
+        // holds the first game to play and the game after the last
+        private final long m_from;
+        private final long m_to;
+
+        // holds the pattern cache the solvers share, or null
+        private final PatternCache m_patterns;
+
+        /**
+         * Constructs a task
+         *
+         * @param bombCount Number of bombs on each board
+         * @param boardSize Width and height of each board
+         * @param seed Seed of game zero
+         * @param from First game to play
+         * @param to Game after the last to play
+         * @param patterns Pattern cache the solvers share, or null
+         */
+        private GameTask(int bombCount, int boardSize, long seed, long from,
+                         long to, PatternCache patterns) {
+            m_bombCount = bombCount;
+            m_boardSize = boardSize;
+            m_seed = seed;
+            m_from = from;
+            m_to = to;
+            m_patterns = patterns;
+        }
+
+        /**
+         * Plays the games
+         *
+         * @return Counts of the games
+         */
+        @Override
+        protected Tally compute() {
+            if (m_to - m_from > GAMES_PER_TASK) {
+                long middle = m_from + ((m_to - m_from) / 2);
+                GameTask second = new GameTask(m_bombCount, m_boardSize,
+                                               m_seed, middle, m_to,
+                                               m_patterns);
+
+                second.fork();
+
+                Tally tally = new GameTask(m_bombCount, m_boardSize, m_seed,
+                                           m_from, middle, m_patterns)
+                        .compute();
+                tally.add(second.join());
+
+                return tally;
+            }
+
+            Tally tally = new Tally();
+
+            for (long game = m_from; game < m_to; game++) {
+                play(m_bombCount, m_boardSize, m_seed + game, m_patterns,
+                     tally);
+            }
+
+            return tally;
+        }
+    }
+}
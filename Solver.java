@@ -0,0 +1,957 @@
+/**
+ * @file Solver.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Works out which tiles of a board are certainly safe or bombs
+ */
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * @class Solver
+ * @brief Works out which tiles of a board are certainly safe or bombs
+ *
+ * Every revealed number is a constraint: the hidden tiles around it hold
+ * that many bombs, less the bombs already found among them. A constraint
+ * that needs no more bombs makes its hidden tiles safe, and one that needs
+ * a bomb in every hidden tile makes them all bombs. Two constraints next to
+ * each other are compared too: if the difference in bombs they need is the
+ * number of tiles only one of them has, those tiles are bombs and the
+ * tiles only the other has are safe, which covers the 1-2 patterns.
+ *
+ * The solver reads the board's events, so it only looks again at the
+ * constraints around tiles that changed since it last ran, and the work it
+ * does follows the edge of the revealed area rather than the size of the
+ * board. Tiles the player diffused are not taken as bombs, only the bombs
+ * the solver found itself. Each move found is only handed out once.
+ *
+ * A solver can be given a PatternCache, which keeps what comparing a number
+ * with its neighbours found, keyed by the tiles around it, so a pattern
+ * seen before is settled without comparing again. The solver keeps the
+ * hash of the window around each number it has looked up, along with the
+ * class of every tile in those windows, and when one of those tiles
+ * changes class it is xored out of and back into the hashes of the windows
+ * it is in, rather than hashing every window again.
+ */
+public class Solver {
+
+    // holds the board being solved
+    private final Board m_board;
+    private final int m_boardSize;
+
+    // reads the cells the board changes
+    private final BoardEvents.Reader m_changes;
+
+    // holds revealed numbers to look at again, each listed once
+    private final CellList m_dirty;
+    private final BitSet m_listed;
+
+    // holds the tiles found to be safe but not yet revealed, and the tiles
+    // found to be bombs
+    private final BitSet m_safe;
+    private final BitSet m_bombs;
+
+    // holds the tiles found since the moves were last handed out
+    private final CellList m_newSafe;
+    private final CellList m_newBombs;
+
+    // holds the hidden tiles around the numbers being compared
+    private final int[] m_unknown;
+    private final int[] m_other;
+
+    // holds what comparing numbers found around each pattern of tiles, or
+    // null to always compare
+    private final PatternCache m_patterns;
+
+    // holds the hash of the window around each number looked up in the
+    // pattern cache, the numbers whose hashes are kept, how many of those
+    // windows each tile is in and the class the hashes hold each of those
+    // tiles as, or null without a pattern cache
+    private final long[] m_hashes;
+    private final BitSet m_hashed;
+    private final byte[] m_watched;
+    private final byte[] m_classes;
+
+    // holds the tiles in kept windows that may have changed class since the
+    // hashes were last brought up to date, each listed once
+    private final CellList m_stale;
+    private final BitSet m_staleListed;
+
+    // holds the hidden tiles around a tile being classed
+    private final int[] m_around;
+
+    // holds the centre of the pattern being compared, or -1 if there isn't
+    // one, and the tiles comparing it has found as bits of its window
+    private int m_patternX;
+    private int m_patternY;
+    private long m_patternSafe;
+    private long m_patternBombs;
+
+    // holds the revealed tiles the solver has seen
+    private final BitSet m_seen;
+
+    // holds the revealed numbers with hidden tiles around them that aren't
+    // known to be safe or bombs
+    private final BitSet m_frontier;
+
+    // holds whether the whole board needs to be looked at again, and the
+    // first click the bombs were placed around when it last was
+    private boolean m_rescan;
+    private long m_firstClick;
+
+    /**
+     * Constructs a solver for a board, which may already be part played,
+     * without a pattern cache
+     *
+     * @param board Board to solve
+     */
+    public Solver(Board board) {
+        this(board, null);
+    }
+
+    /**
+     * Constructs a solver for a board, which may already be part played
+     *
+     * @param board Board to solve
+     * @param patterns Pattern cache, which may be shared with other
+     *        solvers, or null to always compare
+     */
+    public Solver(Board board, PatternCache patterns) {
+        m_board = board;
+        m_boardSize = board.getBoardSize();
+        m_changes = board.getEvents().newReader();
+        m_dirty = new CellList();
+        m_listed = new BitSet();
+        m_safe = new BitSet();
+        m_bombs = new BitSet();
+        m_newSafe = new CellList();
+        m_newBombs = new CellList();
+        m_unknown = new int[8];
+        m_other = new int[8];
+        m_patterns = patterns;
+        m_hashes = (patterns != null) ? new long[m_boardSize * m_boardSize]
+                                      : null;
+        m_hashed = new BitSet();
+        m_watched = (patterns != null) ? new byte[m_boardSize * m_boardSize]
+                                       : null;
+        m_classes = (patterns != null) ? new byte[m_boardSize * m_boardSize]
+                                       : null;
+        m_stale = new CellList();
+        m_staleListed = new BitSet();
+        m_around = new int[8];
+        m_patternX = -1;
+        m_seen = new BitSet();
+        m_frontier = new BitSet();
+        m_rescan = true;
+        m_firstClick = Board.WAITING_FOR_CLICK;
+    }
+
+    /**
+     * Gets whether the solver has found a tile to be a bomb
+     *
+     * @param cell Index of cell
+     * @return True if the tile is certainly a bomb, false otherwise
+     */
+    public boolean isKnownBomb(int cell) {
+        return m_bombs.get(cell);
+    }
+
+    /**
+     * Gets whether the solver has found a hidden tile to be safe
+     *
+     * @param cell Index of cell
+     * @return True if the tile is certainly safe, false otherwise
+     */
+    boolean isKnownSafe(int cell) {
+        return m_safe.get(cell);
+    }
+
+    /**
+     * Gets the number of bombs the solver has found
+     *
+     * @return Number of bombs found
+     */
+    int getKnownBombCount() {
+        return m_bombs.cardinality();
+    }
+
+    /**
+     * Gets the number of hidden tiles the solver has found to be safe
+     *
+     * @return Number of safe tiles found
+     */
+    int getKnownSafeCount() {
+        return m_safe.cardinality();
+    }
+
+    /**
+     * Gets the next revealed number with unknown tiles around it, as of the
+     * last call to nextMoves
+     *
+     * @param from Index of cell to look from
+     * @return Index of the number, or -1 if there are no more
+     */
+    int nextFrontier(int from) {
+        return m_frontier.nextSetBit(from);
+    }
+
+    /**
+     * Lists the hidden tiles around a revealed number that aren't known to
+     * be safe or bombs
+     *
+     * @param cell Index of cell
+     * @param out Array of at least eight to store the tiles in
+     * @return Number of tiles, or -1 if the cell isn't a revealed number
+     */
+    int getUnknown(int cell, int[] out) {
+        return unknown(cell, out);
+    }
+
+    /**
+     * Gets the number of bombs a revealed number needs among its unknown
+     * tiles
+     *
+     * @param cell Index of cell
+     * @return Adjacent bombs less the bombs already found around it
+     */
+    int getNeeded(int cell) {
+        return needed(cell);
+    }
+
+    /**
+     * Gets the hash of the window around a revealed number, as the pattern
+     * cache is looked up with
+     *
+     * @param cell Index of cell
+     * @return Hash of the pattern, or 0 without a pattern cache
+     */
+    long getPattern(int cell) {
+        return (m_patterns != null) ? hashAround(cell) : 0;
+    }
+
+    /**
+     * Works out the moves that are certain to be right, given the moves
+     * made since the solver last ran
+     *
+     * @return Reveals of the safe tiles and diffuses of the bombs found, as
+     *         encoded by Board.encodeAction, empty if there are none
+     */
+    public long[] nextMoves() {
+        readChanges();
+
+        if (m_rescan) {
+            rescan();
+        }
+
+        while (m_dirty.size() > 0) {
+            int cell = m_dirty.removeLast();
+
+            m_listed.clear(cell);
+            examine(cell);
+        }
+
+        // once every hidden tile is a bomb, they can all be diffused
+        if (m_safe.isEmpty() && m_board.isPlaced()
+                && (m_board.getHidden() == m_board.getBombCount())) {
+            for (int cell = 0; cell < m_boardSize * m_boardSize; cell++) {
+                if ((m_board.getState(cell) & Board.REVEALED) == 0) {
+                    markBomb(cell);
+                }
+            }
+        }
+
+        return encodeMoves();
+    }
+
+    /**
+     * Reads the events published since the solver last ran, marking the
+     * numbers around each newly revealed tile to be looked at again
+     */
+    private void readChanges() {
+        for (long event = m_changes.poll(); event != BoardEvents.EMPTY;
+             event = m_changes.poll()) {
+            if ((event == BoardEvents.MISSED)
+                    || (BoardEvents.getType(event)
+                        == BoardEvents.BOARD_CHANGED)) {
+                m_rescan = true;
+            } else if (BoardEvents.getType(event) == BoardEvents.REVEALED) {
+                see(BoardEvents.getCell(event));
+            }
+        }
+    }
+
+    /**
+     * Notes a newly revealed tile, marking it and the numbers around it to
+     * be looked at again
+     *
+     * @param cell Index of cell
+     */
+    private void see(int cell) {
+        m_seen.set(cell);
+        m_safe.clear(cell);
+        reclassAround(cell);
+        markDirty(cell);
+        markAround(cell);
+    }
+
+    /**
+     * Looks through the board for revealed tiles the solver hasn't seen,
+     * forgetting everything found if the bombs have moved since
+     *
+     * Events can be missed, and a fill too large for the event ring is
+     * published as a change to the whole board, so this is how the solver
+     * catches up. Undoing or restoring leaves the bombs where they were
+     * unless it goes back past the first click, so what was found still
+     * holds.
+     */
+    private void rescan() {
+        if (m_board.getFirstClick() != m_firstClick) {
+            m_dirty.clear();
+            m_listed.clear();
+            m_safe.clear();
+            m_bombs.clear();
+            m_newSafe.clear();
+            m_newBombs.clear();
+            m_seen.clear();
+            m_frontier.clear();
+            m_firstClick = m_board.getFirstClick();
+        }
+
+        // tiles may have been hidden again, so every window is hashed again
+        m_hashed.clear();
+        m_stale.clear();
+        m_staleListed.clear();
+
+        if (m_watched != null) {
+            Arrays.fill(m_watched, (byte) 0);
+        }
+
+        if (m_board.isPlaced()) {
+            for (int cell = 0; cell < m_boardSize * m_boardSize; cell++) {
+                if (((m_board.getState(cell) & Board.REVEALED) != 0)
+                        && !m_seen.get(cell)) {
+                    see(cell);
+                }
+            }
+        }
+
+        m_rescan = false;
+    }
+
+    /**
+     * Applies the deduction rules to a revealed number
+     *
+     * @param cell Index of cell
+     */
+    private void examine(int cell) {
+        int[] unknown = m_unknown;
+        int count = unknown(cell, unknown);
+
+        if (count <= 0) {
+            m_frontier.clear(cell);
+
+            if (m_hashed.get(cell)) {
+                unhash(cell);
+            }
+            return;
+        }
+
+        m_frontier.set(cell);
+
+        int needed = needed(cell);
+
+        if (needed == 0) {
+            for (int i = 0; i < count; i++) {
+                markSafe(unknown[i]);
+            }
+            return;
+        }
+
+        if (needed == count) {
+            for (int i = 0; i < count; i++) {
+                markBomb(unknown[i]);
+            }
+            return;
+        }
+
+        if (m_patterns == null) {
+            compareAround(cell, unknown, count, needed);
+            return;
+        }
+
+        // a pattern seen before finds the same tiles again
+        int x = cell / m_boardSize;
+        int y = cell % m_boardSize;
+        long pattern = hashAround(cell);
+        long[] found = m_patterns.get(pattern);
+
+        if (found != null) {
+            markPattern(x, y, found[0], found[1]);
+            return;
+        }
+
+        m_patternX = x;
+        m_patternY = y;
+        m_patternSafe = 0;
+        m_patternBombs = 0;
+
+        compareAround(cell, unknown, count, needed);
+
+        m_patterns.put(pattern, m_patternSafe, m_patternBombs);
+        m_patternX = -1;
+    }
+
+    /**
+     * Compares a number with the numbers close enough to share hidden
+     * tiles, stopping once any tiles are found
+     *
+     * @param cell Index of the number
+     * @param unknown Hidden tiles around the number
+     * @param count Number of hidden tiles around the number
+     * @param needed Bombs the number still needs
+     */
+    private void compareAround(int cell, int[] unknown, int count,
+                               int needed) {
+        int x = cell / m_boardSize;
+        int y = cell % m_boardSize;
+        int[] other = m_other;
+
+        for (int i = Math.max(x - 2, 0); i <= Math.min(x + 2, m_boardSize - 1);
+             i++) {
+            for (int j = Math.max(y - 2, 0);
+                 j <= Math.min(y + 2, m_boardSize - 1); j++) {
+                int neighbour = (i * m_boardSize) + j;
+                int otherCount = (neighbour == cell) ? 0
+                                 : unknown(neighbour, other);
+
+                // the tiles found mark this number to be looked at again
+                if ((otherCount > 0)
+                        && compare(unknown, count, needed, other, otherCount,
+                                   needed(neighbour))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the hash of the tiles around a number, which are all comparing it
+     * with its neighbours depends on, hashing them if they aren't already
+     *
+     * @param cell Index of the number
+     * @return Hash of the pattern
+     */
+    private long hashAround(int cell) {
+        while (m_stale.size() > 0) {
+            int stale = m_stale.removeLast();
+
+            m_staleListed.clear(stale);
+            reclass(stale / m_boardSize, stale % m_boardSize);
+        }
+
+        if (!m_hashed.get(cell)) {
+            m_hashes[cell] = hash(cell / m_boardSize, cell % m_boardSize);
+            m_hashed.set(cell);
+        }
+
+        return m_hashes[cell];
+    }
+
+    /**
+     * Hashes the tiles around a number and keeps their classes up to date
+     * from now on, classing any that aren't already kept
+     *
+     * Only what the comparison reads goes into the hash: where the unknown
+     * tiles are, and how many bombs each number close enough to compare
+     * still needs. Revealed tiles with nothing left to find, tiles already
+     * found and the edge of the board all look the same, so patterns that
+     * differ only in those are settled the same way.
+     *
+     * @param x X coordinate of the number
+     * @param y Y coordinate of the number
+     * @return Hash of the pattern
+     */
+    private long hash(int x, int y) {
+        long hash = 0;
+
+        for (int dx = -PatternCache.REACH; dx <= PatternCache.REACH; dx++) {
+            for (int dy = -PatternCache.REACH; dy <= PatternCache.REACH;
+                 dy++) {
+                int i = x + dx;
+                int j = y + dy;
+                int tileClass = PatternCache.SETTLED;
+
+                if ((i >= 0) && (i < m_boardSize) && (j >= 0)
+                        && (j < m_boardSize)) {
+                    int cell = (i * m_boardSize) + j;
+
+                    if (m_watched[cell] == 0) {
+                        m_classes[cell] = (byte) tileClass(cell);
+                    }
+
+                    m_watched[cell]++;
+                    tileClass = m_classes[cell];
+                }
+
+                hash ^= PatternCache.key(dx, dy, windowClass(dx, dy,
+                                                             tileClass));
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * Stops keeping the hash around a number that has nothing left to
+     * compare
+     *
+     * @param cell Index of the number
+     */
+    private void unhash(int cell) {
+        int x = cell / m_boardSize;
+        int y = cell % m_boardSize;
+
+        for (int i = Math.max(x - PatternCache.REACH, 0);
+             i <= Math.min(x + PatternCache.REACH, m_boardSize - 1); i++) {
+            for (int j = Math.max(y - PatternCache.REACH, 0);
+                 j <= Math.min(y + PatternCache.REACH, m_boardSize - 1);
+                 j++) {
+                m_watched[(i * m_boardSize) + j]--;
+            }
+        }
+
+        m_hashed.clear(cell);
+    }
+
+    /**
+     * Marks the tiles in kept windows around a tile to be classed again,
+     * after it was revealed or found, which is left until a hash is next
+     * needed so a tile is only classed once however many of its neighbours
+     * change
+     *
+     * @param cell Index of cell
+     */
+    private void reclassAround(int cell) {
+        if (m_watched == null) {
+            return;
+        }
+
+        int x = cell / m_boardSize;
+        int y = cell % m_boardSize;
+
+        for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, m_boardSize - 1);
+             i++) {
+            for (int j = Math.max(y - 1, 0);
+                 j <= Math.min(y + 1, m_boardSize - 1); j++) {
+                int neighbour = (i * m_boardSize) + j;
+
+                if ((m_watched[neighbour] != 0)
+                        && !m_staleListed.get(neighbour)) {
+                    m_staleListed.set(neighbour);
+                    m_stale.add(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Classes a tile again, xoring its old class out of the hash of every
+     * kept window it is in and its new class in
+     *
+     * @param x X coordinate of tile
+     * @param y Y coordinate of tile
+     */
+    private void reclass(int x, int y) {
+        int cell = (x * m_boardSize) + y;
+
+        // the windows it was in may no longer be kept
+        if (m_watched[cell] == 0) {
+            return;
+        }
+
+        int was = m_classes[cell];
+        int now = tileClass(cell);
+
+        if (now == was) {
+            return;
+        }
+
+        m_classes[cell] = (byte) now;
+
+        for (int i = Math.max(x - PatternCache.REACH, 0);
+             i <= Math.min(x + PatternCache.REACH, m_boardSize - 1); i++) {
+            int row = i * m_boardSize;
+            int last = row + Math.min(y + PatternCache.REACH,
+                                      m_boardSize - 1);
+
+            // most windows aren't kept, so skip to the ones that are
+            for (int window = m_hashed.nextSetBit(
+                         row + Math.max(y - PatternCache.REACH, 0));
+                 (window >= 0) && (window <= last);
+                 window = m_hashed.nextSetBit(window + 1)) {
+                int dx = x - i;
+                int dy = y - (window - row);
+
+                m_hashes[window] ^=
+                        PatternCache.key(dx, dy, windowClass(dx, dy, was))
+                        ^ PatternCache.key(dx, dy, windowClass(dx, dy, now));
+            }
+        }
+    }
+
+    /**
+     * Gets the class of a tile as comparing numbers sees it, if a number on
+     * the tile would be compared
+     *
+     * @param cell Index of cell
+     * @return Class of the tile, as in PatternCache
+     */
+    private int tileClass(int cell) {
+        if ((m_board.getState(cell) & Board.REVEALED) == 0) {
+            return (m_bombs.get(cell) || m_safe.get(cell))
+                   ? PatternCache.SETTLED : PatternCache.UNKNOWN;
+        }
+
+        if (unknown(cell, m_around) > 0) {
+            return PatternCache.NEEDS + needed(cell);
+        }
+
+        return PatternCache.SETTLED;
+    }
+
+    /**
+     * Gets the class of a tile at a position in a window, where numbers on
+     * the outer ring are too far away to be compared
+     *
+     * @param dx Row of the tile relative to the centre
+     * @param dy Column of the tile relative to the centre
+     * @param tileClass Class of the tile if a number on it were compared
+     * @return Class of the tile in the window
+     */
+    private static int windowClass(int dx, int dy, int tileClass) {
+        if ((tileClass >= PatternCache.NEEDS)
+                && ((Math.abs(dx) == PatternCache.REACH)
+                    || (Math.abs(dy) == PatternCache.REACH))) {
+            return PatternCache.SETTLED;
+        }
+
+        return tileClass;
+    }
+
+    /**
+     * Marks the tiles a pattern found around a number
+     *
+     * @param x X coordinate of the number
+     * @param y Y coordinate of the number
+     * @param safe Tiles found safe, as bits of the window
+     * @param bombs Tiles found to be bombs, as bits of the window
+     */
+    private void markPattern(int x, int y, long safe, long bombs) {
+        for (long bits = safe | bombs; bits != 0; bits &= bits - 1) {
+            int bit = Long.numberOfTrailingZeros(bits);
+            int cell = ((x + (bit / PatternCache.WINDOW) - PatternCache.REACH)
+                        * m_boardSize)
+                       + y + (bit % PatternCache.WINDOW) - PatternCache.REACH;
+
+            if ((safe & (1L << bit)) != 0) {
+                markSafe(cell);
+            } else {
+                markBomb(cell);
+            }
+        }
+    }
+
+    /**
+     * Compares two numbers that share hidden tiles
+     *
+     * @param first Hidden tiles around the first number
+     * @param firstCount Number of hidden tiles around the first number
+     * @param firstNeeded Bombs the first number still needs
+     * @param second Hidden tiles around the second number
+     * @param secondCount Number of hidden tiles around the second number
+     * @param secondNeeded Bombs the second number still needs
+     * @return True if any tiles were found to be safe or bombs
+     */
+    private boolean compare(int[] first, int firstCount, int firstNeeded,
+                            int[] second, int secondCount, int secondNeeded) {
+        int shared = 0;
+
+        for (int i = 0; i < firstCount; i++) {
+            if (contains(second, secondCount, first[i])) {
+                shared++;
+            }
+        }
+
+        if (shared == 0) {
+            return false;
+        }
+
+        if (secondNeeded - firstNeeded == secondCount - shared) {
+            return settle(second, secondCount, first, firstCount);
+        }
+
+        if (firstNeeded - secondNeeded == firstCount - shared) {
+            return settle(first, firstCount, second, secondCount);
+        }
+
+        return false;
+    }
+
+    /**
+     * Marks the tiles only around one number as bombs and the tiles only
+     * around another as safe
+     *
+     * @param bombs Hidden tiles around the number whose own tiles are bombs
+     * @param bombCount Number of tiles in bombs
+     * @param safe Hidden tiles around the number whose own tiles are safe
+     * @param safeCount Number of tiles in safe
+     * @return True if any tiles were marked
+     */
+    private boolean settle(int[] bombs, int bombCount, int[] safe,
+                           int safeCount) {
+        boolean marked = false;
+
+        for (int i = 0; i < bombCount; i++) {
+            if (!contains(safe, safeCount, bombs[i])) {
+                markBomb(bombs[i]);
+                marked = true;
+            }
+        }
+
+        for (int i = 0; i < safeCount; i++) {
+            if (!contains(bombs, bombCount, safe[i])) {
+                markSafe(safe[i]);
+                marked = true;
+            }
+        }
+
+        return marked;
+    }
+
+    /**
+     * Lists the hidden tiles around a revealed number that aren't known to
+     * be safe or bombs
+     *
+     * @param cell Index of cell
+     * @param out Array to store the tiles in
+     * @return Number of tiles, or -1 if the cell isn't a revealed number
+     */
+    private int unknown(int cell, int[] out) {
+        int state = m_board.getState(cell);
+
+        if (((state & Board.REVEALED) == 0) || ((state & Board.BOMB) != 0)
+                || ((state & Board.ADJACENT_MASK) == 0)) {
+            return -1;
+        }
+
+        int x = cell / m_boardSize;
+        int y = cell % m_boardSize;
+        int count = 0;
+
+        for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, m_boardSize - 1);
+             i++) {
+            for (int j = Math.max(y - 1, 0);
+                 j <= Math.min(y + 1, m_boardSize - 1); j++) {
+                int neighbour = (i * m_boardSize) + j;
+
+                if (((m_board.getState(neighbour) & Board.REVEALED) == 0)
+                        && !m_bombs.get(neighbour)
+                        && !m_safe.get(neighbour)) {
+                    out[count++] = neighbour;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the number of bombs a revealed number needs among its unknown
+     * tiles
+     *
+     * @param cell Index of cell
+     * @return Adjacent bombs less the bombs already found around it
+     */
+    private int needed(int cell) {
+        int x = cell / m_boardSize;
+        int y = cell % m_boardSize;
+        int needed = m_board.getState(cell) & Board.ADJACENT_MASK;
+
+        for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, m_boardSize - 1);
+             i++) {
+            for (int j = Math.max(y - 1, 0);
+                 j <= Math.min(y + 1, m_boardSize - 1); j++) {
+                if (m_bombs.get((i * m_boardSize) + j)) {
+                    needed--;
+                }
+            }
+        }
+
+        return needed;
+    }
+
+    /**
+     * Marks a tile as safe to reveal
+     *
+     * @param cell Index of cell
+     */
+    private void markSafe(int cell) {
+        if (!m_safe.get(cell)) {
+            if (m_patternX >= 0) {
+                m_patternSafe |= 1L << patternBit(cell);
+            }
+
+            m_safe.set(cell);
+            m_newSafe.add(cell);
+            reclassAround(cell);
+            markAround(cell);
+        }
+    }
+
+    /**
+     * Marks a tile as a bomb
+     *
+     * @param cell Index of cell
+     */
+    private void markBomb(int cell) {
+        if (!m_bombs.get(cell)) {
+            if (m_patternX >= 0) {
+                m_patternBombs |= 1L << patternBit(cell);
+            }
+
+            m_bombs.set(cell);
+            m_newBombs.add(cell);
+            reclassAround(cell);
+            markAround(cell);
+        }
+    }
+
+    /**
+     * Gets the bit standing for a tile in the window of the pattern being
+     * compared
+     *
+     * @param cell Index of cell
+     * @return Index of the bit
+     */
+    private int patternBit(int cell) {
+        return PatternCache.bit((cell / m_boardSize) - m_patternX,
+                                (cell % m_boardSize) - m_patternY);
+    }
+
+    /**
+     * Marks the revealed numbers around a tile to be looked at again
+     *
+     * @param cell Index of cell
+     */
+    private void markAround(int cell) {
+        int x = cell / m_boardSize;
+        int y = cell % m_boardSize;
+
+        for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, m_boardSize - 1);
+             i++) {
+            for (int j = Math.max(y - 1, 0);
+                 j <= Math.min(y + 1, m_boardSize - 1); j++) {
+                int neighbour = (i * m_boardSize) + j;
+                int state = m_board.getState(neighbour);
+
+                if ((neighbour != cell) && ((state & Board.REVEALED) != 0)
+                        && ((state & Board.ADJACENT_MASK) != 0)) {
+                    markDirty(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks a tile to be looked at again, unless it already is
+     *
+     * @param cell Index of cell
+     */
+    private void markDirty(int cell) {
+        if (!m_listed.get(cell)) {
+            m_listed.set(cell);
+            m_dirty.add(cell);
+        }
+    }
+
+    /**
+     * Encodes the moves found since they were last handed out
+     *
+     * @return The encoded moves
+     */
+    private long[] encodeMoves() {
+        CellList reveals = new CellList();
+        CellList diffuses = new CellList();
+
+        for (int i = 0; i < m_newSafe.size(); i++) {
+            int cell = m_newSafe.get(i);
+            int state = m_board.getState(cell);
+
+            if ((state & Board.REVEALED) == 0) {
+
+                // a tile the player diffused has to be undiffused first
+                if ((state & Board.DIFFUSED) != 0) {
+                    diffuses.add(cell);
+                }
+
+                reveals.add(cell);
+            }
+        }
+
+        for (int i = 0; i < m_newBombs.size(); i++) {
+            int cell = m_newBombs.get(i);
+
+            if ((m_board.getState(cell) & Board.DIFFUSED) == 0) {
+                diffuses.add(cell);
+            }
+        }
+
+        m_newSafe.clear();
+        m_newBombs.clear();
+
+        long[] moves = new long[diffuses.size() + reveals.size()];
+
+        for (int i = 0; i < diffuses.size(); i++) {
+            moves[i] = encode(GameJournal.DIFFUSE, diffuses.get(i));
+        }
+
+        for (int i = 0; i < reveals.size(); i++) {
+            moves[diffuses.size() + i] = encode(GameJournal.REVEAL,
+                                                reveals.get(i));
+        }
+
+        return moves;
+    }
+
+    /**
+     * Encodes a move on a cell
+     *
+     * @param type GameJournal.REVEAL or GameJournal.DIFFUSE
+     * @param cell Index of cell
+     * @return The encoded move
+     */
+    private long encode(int type, int cell) {
+        return m_board.encodeAction(type, m_board.getX(cell),
+                                    m_board.getY(cell));
+    }
+
+    /**
+     * Gets whether a short list holds a cell
+     *
+     * @param cells List of cells
+     * @param count Number of cells in the list
+     * @param cell Index of cell
+     * @return True if the cell is in the list
+     */
+    private static boolean contains(int[] cells, int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == cell) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
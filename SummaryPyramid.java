@@ -0,0 +1,432 @@
+/**
+ * @file SummaryPyramid.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Counts the tiles of a board in blocks, at several zoom levels
+ */
+
+import java.util.Arrays;
+
+/**
+ * @class SummaryPyramid
+ * @brief Counts the tiles of a board in blocks, at several zoom levels
+ *
+ * Level 0 splits the board into square blocks and counts the revealed
+ * tiles, the diffused tiles and the bombs not yet diffused in each. Every
+ * level above has a block for each 2x2 blocks of the level below, up to a
+ * single block covering the whole board. A zoomed out view or a minimap can
+ * draw a level a block at a time rather than reading every cell. The
+ * bombs left in a block are only given out once the game has ended.
+ *
+ * The board adds each move to the blocks it touches and every block above
+ * them, so the pyramid stays up to date as the game is played. Undoing,
+ * restoring or placing the bombs change too much to add up, so the pyramid
+ * counts the board again the next time it is read.
+ */
+public class SummaryPyramid {
+
+    // width and height of a level 0 block, as a power of two
+    static final int BLOCK_BITS = 6;
+
+    // holds the board being counted
+    private final Board m_board;
+    private final int m_boardSize;
+
+    // holds the number of blocks across each level
+    private final int[] m_across;
+
+    // holds the counts of every block at each level
+    private final int[][] m_revealed;
+    private final int[][] m_diffused;
+    private final int[][] m_remaining;
+
+    // holds whether the board has changed too much for the counts to follow
+    private boolean m_stale;
+
+    /**
+     * Constructs a pyramid, which is counted the first time it is read
+     *
+     * @param board Board to count
+     */
+    SummaryPyramid(Board board) {
+        int levels = 1;
+
+        m_board = board;
+        m_boardSize = board.getBoardSize();
+
+        for (int across = blocksAcross(m_boardSize, BLOCK_BITS); across > 1;
+             across = (across + 1) / 2) {
+            levels++;
+        }
+
+        m_across = new int[levels];
+        m_revealed = new int[levels][];
+        m_diffused = new int[levels][];
+        m_remaining = new int[levels][];
+
+        for (int level = 0; level < levels; level++) {
+            m_across[level] = blocksAcross(m_boardSize, BLOCK_BITS + level);
+            m_revealed[level] = new int[m_across[level] * m_across[level]];
+            m_diffused[level] = new int[m_across[level] * m_across[level]];
+            m_remaining[level] = new int[m_across[level] * m_across[level]];
+        }
+
+        m_stale = true;
+    }
+
+    /**
+     * Gets the number of levels, the top level has a single block
+     *
+     * @return Number of levels
+     */
+    public int getLevels() {
+        return m_across.length;
+    }
+
+    /**
+     * Gets the width and height of a block at a level
+     *
+     * @param level Level of the pyramid
+     * @return Number of tiles across a block, as a power of two
+     */
+    public int getBlockBits(int level) {
+        checkLevel(level);
+        return BLOCK_BITS + level;
+    }
+
+    /**
+     * Gets the number of blocks across a level
+     *
+     * @param level Level of the pyramid
+     * @return Number of blocks across and down the level
+     */
+    public int getBlocksAcross(int level) {
+        checkLevel(level);
+        return m_across[level];
+    }
+
+    /**
+     * Gets the number of tiles in a block
+     *
+     * @param level Level of the pyramid
+     * @param x X coordinate of block
+     * @param y Y coordinate of block
+     * @return Number of tiles, fewer for blocks at the edge of the board
+     */
+    public int getTiles(int level, int x, int y) {
+        index(level, x, y);
+
+        int bits = BLOCK_BITS + level;
+        long height = Math.min((long) (x + 1) << bits, m_boardSize)
+                      - ((long) x << bits);
+        long width = Math.min((long) (y + 1) << bits, m_boardSize)
+                     - ((long) y << bits);
+
+        return (int) (height * width);
+    }
+
+    /**
+     * Gets the number of revealed tiles in a block
+     *
+     * @param level Level of the pyramid
+     * @param x X coordinate of block
+     * @param y Y coordinate of block
+     * @return Number of revealed tiles
+     */
+    public int getRevealed(int level, int x, int y) {
+        int block = index(level, x, y);
+        update();
+        return m_revealed[level][block];
+    }
+
+    /**
+     * Gets the number of hidden tiles in a block
+     *
+     * @param level Level of the pyramid
+     * @param x X coordinate of block
+     * @param y Y coordinate of block
+     * @return Number of hidden tiles
+     */
+    public int getHidden(int level, int x, int y) {
+        return getTiles(level, x, y) - getRevealed(level, x, y);
+    }
+
+    /**
+     * Gets the number of diffused tiles in a block
+     *
+     * @param level Level of the pyramid
+     * @param x X coordinate of block
+     * @param y Y coordinate of block
+     * @return Number of diffused tiles
+     */
+    public int getDiffused(int level, int x, int y) {
+        int block = index(level, x, y);
+        update();
+        return m_diffused[level][block];
+    }
+
+    /**
+     * Gets the number of bombs in a block that aren't diffused, once the
+     * game has ended, since it would give the bombs away before
+     *
+     * @param level Level of the pyramid
+     * @param x X coordinate of block
+     * @param y Y coordinate of block
+     * @return Number of bombs left
+     * @throws IllegalStateException If the game is still being played
+     */
+    public int getRemainingBombs(int level, int x, int y) {
+        if (!m_board.isWon() && !m_board.isLost()) {
+            throw new IllegalStateException("Game is still being played");
+        }
+
+        int block = index(level, x, y);
+        update();
+        return m_remaining[level][block];
+    }
+
+    /**
+     * Gets the blocks at a level with hidden tiles that aren't diffused,
+     * skipping every part of the board with none from the top level down
+     *
+     * @param level Level of the pyramid
+     * @return Blocks with tiles left to play, as x * blocks across + y
+     */
+    public CellList getUnsolvedBlocks(int level) {
+        checkLevel(level);
+        update();
+
+        CellList found = new CellList();
+        findUnsolved(m_across.length - 1, 0, 0, level, found);
+
+        return found;
+    }
+
+    /**
+     * Adds newly revealed cells to the blocks they are in
+     *
+     * Cells next to each other in the list are usually in the same block,
+     * so each run of them is added to the levels above at once.
+     *
+     * @param cells List of cells
+     * @param from Index in the list of the first newly revealed cell
+     */
+    void addRevealed(CellList cells, int from) {
+        if (m_stale) {
+            return;
+        }
+
+        int run = -1;
+        int count = 0;
+
+        for (int i = from; i < cells.size(); i++) {
+            int block = blockOf(cells.get(i));
+
+            if (block != run) {
+                if (count > 0) {
+                    add(m_revealed, run, count);
+                }
+
+                run = block;
+                count = 0;
+            }
+
+            count++;
+        }
+
+        if (count > 0) {
+            add(m_revealed, run, count);
+        }
+    }
+
+    /**
+     * Adds a tile being diffused or undiffused to its blocks
+     *
+     * @param cell Index of cell
+     * @param change 1 if the tile was diffused, -1 if it was undiffused
+     * @param bomb Whether the tile is a bomb
+     */
+    void addDiffused(int cell, int change, boolean bomb) {
+        if (m_stale) {
+            return;
+        }
+
+        add(m_diffused, blockOf(cell), change);
+
+        if (bomb) {
+            add(m_remaining, blockOf(cell), -change);
+        }
+    }
+
+    /**
+     * Marks the counts as out of date, so they are counted again when next
+     * read
+     */
+    void invalidate() {
+        m_stale = true;
+    }
+
+    /**
+     * Counts the board again if it has changed too much to follow
+     */
+    private void update() {
+        if (!m_stale) {
+            return;
+        }
+
+        for (int level = 0; level < m_across.length; level++) {
+            Arrays.fill(m_revealed[level], 0);
+            Arrays.fill(m_diffused[level], 0);
+            Arrays.fill(m_remaining[level], 0);
+        }
+
+        for (int cell = 0; cell < m_boardSize * m_boardSize; cell++) {
+            int state = m_board.getState(cell);
+            int block = blockOf(cell);
+
+            if ((state & Board.REVEALED) != 0) {
+                m_revealed[0][block]++;
+            }
+
+            if ((state & Board.DIFFUSED) != 0) {
+                m_diffused[0][block]++;
+            } else if ((state & Board.BOMB) != 0) {
+                m_remaining[0][block]++;
+            }
+        }
+
+        // each level sums the 2x2 blocks below it
+        for (int level = 1; level < m_across.length; level++) {
+            for (int block = 0; block < m_revealed[level - 1].length;
+                 block++) {
+                int parent = parentOf(level - 1, block);
+
+                m_revealed[level][parent] += m_revealed[level - 1][block];
+                m_diffused[level][parent] += m_diffused[level - 1][block];
+                m_remaining[level][parent] += m_remaining[level - 1][block];
+            }
+        }
+
+        m_stale = false;
+    }
+
+    /**
+     * Adds to the count of a level 0 block and every block above it
+     *
+     * @param counts Counts to add to
+     * @param block Index of level 0 block
+     * @param delta Amount to add
+     */
+    private void add(int[][] counts, int block, int delta) {
+        for (int level = 0; level < counts.length; level++) {
+            counts[level][block] += delta;
+
+            if (level + 1 < counts.length) {
+                block = parentOf(level, block);
+            }
+        }
+    }
+
+    /**
+     * Adds the unsolved blocks at a level under a block to a list
+     *
+     * @param level Level of the block
+     * @param x X coordinate of block
+     * @param y Y coordinate of block
+     * @param target Level to list blocks at
+     * @param found List to add the blocks to
+     */
+    private void findUnsolved(int level, int x, int y, int target,
+                              CellList found) {
+        int block = (x * m_across[level]) + y;
+
+        if (getTiles(level, x, y) - m_revealed[level][block]
+                == m_diffused[level][block]) {
+            return;
+        }
+
+        if (level == target) {
+            found.add(block);
+            return;
+        }
+
+        // the blocks below that lie on the board
+        for (int i = 2 * x; i <= Math.min((2 * x) + 1,
+                                          m_across[level - 1] - 1); i++) {
+            for (int j = 2 * y; j <= Math.min((2 * y) + 1,
+                                              m_across[level - 1] - 1); j++) {
+                findUnsolved(level - 1, i, j, target, found);
+            }
+        }
+    }
+
+    /**
+     * Gets the level 0 block a cell is in
+     *
+     * @param cell Index of cell
+     * @return Index of block
+     */
+    private int blockOf(int cell) {
+        int x = cell / m_boardSize;
+        int y = cell - (x * m_boardSize);
+
+        return ((x >> BLOCK_BITS) * m_across[0]) + (y >> BLOCK_BITS);
+    }
+
+    /**
+     * Gets the block a block is in at the level above
+     *
+     * @param level Level of the block
+     * @param block Index of block
+     * @return Index of block at the level above
+     */
+    private int parentOf(int level, int block) {
+        int x = block / m_across[level];
+        int y = block - (x * m_across[level]);
+
+        return ((x >> 1) * m_across[level + 1]) + (y >> 1);
+    }
+
+    /**
+     * Gets the index of a block, checking it is on its level
+     *
+     * @param level Level of the pyramid
+     * @param x X coordinate of block
+     * @param y Y coordinate of block
+     * @return Index of block
+     */
+    private int index(int level, int x, int y) {
+        checkLevel(level);
+
+        if ((x < 0) || (x >= m_across[level]) || (y < 0)
+                || (y >= m_across[level])) {
+            throw new IndexOutOfBoundsException("Invalid block: " + x + ","
+                                                + y);
+        }
+
+        return (x * m_across[level]) + y;
+    }
+
+    /**
+     * Checks a level is in the pyramid
+     *
+     * @param level Level of the pyramid
+     */
+    private void checkLevel(int level) {
+        if ((level < 0) || (level >= m_across.length)) {
+            throw new IndexOutOfBoundsException("Invalid level: " + level);
+        }
+    }
+
+    /**
+     * Gets the number of blocks needed to cover a board
+     *
+     * @param boardSize Width and height of the board
+     * @param bits Width and height of a block, as a power of two
+     * @return Number of blocks across
+     */
+    private static int blocksAcross(int boardSize, int bits) {
+        return (int) ((((long) boardSize - 1) >> bits) + 1);
+    }
+}
@@ -1,6 +1,18 @@
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
 
 public class TestSuite {
 
@@ -14,4 +26,1390 @@ public class TestSuite {
         assertEquals("Hugo", Hugo.produceHugo(2));
     }
 
+    @Test
+    public void testRevealOpensEmptyBoard() {
+        Board board = new Board(0, 100);
+        CellList revealed = board.reveal(50, 50);
+
+        assertEquals(100 * 100, revealed.size());
+        assertEquals(0, board.getHidden());
+        assertTrue(board.isRevealed(0, 99));
+    }
+
+    @Test
+    public void testRevealStopsAtDiffusedTiles() {
+        Board board = new Board(0, 5);
+
+        // wall off the first two rows
+        for (int y = 0; y < 5; y++) {
+            board.toggleDiffused(2, y);
+        }
+
+        CellList revealed = board.reveal(0, 0);
+
+        assertEquals(10, revealed.size());
+        assertFalse(board.isRevealed(2, 0));
+        assertFalse(board.isRevealed(4, 4));
+    }
+
+    @Test
+    public void testSameSeedPlacesSameBombs() {
+        Board first = new Board(40, 20, 1234L);
+        Board second = new Board(40, 20, 1234L);
+        int bombs = 0;
+
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                assertEquals(first.isBomb(x, y), second.isBomb(x, y));
+
+                if (first.isBomb(x, y)) {
+                    bombs++;
+                }
+            }
+        }
+
+        assertEquals(40, bombs);
+    }
+
+    @Test
+    public void testUndoRestoresBoard() {
+        Board board = new Board(0, 10);
+        Board copy = board.copy();
+
+        board.toggleDiffused(0, 0);
+        board.reveal(5, 5);
+
+        assertTrue(board.undo());
+        assertEquals(0, board.getRevealed());
+        assertTrue(board.isDiffused(0, 0));
+
+        assertTrue(board.redo());
+        assertEquals(99, board.getRevealed());
+        assertFalse(copy.isDiffused(0, 0));
+        assertEquals(0, copy.getRevealed());
+    }
+
+    @Test
+    public void testRevealOpensBoardTooLargeToIndex() {
+        Board board = new Board(0, 2100);
+        CellList revealed = board.reveal(0, 0);
+
+        assertEquals(2100 * 2100, revealed.size());
+        assertTrue(board.isRevealed(2099, 2099));
+    }
+
+    @Test
+    public void testLargeOpeningMatchesBitBoard() {
+        Board board = new Board(3000, 2100, 8L, true);
+        BitBoard bits = new BitBoard(3000, 2100, 8L, true);
+
+        // the opening grows past what is filled one span at a time
+        assertEquals(bits.reveal(1050, 1050),
+                     board.reveal(1050, 1050).size());
+        assertTrue(board.getRevealed() > 1 << 20);
+        assertEquals(bits.getRevealed(), board.getRevealed());
+
+        for (int x = 0; x < 2100; x++) {
+            for (int y = 0; y < 2100; y++) {
+                assertEquals(bits.isRevealed(x, y), board.isRevealed(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testOpeningTooLargeToListIsCounted() {
+        Board board = new Board(0, 4100);
+        BoardEvents.Reader reader = board.getEvents().newReader();
+        CellList revealed = board.reveal(0, 0);
+
+        assertEquals(0, revealed.size());
+        assertEquals(4100 * 4100, board.getRevealed());
+        assertEquals(0, board.getHidden());
+        assertTrue(board.isWon());
+        assertEquals(BoardEvents.BOARD_CHANGED,
+                     BoardEvents.getType(reader.poll()));
+        assertEquals(BoardEvents.EMPTY, reader.poll());
+    }
+
+    @Test
+    public void testFirstClickIsSafe() {
+        for (long seed = 0; seed < 100; seed++) {
+            Board board = new Board(90, 10, seed, true);
+
+            assertFalse(board.isPlaced());
+            board.reveal(5, 5);
+
+            assertTrue(board.isPlaced());
+            assertFalse(board.isLost());
+            assertEquals(0, board.getAdjacentBombs(5, 5));
+        }
+    }
+
+    @Test
+    public void testSquareTopologyMatchesBoard() {
+        Board board = new Board(40, 20, 7L, false);
+        TopologyBoard shaped = new TopologyBoard(Topology.square(20), 40, 7L);
+
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                assertEquals(board.isBomb(x, y), shaped.isBomb((x * 20) + y));
+                assertEquals(board.getAdjacentBombs(x, y),
+                             shaped.getAdjacentBombs((x * 20) + y));
+            }
+        }
+    }
+
+    @Test
+    public void testBatchMatchesSingleMoves() {
+        Board single = new Board(20, 15, 3L, true);
+        Board batched = new Board(20, 15, 3L, true);
+
+        single.reveal(7, 7);
+        single.toggleDiffused(0, 0);
+        single.reveal(14, 14);
+
+        BatchResult result = batched.applyBatch(new long[] {
+            batched.encodeAction(GameJournal.REVEAL, 7, 7),
+            batched.encodeAction(GameJournal.DIFFUSE, 0, 0),
+            batched.encodeAction(GameJournal.REVEAL, 14, 14)
+        });
+
+        assertEquals(single.getRevealed(), result.getRevealed());
+        assertEquals(single.getDiffused(), result.getDiffused());
+        assertEquals(single.isLost(), result.isLost());
+        assertTrue(batched.undo());
+        assertEquals(0, batched.getRevealed());
+    }
+
+    @Test
+    public void testEventsListRevealedCells() {
+        Board board = new Board(10, 20, 5L, false);
+        BoardEvents.Reader reader = board.getEvents().newReader();
+        CellList revealed = board.reveal(10, 10);
+
+        for (int i = 0; i < revealed.size(); i++) {
+            long event = reader.poll();
+
+            assertEquals(BoardEvents.REVEALED, BoardEvents.getType(event));
+            assertEquals(revealed.get(i), BoardEvents.getCell(event));
+        }
+
+        assertEquals(BoardEvents.EMPTY, reader.poll());
+    }
+
+    @Test
+    public void testSummaryFollowsMoves() {
+        Board board = new Board(400, 150, 9L, true);
+        SummaryPyramid summary = board.getSummary();
+        int top = summary.getLevels() - 1;
+
+        board.reveal(75, 75);
+        board.toggleDiffused(0, 0);
+
+        assertEquals(1, summary.getBlocksAcross(top));
+        assertEquals(board.getRevealed(), summary.getRevealed(top, 0, 0));
+        assertEquals(board.getHidden(), summary.getHidden(top, 0, 0));
+        assertEquals(board.getDiffused(), summary.getDiffused(top, 0, 0));
+    }
+
+    @Test
+    public void testSolverMovesAreSafe() {
+        for (long seed = 0; seed < 20; seed++) {
+            Board board = new Board(150, 30, seed, true);
+            Solver solver = new Solver(board);
+
+            board.reveal(15, 15);
+
+            for (long move : solver.nextMoves()) {
+                int cell = (int) move;
+                boolean bomb = board.isBomb(board.getX(cell),
+                                            board.getY(cell));
+
+                assertEquals((move >>> 32) == GameJournal.DIFFUSE, bomb);
+            }
+        }
+    }
+
+    @Test
+    public void testChancesAddUpToBombsLeft() {
+        Board board = new Board(12, 8, 4L, true);
+        Solver solver = new Solver(board);
+        ProbabilityEngine engine = new ProbabilityEngine(board, solver);
+        double expected = 0;
+
+        board.reveal(0, 0);
+        solver.nextMoves();
+        engine.update();
+
+        for (int cell = 0; cell < 64; cell++) {
+            if (!board.isRevealed(board.getX(cell), board.getY(cell))) {
+                expected += engine.getChance(cell);
+            }
+        }
+
+        assertEquals(12, expected, 1e-9);
+    }
+
+    @Test
+    public void testPatternCacheFindsSameMoves() {
+        PatternCache patterns = new PatternCache();
+
+        for (long seed = 0; seed < 20; seed++) {
+            Board cached = new Board(150, 30, seed, true);
+            Board plain = new Board(150, 30, seed, true);
+
+            cached.reveal(15, 15);
+            plain.reveal(15, 15);
+
+            long[] found = new Solver(cached, patterns).nextMoves();
+            long[] expected = new Solver(plain).nextMoves();
+
+            Arrays.sort(found);
+            Arrays.sort(expected);
+
+            assertArrayEquals(expected, found);
+        }
+
+        assertTrue(patterns.getHits() + patterns.getMisses() > 0);
+    }
+
+    @Test
+    public void testSimulationIsRepeatable() {
+        try (SimulationRunner one = new SimulationRunner(1);
+             SimulationRunner two = new SimulationRunner(2)) {
+            SimulationResult first = one.run(10, 9, 200, 3L);
+            SimulationResult second = two.run(10, 9, 200, 3L);
+
+            assertEquals(200, first.getGames());
+            assertEquals(first.getWins(), second.getWins());
+            assertEquals(first.getAverageMoves(), second.getAverageMoves(),
+                         0);
+            assertTrue(first.getWinRateLow() <= first.getWinRate());
+            assertTrue(first.getWinRate() <= first.getWinRateHigh());
+        }
+    }
+
+    @Test
+    public void testNoGuessBoardIsSolvable() throws InterruptedException {
+        try (NoGuessGenerator one = new NoGuessGenerator(1);
+             NoGuessGenerator two = new NoGuessGenerator(2)) {
+            Board board = one.generate(40, 16, 11L);
+
+            assertEquals(board.getSeed(), two.generate(40, 16, 11L).getSeed());
+            assertTrue(board.isPlaced());
+            assertTrue(NoGuessGenerator.isSolvable(board));
+        }
+    }
+
+    @Test
+    public void testBoardPoolGivesBoardsOfConfig() {
+        try (BoardPool pool = new BoardPool()) {
+            pool.prepare(10, 9, false);
+
+            Board board = pool.take(10, 9);
+
+            assertEquals(10, board.getBombCount());
+            assertEquals(9, board.getBoardSize());
+            assertFalse(board.isPlaced());
+        }
+    }
+
+    @Test
+    public void testBoardPoolCancelsOtherConfigs() throws Exception {
+        try (BoardPool pool = new BoardPool()) {
+
+            // boards this dense take a long time to find, if ever
+            pool.prepare(400, 30, true);
+            Thread.sleep(100);
+            pool.prepare(10, 9, false);
+
+            long deadline = System.nanoTime() + 5_000_000_000L;
+
+            while ((pool.getReady(10, 9, false) < 2)
+                   && (System.nanoTime() < deadline)) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(2, pool.getReady(10, 9, false));
+            assertEquals(0, pool.getReady(400, 30, true));
+        }
+    }
+
+    @Test
+    public void testHintIsSafestTile() {
+        Board board = new Board(40, 16, 6L, true);
+
+        assertEquals(8 * 17, HintWorker.work(board, 0).getCell());
+
+        board.reveal(8, 8);
+
+        HintWorker.Hint hint = HintWorker.work(board, 1);
+
+        assertTrue(Double.isNaN(hint.getChance(8 * 17)));
+        assertFalse(board.isBomb(board.getX(hint.getCell()),
+                                 board.getY(hint.getCell())));
+    }
+
+    @Test
+    public void testArenaForfeitsInvalidMoves() throws InterruptedException {
+        List<Supplier<BotStrategy>> bots = new ArrayList<>();
+
+        bots.add(ComputerStrategy::new);
+        bots.add(() -> new BotStrategy() {
+            @Override
+            public String getName() {
+                return "Invalid";
+            }
+
+            @Override
+            public long nextMove(BoardView view) {
+                return -1;
+            }
+        });
+
+        try (BotArena arena = new BotArena()) {
+            List<BotResult> results = arena.run(bots, 10, 9, 20, 0L, 1000);
+
+            assertEquals("Computer", results.get(0).getName());
+            assertEquals(20, results.get(0).getGames());
+            assertEquals(0, results.get(0).getForfeits());
+            assertEquals(20, results.get(1).getForfeits());
+        }
+    }
+
+    @Test
+    public void testEndlessFillCrossesChunks() {
+        EndlessBoard board = new EndlessBoard(0, 1L);
+
+        // wall in the tiles 61 to 69 across and down, over a chunk corner
+        for (int i = 60; i <= 70; i++) {
+            board.toggleDiffused(i, 60);
+            board.toggleDiffused(i, 70);
+        }
+
+        for (int i = 61; i < 70; i++) {
+            board.toggleDiffused(60, i);
+            board.toggleDiffused(70, i);
+        }
+
+        assertEquals(81, board.reveal(65, 65));
+        assertTrue(board.isRevealed(61, 61));
+        assertTrue(board.isRevealed(69, 69));
+        assertFalse(board.isRevealed(71, 65));
+    }
+
+    @Test
+    public void testEndlessChunkSurvivesPacking() {
+        EndlessBoard board = new EndlessBoard(0.5, 2L, 1);
+        int x = 0;
+
+        while (board.isBomb(x, 5)) {
+            x++;
+        }
+
+        board.toggleDiffused(1, 2);
+        board.reveal(x, 5);
+
+        boolean empty = (board.getAdjacentBombs(x, 5) == 0);
+        long revealed = board.getRevealed();
+
+        // touching a far chunk packs the first away
+        board.toggleDiffused(1000, 1000);
+
+        assertEquals(1, board.getResidentChunks());
+        assertEquals(1, board.getPackedChunks());
+        assertTrue(board.isDiffused(1, 2));
+        assertTrue(board.isRevealed(x, 5));
+        assertEquals(empty, board.isRevealed(x + 1, 5)
+                            && board.isRevealed(x, 6));
+        assertEquals(revealed, board.getRevealed());
+        assertEquals(2, board.getDiffused());
+    }
+
+    @Test
+    public void testEndlessPackedChunksKeepTheirTiles() {
+        EndlessBoard board = new EndlessBoard(0.2, 3L, 4);
+
+        // scatter flags over a long walk, so each chunk packs badly
+        for (int step = 0; step < 2000; step++) {
+            for (int i = 0; i < 64; i += 3) {
+                board.toggleDiffused((step * 64) + i, (i * 7) % 64);
+            }
+
+            // no packed chunk takes more than a quarter of its array
+            assertTrue(board.getPackedBytes()
+                       <= board.getPackedChunks() * (1024L + 64));
+        }
+
+        assertEquals(2000 * 22, board.getDiffused());
+
+        for (int step = 0; step < 2000; step += 111) {
+            for (int i = 0; i < 64; i++) {
+                assertEquals(i % 3 == 0,
+                             board.isDiffused((step * 64) + i,
+                                              (i * 7) % 64));
+            }
+        }
+
+        // a chequered chunk is kept as bits, and comes back the same
+        for (int i = 0; i < 64; i++) {
+            for (int j = i % 2; j < 64; j += 2) {
+                board.toggleDiffused(i, -64 + j);
+            }
+        }
+
+        board.reveal(-2, -1);
+
+        for (int step = 0; step < 4; step++) {
+            board.toggleDiffused(step * 64, 1000);
+        }
+
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 64; j++) {
+                assertEquals((i + j) % 2 == 0,
+                             board.isDiffused(i, -64 + j));
+            }
+        }
+
+        assertTrue(board.isRevealed(-2, -1));
+    }
+
+    @Test
+    public void testBoardPoolSkipsHugeBoards() {
+        try (BoardPool pool = new BoardPool()) {
+            pool.prepare(0, 4097, false);
+
+            assertEquals(0, pool.getReady(0, 4097, false));
+            assertNull(pool.poll(0, 4097, false));
+        }
+    }
+
+    @Test
+    public void testSimulationSharesPatternCache() {
+        try (SimulationRunner cached = new SimulationRunner(2,
+                                                            new PatternCache());
+             SimulationRunner plain = new SimulationRunner(2)) {
+            SimulationResult first = cached.run(10, 9, 200, 3L);
+            SimulationResult second = plain.run(10, 9, 200, 3L);
+
+            assertEquals(first.getWins(), second.getWins());
+            assertEquals(first.getAverageMoves(), second.getAverageMoves(),
+                         0);
+            assertTrue(first.getPatternHits() > 0);
+            assertEquals(cached.getPatterns().getHits()
+                         + cached.getPatterns().getMisses(),
+                         first.getPatternHits() + first.getPatternMisses());
+            assertEquals(0, second.getPatternHits()
+                            + second.getPatternMisses());
+        }
+    }
+
+    @Test
+    public void testRemainingBombsWaitForEnd() {
+        Board board = new Board(10, 10, 8L, false);
+        SummaryPyramid summary = board.getSummary();
+        int top = summary.getLevels() - 1;
+        int cell = 0;
+
+        try {
+            summary.getRemainingBombs(top, 0, 0);
+            fail("Bombs given away mid-game");
+        } catch (IllegalStateException e) {
+            assertFalse(board.isLost());
+        }
+
+        while (!board.isBomb(board.getX(cell), board.getY(cell))) {
+            cell++;
+        }
+
+        board.reveal(board.getX(cell), board.getY(cell));
+
+        assertEquals(10, summary.getRemainingBombs(top, 0, 0));
+    }
+
+    @Test
+    public void testSavedBoardOpensTheSame() throws IOException {
+        Path file = Files.createTempFile("kablewie", ".board");
+
+        try {
+            Board board = new Board(30, 12, 5L, true);
+
+            // diffused before the bombs are placed
+            board.toggleDiffused(0, 0);
+            board.save(file);
+
+            Board opened = Board.open(file);
+
+            assertFalse(opened.isPlaced());
+            assertSameBoard(board, opened);
+
+            // the stored seed places the same bombs for the same click
+            board.reveal(6, 6);
+            opened.reveal(6, 6);
+            assertSameBoard(board, opened);
+
+            int cell = 0;
+
+            while (!board.isBomb(board.getX(cell), board.getY(cell))) {
+                cell++;
+            }
+
+            board.reveal(board.getX(cell), board.getY(cell));
+            board.save(file);
+
+            Board lost = Board.open(file);
+
+            assertTrue(lost.isLost());
+            assertSameBoard(board, lost);
+
+            Board won = new Board(0, 7);
+
+            won.reveal(3, 3);
+            won.save(file);
+
+            Board reopened = Board.open(file);
+
+            assertTrue(reopened.isWon());
+            assertSameBoard(won, reopened);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testOpenedBoardWritesThrough() throws IOException {
+        Path file = Files.createTempFile("kablewie", ".board");
+
+        try {
+            new Board(30, 12, 5L, true).save(file);
+
+            Board opened = Board.open(file);
+
+            assertTrue(opened.isKeptInFile());
+            opened.reveal(6, 6);
+            opened.toggleDiffused(0, 11);
+            opened.flush();
+
+            assertSameBoard(opened, Board.open(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRestoredFileBoardStaysInFile() throws IOException {
+        Path file = Files.createTempFile("kablewie", ".board");
+
+        try {
+            Board board = new Board(30, 12, 5L, file);
+            Board marked;
+
+            board.reveal(6, 6);
+            board.mark("start");
+            marked = board.copy();
+
+            board.toggleDiffused(0, 11);
+            board.reveal(0, 0);
+            board.restore("start");
+
+            // the board is back where it was and still kept in the file
+            assertTrue(board.isKeptInFile());
+            assertFalse(board.canUndo());
+            assertSameBoard(marked, board);
+
+            board.toggleDiffused(11, 0);
+            board.flush();
+
+            assertSameBoard(board, Board.open(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Checks two boards have the same cells, counters and first click
+     *
+     * @param expected Board to match
+     * @param actual Board to check
+     */
+    private static void assertSameBoard(Board expected, Board actual) {
+        int size = expected.getBoardSize();
+
+        assertEquals(size, actual.getBoardSize());
+        assertEquals(expected.getFirstClick(), actual.getFirstClick());
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                assertEquals(expected.isBomb(x, y), actual.isBomb(x, y));
+                assertEquals(expected.isRevealed(x, y),
+                             actual.isRevealed(x, y));
+                assertEquals(expected.isDiffused(x, y),
+                             actual.isDiffused(x, y));
+                assertEquals(expected.getAdjacentBombs(x, y),
+                             actual.getAdjacentBombs(x, y));
+            }
+        }
+
+        assertEquals(expected.getRevealed(), actual.getRevealed());
+        assertEquals(expected.getHidden(), actual.getHidden());
+        assertEquals(expected.getDiffused(), actual.getDiffused());
+        assertEquals(expected.isWon(), actual.isWon());
+        assertEquals(expected.isLost(), actual.isLost());
+    }
+
+    @Test
+    public void testJournalSeeksToEveryMove() throws IOException {
+        Path file = Files.createTempFile("kablewie", ".journal");
+
+        try {
+            List<Board> states = recordGame(file);
+            JournalReplay replay = JournalReplay.open(file);
+
+            assertEquals(states.size() - 1, replay.getMoveCount());
+            assertEquals(GameJournal.UNDO, replay.getType(4));
+
+            // before the first keyframe, on one, and at the end
+            for (int moves : new int[] {0, 1, 2, 3, states.size() - 1}) {
+                assertSameBoard(states.get(moves), replay.seek(moves));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testJournalCutShortReplaysWholeRecords()
+            throws IOException {
+        Path file = Files.createTempFile("kablewie", ".journal");
+
+        try {
+            List<Board> states = recordGame(file);
+            byte[] bytes = Files.readAllBytes(file);
+
+            // cut the last record short
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+
+            JournalReplay replay = JournalReplay.open(file);
+            int moves = replay.getMoveCount();
+
+            assertTrue(moves >= states.size() - 2);
+            assertTrue(moves <= states.size() - 1);
+            assertSameBoard(states.get(moves), replay.seek(moves));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testJournalRejectsUnknownRecords() throws IOException {
+        Path file = Files.createTempFile("kablewie", ".journal");
+
+        try {
+            recordGame(file);
+
+            // a record of a type no journal writes, with room for a keyframe
+            Files.write(file, new byte[] {9}, StandardOpenOption.APPEND);
+            Files.write(file, new byte[64], StandardOpenOption.APPEND);
+
+            try {
+                JournalReplay.open(file);
+                fail("Opened a journal with an unknown record");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("9"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testJournalStopsOnWriteError()
+            throws IOException, InterruptedException {
+        Path full = Paths.get("/dev/full");
+
+        assumeTrue(Files.isWritable(full));
+
+        Board board = new Board(20, 12, 7L, true);
+        GameJournal journal = new GameJournal(full, board, 3);
+
+        board.setJournal(journal);
+
+        // the writer flushes, and fails, once it runs out of records
+        for (int i = 0; (i < 500) && (journal.getError() == null); i++) {
+            Thread.sleep(10);
+        }
+
+        assertNotNull(journal.getError());
+
+        // moves are still made, but no longer recorded
+        board.reveal(6, 6);
+        assertTrue(board.isRevealed(6, 6));
+
+        try {
+            journal.close();
+            fail("Closed a journal that couldn't be written");
+        } catch (IOException e) {
+            assertSame(journal.getError(), e);
+        }
+    }
+
+    /**
+     * Records a game with an undo in it, keyframing every three moves
+     *
+     * @param file Journal file to write
+     * @return Copy of the board before any moves and after each move
+     * @throws IOException If the journal can't be written
+     */
+    private static List<Board> recordGame(Path file) throws IOException {
+        Board board = new Board(20, 12, 7L, true);
+        List<Board> states = new ArrayList<>();
+
+        try (GameJournal journal = new GameJournal(file, board, 3)) {
+            board.setJournal(journal);
+            states.add(board.copy());
+
+            // diffused before the first click places the bombs
+            board.toggleDiffused(0, 0);
+            states.add(board.copy());
+            board.reveal(6, 6);
+            states.add(board.copy());
+
+            for (int cell = 0; (cell < 144) && (states.size() < 12); cell++) {
+                int x = board.getX(cell);
+                int y = board.getY(cell);
+
+                if (board.isRevealed(x, y) || board.isDiffused(x, y)) {
+                    continue;
+                }
+
+                if (board.isBomb(x, y)) {
+                    board.toggleDiffused(x, y);
+                } else {
+                    board.reveal(x, y);
+                }
+
+                states.add(board.copy());
+
+                if (states.size() == 5) {
+                    assertTrue(board.undo());
+                    states.add(board.copy());
+                }
+            }
+
+            board.setJournal(null);
+        }
+
+        return states;
+    }
+
+    @Test
+    public void testBitBoardMatchesBoard() {
+        SplittableRandom random = new SplittableRandom(12L);
+
+        // 64 and 65 sit either side of a word boundary
+        for (int size : new int[] {9, 64, 65, 100}) {
+            for (double density : new double[] {0.1, 0.2, 0.6}) {
+                int bombCount = (int) (size * size * density);
+                long seed = random.nextLong();
+                Board board = new Board(bombCount, size, seed, true);
+                BitBoard bits = new BitBoard(bombCount, size, seed, true);
+
+                assertEquals(board.reveal(size / 2, size / 2).size(),
+                             bits.reveal(size / 2, size / 2));
+
+                for (int move = 0; move < 20; move++) {
+                    int x = random.nextInt(size);
+                    int y = random.nextInt(size);
+
+                    if (board.isBomb(x, y)) {
+                        board.toggleDiffused(x, y);
+                        bits.toggleDiffused(x, y);
+                    } else {
+                        assertEquals(board.reveal(x, y).size(),
+                                     bits.reveal(x, y));
+                    }
+                }
+
+                for (int x = 0; x < size; x++) {
+                    for (int y = 0; y < size; y++) {
+                        assertEquals(board.isBomb(x, y), bits.isBomb(x, y));
+                        assertEquals(board.isRevealed(x, y),
+                                     bits.isRevealed(x, y));
+                        assertEquals(board.isDiffused(x, y),
+                                     bits.isDiffused(x, y));
+                        assertEquals(board.getAdjacentBombs(x, y),
+                                     bits.getAdjacentBombs(x, y));
+                    }
+                }
+
+                assertEquals(board.getHidden(), bits.getHidden());
+                assertEquals(board.isWon(), bits.isWon());
+                assertEquals(board.isLost(), bits.isLost());
+            }
+        }
+    }
+
+    @Test
+    public void testRegionIndexMatchesFill() {
+        SplittableRandom random = new SplittableRandom(21L);
+
+        for (long seed = 0; seed < 20; seed++) {
+            Board board = new Board(150, 40, seed, false);
+            int cell = random.nextInt(40 * 40);
+
+            // find an empty tile, whose region is indexed
+            while (board.isBomb(board.getX(cell), board.getY(cell))
+                    || (board.getAdjacentBombs(board.getX(cell),
+                                               board.getY(cell)) != 0)) {
+                cell = (cell + 1) % (40 * 40);
+            }
+
+            Board walked = board.copy();
+            int[] expected = board.copy().fillRegion(cell).toArray();
+            int[] found = walked.reveal(walked.getX(cell),
+                                        walked.getY(cell)).toArray();
+
+            Arrays.sort(expected);
+            Arrays.sort(found);
+            assertArrayEquals(expected, found);
+
+            // diffusing an empty tile of the region blocks the walk
+            int blocked = -1;
+
+            for (int other : expected) {
+                if ((other != cell) && (board.getAdjacentBombs(
+                        board.getX(other), board.getY(other)) == 0)) {
+                    blocked = other;
+                    break;
+                }
+            }
+
+            if (blocked < 0) {
+                continue;
+            }
+
+            Board filled = board.copy();
+            Board diffused = board.copy();
+
+            filled.toggleDiffused(filled.getX(blocked), filled.getY(blocked));
+            diffused.toggleDiffused(diffused.getX(blocked),
+                                    diffused.getY(blocked));
+
+            expected = filled.fillRegion(cell).toArray();
+            found = diffused.reveal(diffused.getX(cell),
+                                    diffused.getY(cell)).toArray();
+
+            Arrays.sort(expected);
+            Arrays.sort(found);
+            assertArrayEquals(expected, found);
+            assertFalse(diffused.isRevealed(diffused.getX(blocked),
+                                            diffused.getY(blocked)));
+        }
+    }
+
+    @Test
+    public void testTopologyNeighbourCounts() {
+        Topology hex = Topology.hex(5);
+
+        // interior tiles of an even and an odd row
+        assertEquals(6, hex.getDegree((2 * 5) + 2));
+        assertEquals(6, hex.getDegree((1 * 5) + 2));
+
+        for (int size : new int[] {1, 2, 3, 5}) {
+            Topology torus = Topology.torus(size);
+
+            for (int cell = 0; cell < size * size; cell++) {
+                assertEquals(8, torus.getDegree(cell));
+            }
+        }
+
+        Topology cube = Topology.cube(3);
+
+        assertEquals(26, cube.getDegree((((1 * 3) + 1) * 3) + 1));
+        assertEquals(7, cube.getDegree(0));
+    }
+
+    @Test
+    public void testTopologyFillRevealsEveryShape() {
+        Topology[] shapes = {
+            Topology.square(9), Topology.hex(9), Topology.torus(9),
+            Topology.torus(2), Topology.cube(5)
+        };
+
+        for (Topology shape : shapes) {
+            TopologyBoard board = new TopologyBoard(shape, 0, 1L);
+
+            assertEquals(shape.getCellCount(), board.reveal(0).size());
+            assertEquals(0, board.getHidden());
+            assertTrue(board.isWon());
+        }
+    }
+
+    @Test
+    public void testArenaForfeitsSlowMoves() throws InterruptedException {
+        List<Supplier<BotStrategy>> bots = new ArrayList<>();
+
+        bots.add(() -> new BotStrategy() {
+            @Override
+            public String getName() {
+                return "Slow";
+            }
+
+            @Override
+            public long nextMove(BoardView view) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return view.encodeMove(GameJournal.REVEAL, 0, 0);
+            }
+        });
+        bots.add(ComputerStrategy::new);
+
+        try (BotArena arena = new BotArena()) {
+            long start = System.nanoTime();
+            List<BotResult> results = arena.run(bots, 10, 9, 3, 0L, 50);
+
+            assertEquals(3, results.get(0).getGames());
+            assertEquals(3, results.get(0).getForfeits());
+            assertEquals(0, results.get(0).getWins());
+            assertEquals(3, results.get(1).getGames());
+            assertEquals(0, results.get(1).getForfeits());
+            assertTrue(System.nanoTime() - start < 4_000_000_000L);
+        }
+    }
+
+    @Test
+    public void testArenaCountsWinOnLastMove() throws InterruptedException {
+        List<Supplier<BotStrategy>> bots = new ArrayList<>();
+
+        // wins a 2x2 board with no bombs on its sixteenth move, the most
+        // allowed, by revealing a diffused tile until then
+        bots.add(() -> new BotStrategy() {
+            private int m_moves;
+
+            @Override
+            public String getName() {
+                return "Last";
+            }
+
+            @Override
+            public long nextMove(BoardView view) {
+                m_moves++;
+
+                if ((m_moves == 1) || (m_moves == 15)) {
+                    return view.encodeMove(GameJournal.DIFFUSE, 0, 0);
+                }
+
+                return view.encodeMove(GameJournal.REVEAL, 0, 0);
+            }
+        });
+
+        try (BotArena arena = new BotArena()) {
+            BotResult result = arena.run(bots, 0, 2, 3, 0L, 1000).get(0);
+
+            assertEquals(48, result.getMoves());
+            assertEquals(3, result.getWins());
+            assertEquals(0, result.getForfeits());
+        }
+    }
+
+    @Test
+    public void testCancelledChancesStayAsTheyWere() {
+        Board board = new Board(12, 8, 4L, true);
+        Solver solver = new Solver(board);
+        ProbabilityEngine engine = new ProbabilityEngine(board, solver);
+
+        board.reveal(0, 0);
+        solver.nextMoves();
+
+        assertFalse(engine.update(() -> true));
+        assertTrue(Double.isNaN(engine.getOtherChance()));
+
+        // the components cancelled part way are counted in full next time
+        assertTrue(engine.update(() -> false));
+        assertTrue(engine.isExact());
+        assertFalse(Double.isNaN(engine.getOtherChance()));
+    }
+
+    @Test
+    public void testFirstClickCountsLargeBoard() {
+        Board board = new Board(2000, 400, 6L, true);
+
+        board.reveal(200, 200);
+
+        // every count is checked against the bombs, while the undo
+        // snapshot shares the cells the count wrote
+        for (int x = 0; x < 400; x++) {
+            for (int y = 0; y < 400; y++) {
+                int count = 0;
+
+                for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, 399);
+                     i++) {
+                    for (int j = Math.max(y - 1, 0);
+                         j <= Math.min(y + 1, 399); j++) {
+                        if (((i != x) || (j != y)) && board.isBomb(i, j)) {
+                            count++;
+                        }
+                    }
+                }
+
+                assertEquals(count, board.getAdjacentBombs(x, y));
+            }
+        }
+
+        // the snapshot still holds the board before the bombs went in
+        assertTrue(board.undo());
+        assertFalse(board.isPlaced());
+
+        for (int x = 0; x < 400; x++) {
+            for (int y = 0; y < 400; y++) {
+                assertFalse(board.isBomb(x, y));
+                assertEquals(0, board.getAdjacentBombs(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testAdjacentCountTaskMatchesSequentialCount() {
+        int size = 700;
+        HeapCellStore cells = new HeapCellStore(size * size);
+        SplittableRandom random = new SplittableRandom(5L);
+
+        // a few bombs, with the corners among them
+        for (int cell : new int[] {0, size - 1, size * (size - 1),
+                                   (size * size) - 1}) {
+            cells.set(cell, (byte) Board.BOMB);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            cells.set(random.nextInt(size * size), (byte) Board.BOMB);
+        }
+
+        CellStore snapshot = cells.snapshot();
+
+        // the board is split into bands counted as separate tasks
+        cells.claimAll();
+        new AdjacentCountTask(cells, size, 0, size).invoke();
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int count = 0;
+
+                for (int i = Math.max(x - 1, 0);
+                     i <= Math.min(x + 1, size - 1); i++) {
+                    for (int j = Math.max(y - 1, 0);
+                         j <= Math.min(y + 1, size - 1); j++) {
+                        if (((i != x) || (j != y))
+                                && ((cells.get((i * size) + j)
+                                     & Board.BOMB) != 0)) {
+                            count++;
+                        }
+                    }
+                }
+
+                int cell = (x * size) + y;
+
+                assertEquals(count, cells.get(cell) & Board.ADJACENT_MASK);
+                assertEquals(cells.get(cell) & Board.BOMB,
+                             snapshot.get(cell) & Board.BOMB);
+                assertEquals(0, snapshot.get(cell) & Board.ADJACENT_MASK);
+            }
+        }
+    }
+
+    @Test
+    public void testPatternHashFollowsMoves() {
+        PatternCache patterns = new PatternCache();
+
+        for (long seed = 0; seed < 10; seed++) {
+            Board board = new Board(100, 24, seed, true);
+            Solver solver = new Solver(board, patterns);
+
+            board.reveal(12, 12);
+
+            while (!board.isWon() && !board.isLost()) {
+                long[] moves = solver.nextMoves();
+
+                // the hashes kept as tiles changed match hashing afresh
+                for (int cell = solver.nextFrontier(0); cell >= 0;
+                     cell = solver.nextFrontier(cell + 1)) {
+                    assertEquals(hashPattern(board, solver, cell),
+                                 solver.getPattern(cell));
+                }
+
+                if (moves.length > 0) {
+                    board.applyBatch(moves);
+                    continue;
+                }
+
+                // guess the first tile that isn't known to be a bomb
+                int guess = 0;
+
+                while (board.isRevealed(board.getX(guess), board.getY(guess))
+                       || solver.isKnownBomb(guess)) {
+                    guess++;
+                }
+
+                board.reveal(board.getX(guess), board.getY(guess));
+            }
+        }
+
+        assertTrue(patterns.getHits() > 0);
+    }
+
+    private static long hashPattern(Board board, Solver solver, int cell) {
+        int size = board.getBoardSize();
+        int x = cell / size;
+        int y = cell % size;
+        int[] unknown = new int[8];
+        long hash = 0;
+
+        for (int dx = -PatternCache.REACH; dx <= PatternCache.REACH; dx++) {
+            for (int dy = -PatternCache.REACH; dy <= PatternCache.REACH;
+                 dy++) {
+                int i = x + dx;
+                int j = y + dy;
+                int other = (i * size) + j;
+                boolean inside = (i >= 0) && (i < size) && (j >= 0)
+                                 && (j < size);
+                int tileClass = PatternCache.SETTLED;
+
+                if (inside && !board.isRevealed(i, j)) {
+                    if (!solver.isKnownBomb(other)
+                            && !solver.isKnownSafe(other)) {
+                        tileClass = PatternCache.UNKNOWN;
+                    }
+                } else if (inside && (Math.abs(dx) < PatternCache.REACH)
+                           && (Math.abs(dy) < PatternCache.REACH)
+                           && (solver.getUnknown(other, unknown) > 0)) {
+                    tileClass = PatternCache.NEEDS + solver.getNeeded(other);
+                }
+
+                hash ^= PatternCache.key(dx, dy, tileClass);
+            }
+        }
+
+        return hash;
+    }
+
+    @Test
+    public void testComputerStrategyPlaysFromTheView()
+            throws InterruptedException {
+        List<Supplier<BotStrategy>> bots = new ArrayList<>();
+
+        bots.add(ComputerStrategy::new);
+
+        // the strategy's own board only knows what the view shows, yet it
+        // plays about as well as the computer player does on the board
+        try (BotArena arena = new BotArena();
+             SimulationRunner runner = new SimulationRunner(1)) {
+            BotResult result = arena.run(bots, 40, 16, 100, 0L, 1000).get(0);
+            SimulationResult expected = runner.run(40, 16, 100);
+
+            assertEquals(0, result.getForfeits());
+            assertTrue(result.getWins() > expected.getWins() - 20);
+        }
+    }
+
+    @Test
+    public void testCellBytesPackBoardState() throws IOException {
+        int bits = Board.ADJACENT_MASK | Board.BOMB | Board.REVEALED
+                   | Board.DIFFUSED;
+
+        // the fields of a cell don't overlap and fit in a positive byte
+        assertEquals(Integer.bitCount(Board.ADJACENT_MASK) + 3,
+                     Integer.bitCount(bits));
+        assertEquals(0, bits & ~0x7F);
+
+        Path file = Files.createTempFile("kablewie", ".board");
+
+        try {
+            Board board = new Board(60, 30, 4L, file);
+            int size = 30;
+
+            board.reveal(15, 15);
+
+            for (int x = 0; x < size; x += 3) {
+                for (int y = 0; y < size; y += 2) {
+                    board.toggleDiffused(x, y);
+                }
+            }
+
+            int[] states = new int[size * size];
+
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    int cell = (x * size) + y;
+                    int state = board.getState(cell);
+
+                    // cells go row by row, with x selecting the row
+                    assertEquals(x, board.getX(cell));
+                    assertEquals(y, board.getY(cell));
+                    assertEquals(board.getAdjacentBombs(x, y),
+                                 state & Board.ADJACENT_MASK);
+                    assertEquals(board.isBomb(x, y),
+                                 (state & Board.BOMB) != 0);
+                    assertEquals(board.isRevealed(x, y),
+                                 (state & Board.REVEALED) != 0);
+                    assertEquals(board.isDiffused(x, y),
+                                 (state & Board.DIFFUSED) != 0);
+                    assertEquals(0, state & ~bits);
+                    states[cell] = state;
+                }
+            }
+
+            // the file holds the same bytes after its counters
+            board.flush();
+
+            byte[] bytes = Files.readAllBytes(file);
+            Board opened = Board.open(file);
+            Board copy = board.copy();
+
+            assertEquals(MappedCellStore.HEADER_BYTES + (size * size),
+                         bytes.length);
+
+            for (int cell = 0; cell < size * size; cell++) {
+                assertEquals(states[cell],
+                             bytes[MappedCellStore.HEADER_BYTES + cell]);
+                assertEquals(states[cell], opened.getState(cell));
+                assertEquals(states[cell], copy.getState(cell));
+            }
+
+            // a move undone on the heap copy leaves every cell as it was
+            int hidden = 0;
+
+            while ((states[hidden] & (Board.BOMB | Board.REVEALED
+                                      | Board.DIFFUSED)) != 0) {
+                hidden++;
+            }
+
+            copy.reveal(copy.getX(hidden), copy.getY(hidden));
+            assertNotEquals(states[hidden], copy.getState(hidden));
+            assertTrue(copy.undo());
+
+            for (int cell = 0; cell < size * size; cell++) {
+                assertEquals(states[cell], copy.getState(cell));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testWinAndLossFollowMovesAndUndo() {
+        SplittableRandom random = new SplittableRandom(13L);
+
+        for (long seed = 0; seed < 20; seed++) {
+            Board board = new Board(10, 8, seed);
+
+            for (int move = 0; move < 400; move++) {
+                int x = random.nextInt(8);
+                int y = random.nextInt(8);
+                int action = random.nextInt(10);
+
+                // reveal only safe tiles, so the game can be won, except
+                // now and then a bomb that is undone straight after
+                if (action < 4) {
+                    if (!board.isBomb(x, y)) {
+                        board.reveal(x, y);
+                    }
+                } else if (action < 7) {
+                    board.toggleDiffused(x, y);
+                } else if (action < 8) {
+                    board.undo();
+                } else if (action < 9) {
+                    board.redo();
+                } else if (board.isBomb(x, y) && !board.isDiffused(x, y)) {
+                    board.reveal(x, y);
+                    assertTrue(board.isLost());
+                    assertFalse(board.isWon());
+                    assertTrue(board.undo());
+                }
+
+                assertEquals(scanWon(board), board.isWon());
+                assertEquals(scanLost(board), board.isLost());
+            }
+
+            // a redo may have brought a lost move back
+            while (board.isLost()) {
+                assertTrue(board.undo());
+            }
+
+            // clear the board, then lose it and take the loss back
+            for (int x = 0; x < 8; x++) {
+                for (int y = 0; y < 8; y++) {
+                    if (board.isBomb(x, y) != board.isDiffused(x, y)) {
+                        board.toggleDiffused(x, y);
+                    }
+
+                    if (!board.isBomb(x, y)) {
+                        board.reveal(x, y);
+                    }
+                }
+            }
+
+            assertTrue(board.isWon());
+
+            int bomb = 0;
+
+            while (!board.isBomb(board.getX(bomb), board.getY(bomb))) {
+                bomb++;
+            }
+
+            board.toggleDiffused(board.getX(bomb), board.getY(bomb));
+            assertFalse(board.isWon());
+            board.reveal(board.getX(bomb), board.getY(bomb));
+            assertTrue(board.isLost());
+            assertTrue(board.undo());
+            assertFalse(board.isLost());
+            assertTrue(board.undo());
+            assertTrue(board.isWon());
+            assertTrue(board.redo());
+            assertFalse(board.isWon());
+        }
+    }
+
+    /**
+     * Gets whether a board is won by looking at every tile
+     *
+     * @param board Board
+     * @return True if every bomb is diffused and every other tile revealed
+     */
+    private static boolean scanWon(Board board) {
+        int size = board.getBoardSize();
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (board.isBomb(x, y) ? !board.isDiffused(x, y)
+                                       : !board.isRevealed(x, y)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets whether a board is lost by looking at every tile
+     *
+     * @param board Board
+     * @return True if a bomb is revealed
+     */
+    private static boolean scanLost(Board board) {
+        int size = board.getBoardSize();
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (board.isBomb(x, y) && board.isRevealed(x, y)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
 }
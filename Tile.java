@@ -11,6 +11,9 @@ import java.awt.*;
 /**
  * @class Tile
  * @brief Is an abstract implamentaion of the tile classes.
+ *
+ * A tile only draws a cell of the Board; the game state lives in the Board
+ * and DisplayBoard tells the tile when its cell changes.
  */
 public abstract class Tile extends JPanel {
 	
@@ -56,22 +59,24 @@ public abstract class Tile extends JPanel {
 	private boolean m_diffused;
 	private boolean m_revealed;
 
+	//Chance of the tile being a bomb shown over it, or NaN for none, and
+	//whether the tile is shown as the hint
+	private double m_chance = Double.NaN;
+	private boolean m_hinted;
+
 	//Colour constants
 	protected static final Color DIFFUSED_COLOUR = Color.BLACK;
 	protected static final Color HIDDEN_COLOUR = Color.LIGHT_GRAY;
+	private static final Color HINT_COLOUR = Color.GREEN;
+
+	//Most opacity of the red drawn over a tile certain to be a bomb
+	private static final int MAX_HEAT_ALPHA = 200;
 	
 	/**
 	* Draws current tile
 	*/
 	public abstract void draw(Graphics g);
 	
-	/**
-	* Gets whether the tile will cause the game to be lost
-	*
-	* @return True if tile causes the game to be lost, false otherwise
-	*/
-	public abstract boolean hasLost();
-
 	/**
 	* Gets whether the tile is bombed
 	*
@@ -99,13 +104,6 @@ public abstract class Tile extends JPanel {
 		return m_revealed;
 	}
 	
-	/**
-	* Gets whether the tile allows the game to be won
-	*
-	* @return True if tile allows game to be won, false otherwise
-	*/
-	public abstract boolean isWinning();
-	
 	/**
 	* Reveals tile, if it is not already revealed
 	*/
@@ -121,6 +119,18 @@ public abstract class Tile extends JPanel {
 		draw(getGraphics());
 	}
 	
+	/**
+	* Sets the revealed and diffused state without drawing, for tiles that
+	* haven't been shown yet
+	*
+	* @param revealed Whether tile is revealed
+	* @param diffused Whether tile is diffused
+	*/
+	public void restore(boolean revealed, boolean diffused) {
+		m_revealed = revealed;
+		m_diffused = diffused;
+	}
+	
 	/**
 	* Toggles whether tile is diffused, if it is not already revealed
 	*/
@@ -137,6 +147,30 @@ public abstract class Tile extends JPanel {
 		draw(getGraphics());
 	}
 	
+	/**
+	* Shows the chance of the tile being a bomb, as red drawn over it
+	*
+	* @param chance Chance from 0 to 1, or NaN to show none
+	*/
+	public void showChance(double chance) {
+		if (Double.compare(chance, m_chance) != 0) {
+			m_chance = chance;
+			repaint();
+		}
+	}
+
+	/**
+	* Shows or hides the tile as the hint, with a border around it
+	*
+	* @param hinted Whether the tile is the hint
+	*/
+	public void showHint(boolean hinted) {
+		if (hinted != m_hinted) {
+			m_hinted = hinted;
+			repaint();
+		}
+	}
+
 	/**
 	* Paints tile
 	*
@@ -146,6 +180,19 @@ public abstract class Tile extends JPanel {
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
 		draw(g);
+
+		// the chance only means anything for a tile still in play
+		if (!m_revealed && !m_diffused && !Double.isNaN(m_chance)) {
+			g.setColor(new Color(255, 0, 0,
+			                     (int) (MAX_HEAT_ALPHA * m_chance)));
+			g.fillRect(0, 0, TILE_LENGTH, TILE_LENGTH);
+		}
+
+		if (m_hinted) {
+			g.setColor(HINT_COLOUR);
+			g.drawRect(0, 0, TILE_LENGTH - 1, TILE_LENGTH - 1);
+			g.drawRect(1, 1, TILE_LENGTH - 3, TILE_LENGTH - 3);
+		}
 	}
 	
 	/**
@@ -0,0 +1,321 @@
+/**
+ * @file Topology.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Describes which tiles of a board are next to each other
+ */
+
+import java.util.Arrays;
+
+/**
+ * @class Topology
+ * @brief Describes which tiles of a board are next to each other
+ *
+ * The neighbours of every cell are worked out once, when the topology is
+ * made, and stored in compressed sparse row form: the neighbours of cell c
+ * are m_neighbours[m_offsets[c]] up to m_neighbours[m_offsets[c + 1]]. A
+ * board using the topology walks these arrays and never needs to know the
+ * shape of the board itself.
+ */
+public final class Topology {
+
+    // most neighbours any cell can have
+    private static final int MAX_DEGREE = 26;
+
+    // most cells a topology can hold, which keeps the neighbour array of
+    // even a cube within the size of an array
+    private static final long MAX_CELLS = 1 << 24;
+
+    // holds a name for the shape of the board
+    private final String m_name;
+
+    // holds where each cell's neighbours start, plus where the last end
+    private final int[] m_offsets;
+
+    // holds the neighbours of every cell, one cell after another
+    private final int[] m_neighbours;
+
+    /**
+     * @interface NeighbourRule
+     * @brief Lists the neighbours of a single cell
+     */
+    private interface NeighbourRule {
+
+        /**
+         * Lists the neighbours of a cell, in any order and possibly
+         * repeated or including the cell itself, which are dropped unless
+         * the topology keeps repeats
+         *
+         * @param cell Index of cell
+         * @param out Array to store the neighbours in
+         * @return Number of neighbours stored
+         */
+        int list(int cell, int[] out);
+    }
+
+    /**
+     * Constructs a topology by listing the neighbours of every cell
+     *
+     * @param name Name of the shape
+     * @param cells Number of cells
+     * @param repeats Whether to keep the neighbours as listed, rather than
+     *                dropping repeats and the cell itself
+     * @param rule Lists the neighbours of a cell
+     */
+    private Topology(String name, int cells, boolean repeats,
+                     NeighbourRule rule) {
+        // rules may list the cell itself as well as its neighbours
+        int[] out = new int[MAX_DEGREE + 1];
+        int[] offsets = new int[cells + 1];
+        int[] neighbours = new int[cells * 8];
+        int total = 0;
+
+        for (int cell = 0; cell < cells; cell++) {
+            int count = rule.list(cell, out);
+
+            if (!repeats) {
+                count = distinct(cell, out, count);
+            }
+
+            if (total + count > neighbours.length) {
+                neighbours = Arrays.copyOf(neighbours,
+                                           Math.max(neighbours.length * 2,
+                                                    total + count));
+            }
+
+            System.arraycopy(out, 0, neighbours, total, count);
+            total += count;
+            offsets[cell + 1] = total;
+        }
+
+        m_name = name;
+        m_offsets = offsets;
+        m_neighbours = Arrays.copyOf(neighbours, total);
+    }
+
+    /**
+     * Gets a square grid where each tile touches up to eight others, the
+     * same shape as Board
+     *
+     * @param size Width and height of the grid
+     * @return Square topology
+     */
+    public static Topology square(int size) {
+        checkSize(size, (long) size * size);
+
+        return new Topology("square", size * size, false, (cell, out) -> {
+            int x = cell / size;
+            int y = cell % size;
+            int count = 0;
+
+            for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, size - 1);
+                 i++) {
+                for (int j = Math.max(y - 1, 0);
+                     j <= Math.min(y + 1, size - 1); j++) {
+                    out[count++] = (i * size) + j;
+                }
+            }
+
+            return count;
+        });
+    }
+
+    /**
+     * Gets a square grid that wraps around at every edge, so each tile
+     * touches eight others
+     *
+     * On a grid narrower than three tiles the wrapping reaches the same
+     * tile from more than one side, and it is counted once for each side,
+     * so every tile still has eight neighbours.
+     *
+     * @param size Width and height of the grid
+     * @return Toroidal topology
+     */
+    public static Topology torus(int size) {
+        checkSize(size, (long) size * size);
+
+        return new Topology("torus", size * size, true, (cell, out) -> {
+            int x = cell / size;
+            int y = cell % size;
+            int count = 0;
+
+            for (int i = x - 1; i <= x + 1; i++) {
+                for (int j = y - 1; j <= y + 1; j++) {
+                    if ((i != x) || (j != y)) {
+                        out[count++] = (Math.floorMod(i, size) * size)
+                                       + Math.floorMod(j, size);
+                    }
+                }
+            }
+
+            return count;
+        });
+    }
+
+    /**
+     * Gets a grid of hexagons, with odd rows shifted half a tile right, so
+     * each tile touches up to six others
+     *
+     * @param size Width and height of the grid
+     * @return Hexagonal topology
+     */
+    public static Topology hex(int size) {
+        checkSize(size, (long) size * size);
+
+        return new Topology("hex", size * size, false, (cell, out) -> {
+            int x = cell / size;
+            int y = cell % size;
+            int shift = x & 1;
+            int count = 0;
+
+            // the rows above and below touch the tile under it and the one
+            // half a tile to the side it is shifted towards
+            for (int i = x - 1; i <= x + 1; i++) {
+                int from = (i == x) ? (y - 1) : (y - 1 + shift);
+                int to = (i == x) ? (y + 1) : (y + shift);
+
+                if ((i < 0) || (i >= size)) {
+                    continue;
+                }
+
+                for (int j = Math.max(from, 0); j <= Math.min(to, size - 1);
+                     j++) {
+                    out[count++] = (i * size) + j;
+                }
+            }
+
+            return count;
+        });
+    }
+
+    /**
+     * Gets a cube of cells where each cell touches up to 26 others, the
+     * cell at x, y, z having index (x * size + y) * size + z
+     *
+     * @param size Width, height and depth of the cube
+     * @return Cube topology
+     */
+    public static Topology cube(int size) {
+        checkSize(size, (long) size * size * size);
+
+        return new Topology("cube", size * size * size, false,
+                            (cell, out) -> {
+            int x = cell / (size * size);
+            int y = (cell / size) % size;
+            int z = cell % size;
+            int count = 0;
+
+            for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, size - 1);
+                 i++) {
+                for (int j = Math.max(y - 1, 0);
+                     j <= Math.min(y + 1, size - 1); j++) {
+                    for (int k = Math.max(z - 1, 0);
+                         k <= Math.min(z + 1, size - 1); k++) {
+                        out[count++] = (((i * size) + j) * size) + k;
+                    }
+                }
+            }
+
+            return count;
+        });
+    }
+
+    /**
+     * Gets the name of the shape
+     *
+     * @return Name of the shape
+     */
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     * Gets the number of cells
+     *
+     * @return Number of cells
+     */
+    public int getCellCount() {
+        return m_offsets.length - 1;
+    }
+
+    /**
+     * Gets the number of neighbours of a cell
+     *
+     * @param cell Index of cell
+     * @return Number of neighbours
+     */
+    public int getDegree(int cell) {
+        return m_offsets[cell + 1] - m_offsets[cell];
+    }
+
+    /**
+     * Gets a neighbour of a cell
+     *
+     * @param cell Index of cell
+     * @param i Which neighbour, from zero up to the degree of the cell
+     * @return Index of the neighbour
+     */
+    public int getNeighbour(int cell, int i) {
+        if ((i < 0) || (i >= getDegree(cell))) {
+            throw new IndexOutOfBoundsException("Invalid neighbour: " + i);
+        }
+
+        return m_neighbours[m_offsets[cell] + i];
+    }
+
+    /**
+     * Gets where each cell's neighbours start in the neighbour array, plus
+     * where the last cell's end, the array mustn't be changed
+     *
+     * @return Offsets of each cell
+     */
+    int[] getOffsets() {
+        return m_offsets;
+    }
+
+    /**
+     * Gets the neighbours of every cell, one cell after another, the array
+     * mustn't be changed
+     *
+     * @return Neighbour array
+     */
+    int[] getNeighbours() {
+        return m_neighbours;
+    }
+
+    /**
+     * Removes a cell and any repeats from a list of its neighbours
+     *
+     * @param cell Index of cell
+     * @param out Neighbours of the cell
+     * @param count Number of neighbours listed
+     * @return Number of neighbours left, at the start of the array
+     */
+    private static int distinct(int cell, int[] out, int count) {
+        Arrays.sort(out, 0, count);
+
+        int kept = 0;
+
+        for (int i = 0; i < count; i++) {
+            if ((out[i] != cell)
+                    && ((kept == 0) || (out[kept - 1] != out[i]))) {
+                out[kept++] = out[i];
+            }
+        }
+
+        return kept;
+    }
+
+    /**
+     * Checks the size of a topology is valid
+     *
+     * @param size Width of the topology
+     * @param cells Number of cells it would have
+     */
+    private static void checkSize(int size, long cells) {
+        if ((size <= 0) || (cells > MAX_CELLS)) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+/**
+ * @file TopologyBoard.java
+ * @author Hal
+ * @date 17 Oct 2026
+ * <p>
+ * @brief Stores the state of a Kablewie board of any shape
+ */
+
+import java.util.SplittableRandom;
+
+/**
+ * @class TopologyBoard
+ * @brief Stores the state of a Kablewie board of any shape
+ *
+ * The shape of the board comes from a Topology. Counting adjacent bombs,
+ * opening up empty tiles and telling when the game is won only ever walk
+ * the topology's neighbour arrays, so every shape runs the same loops.
+ * Tiles are numbered as the topology numbers its cells.
+ *
+ * Board stays the engine for ordinary square boards, where it can lean on
+ * the grid layout for its indexed regions and scanline fills.
+ */
+public class TopologyBoard {
+
+    /**
+     * Gets the shape of the board
+     *
+     * @return Topology of the board
+     */
+    public Topology getTopology() {
+        return m_topology;
+    }
+
+    /**
+     * Gets number of bombs on board
+     *
+     * @return Number of bombs
+     */
+    public int getBombCount() {
+        return m_bombCount;
+    }
+
+    /**
+     * Gets the seed the bombs were placed with
+     *
+     * @return Seed of the board
+     */
+    public long getSeed() {
+        return m_seed;
+    }
+
+    /**
+     * Gets number of diffused tiles on board
+     *
+     * @return Number of diffused tiles
+     */
+    public int getDiffused() {
+        return m_diffused;
+    }
+
+    /**
+     * Gets number of hidden tiles on board
+     *
+     * @return Number of hidden tiles
+     */
+    public int getHidden() {
+        return m_hidden;
+    }
+
+    /**
+     * Gets number of revealed tiles on board
+     *
+     * @return Number of revealed tiles
+     */
+    public int getRevealed() {
+        return m_revealed;
+    }
+
+    // holds the shape of the board and its neighbour arrays
+    private final Topology m_topology;
+    private final int[] m_offsets;
+    private final int[] m_neighbours;
+
+    // holds whether each cell is a bomb, revealed or diffused, using the
+    // same bits as Board
+    private final byte[] m_states;
+
+    // holds the number of bombs next to each cell, which can be more than
+    // fits in a Board cell
+    private final byte[] m_adjacent;
+
+    // holds number of bombs on board and the seed they were placed with
+    private final int m_bombCount;
+    private final long m_seed;
+
+    // holds number of tiles in given state
+    private int m_diffused;
+    private int m_hidden;
+    private int m_revealed;
+
+    // holds the state needed to tell whether the game is won or lost
+    private int m_safeHidden;
+    private int m_bombsDiffused;
+    private boolean m_lost;
+
+    /**
+     * Constructs board object, the same seed always places the bombs in the
+     * same tiles for a given topology and bomb count
+     *
+     * @param topology Shape of the board
+     * @param bombCount Number of bombs to place in board
+     * @param seed Seed to place bombs with
+     */
+    public TopologyBoard(Topology topology, int bombCount, long seed) {
+        int cells = topology.getCellCount();
+
+        // check the parameters are valid
+        if ((bombCount < 0) || (bombCount >= cells)) {
+            throw new IllegalArgumentException("Invalid bombCount: "
+                                               + bombCount);
+        }
+
+        // initialise variables
+        m_topology = topology;
+        m_offsets = topology.getOffsets();
+        m_neighbours = topology.getNeighbours();
+        m_states = new byte[cells];
+        m_adjacent = new byte[cells];
+        m_bombCount = bombCount;
+        m_seed = seed;
+
+        m_diffused = 0;
+        m_hidden = cells;
+        m_revealed = 0;
+
+        m_safeHidden = cells - bombCount;
+        m_bombsDiffused = 0;
+        m_lost = false;
+
+        placeBombs(new SplittableRandom(seed));
+        countAdjacent();
+    }
+
+    /**
+     * Gets a boolean indicating the game is lost
+     *
+     * @return True if game is lost, false otherwise
+     */
+    public boolean isLost() {
+        return m_lost;
+    }
+
+    /**
+     * Gets a boolean indicating the game is won
+     *
+     * @return True if game is won, false otherwise
+     */
+    public boolean isWon() {
+
+        // bombs must be diffused, everything else must be revealed
+        return (m_safeHidden == 0) && (m_bombsDiffused == m_bombCount);
+    }
+
+    /**
+     * Gets whether a tile is a bomb
+     *
+     * @param cell Index of tile
+     * @return True if tile is a bomb, false otherwise
+     */
+    public boolean isBomb(int cell) {
+        return (m_states[cell] & Board.BOMB) != 0;
+    }
+
+    /**
+     * Gets whether a tile is diffused
+     *
+     * @param cell Index of tile
+     * @return True if tile is diffused, false otherwise
+     */
+    public boolean isDiffused(int cell) {
+        return (m_states[cell] & Board.DIFFUSED) != 0;
+    }
+
+    /**
+     * Gets whether a tile is revealed
+     *
+     * @param cell Index of tile
+     * @return True if tile is revealed, false otherwise
+     */
+    public boolean isRevealed(int cell) {
+        return (m_states[cell] & Board.REVEALED) != 0;
+    }
+
+    /**
+     * Gets the number of bombs adjacent to a tile
+     *
+     * @param cell Index of tile
+     * @return The number of adjacent bombs
+     */
+    public int getAdjacentBombs(int cell) {
+        return m_adjacent[cell];
+    }
+
+    /**
+     * Reveals a tile, and every tile around it if it has no adjacent bombs
+     *
+     * @param cell Index of tile
+     * @return The cells that were revealed
+     */
+    public CellList reveal(int cell) {
+        CellList revealed = new CellList();
+
+        if ((m_states[cell] & (Board.DIFFUSED | Board.REVEALED)) != 0) {
+            return revealed;
+        }
+
+        m_states[cell] |= Board.REVEALED;
+        revealed.add(cell);
+
+        if ((m_states[cell] & Board.BOMB) != 0) {
+            m_lost = true;
+        } else {
+            if (m_adjacent[cell] == 0) {
+                fill(cell, revealed);
+            }
+
+            m_safeHidden -= revealed.size();
+        }
+
+        m_revealed += revealed.size();
+        m_hidden -= revealed.size();
+
+        return revealed;
+    }
+
+    /**
+     * Diffuses a tile
+     *
+     * @param cell Index of tile
+     */
+    public void toggleDiffused(int cell) {
+
+        // check is tile is already revealed
+        if ((m_states[cell] & Board.REVEALED) != 0) {
+            return;
+        }
+
+        m_states[cell] ^= Board.DIFFUSED;
+
+        int change = ((m_states[cell] & Board.DIFFUSED) != 0) ? 1 : -1;
+
+        m_diffused += change;
+
+        if ((m_states[cell] & Board.BOMB) != 0) {
+            m_bombsDiffused += change;
+        }
+    }
+
+    /**
+     * Opens up the area around a revealed tile with no adjacent bombs
+     *
+     * @param seed Index of a revealed tile with no adjacent bombs
+     * @param revealed List to add the newly revealed cells to
+     */
+    private void fill(int seed, CellList revealed) {
+        CellList open = new CellList();
+        open.add(seed);
+
+        while (open.size() > 0) {
+            int cell = open.removeLast();
+
+            for (int i = m_offsets[cell]; i < m_offsets[cell + 1]; i++) {
+                int neighbour = m_neighbours[i];
+
+                if ((m_states[neighbour]
+                     & (Board.DIFFUSED | Board.REVEALED)) != 0) {
+                    continue;
+                }
+
+                // tiles next to an empty tile are never bombs
+                m_states[neighbour] |= Board.REVEALED;
+                revealed.add(neighbour);
+
+                if (m_adjacent[neighbour] == 0) {
+                    open.add(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Places the bombs using Floyd's sampling algorithm, drawing the same
+     * random numbers as Board so a square topology places the same bombs
+     *
+     * @param rnd Random number generator to place bombs with
+     */
+    private void placeBombs(SplittableRandom rnd) {
+        int cells = m_states.length;
+        int picks = m_bombCount;
+        byte picked = Board.BOMB;
+
+        if (m_bombCount > (cells / 2)) {
+            for (int cell = 0; cell < cells; cell++) {
+                m_states[cell] = picked;
+            }
+
+            picks = cells - m_bombCount;
+            picked = 0;
+        }
+
+        for (int j = cells - picks; j < cells; j++) {
+            int cell = rnd.nextInt(j + 1);
+
+            // if that cell was already picked, j can't have been yet
+            if (m_states[cell] == picked) {
+                cell = j;
+            }
+
+            m_states[cell] = picked;
+        }
+    }
+
+    /**
+     * Stores the number of adjacent bombs of every cell, by adding each
+     * bomb to its neighbours
+     */
+    private void countAdjacent() {
+        for (int cell = 0; cell < m_states.length; cell++) {
+            if ((m_states[cell] & Board.BOMB) != 0) {
+                for (int i = m_offsets[cell]; i < m_offsets[cell + 1]; i++) {
+                    m_adjacent[m_neighbours[i]]++;
+                }
+            }
+        }
+    }
+}